@@ -0,0 +1,34 @@
+package atul.android.finalproject.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+* Class BenchMain
+*
+* Brief Entry point of benchmarks.jar. It takes the usual JMH command line and adds the allocation
+* 		profiler, so every run reports the bytes allocated per operation next to the time.
+* 		The game loop runs on a phone where every allocation ends up as a GC pause, so a
+* 		change which starts allocating in the per-frame code should show up here first.
+*
+*@note	Pass -Dbench.gc=false to run without the profiler
+*/
+public class BenchMain
+{
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException
+	{
+		CommandLineOptions cmd = new CommandLineOptions(args);
+
+		OptionsBuilder builder = new OptionsBuilder();
+		builder.parent(cmd);
+
+		if(Boolean.parseBoolean(System.getProperty("bench.gc", "true")))
+			builder.addProfiler(GCProfiler.class);
+
+		new Runner(builder.build()).run();
+	}
+}
@@ -0,0 +1,75 @@
+package atul.android.finalproject.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import atul.android.finalproject.TriggerArea;
+
+/**
+* Class CollisionBenchmark
+*
+* Brief Measures the two collision tests of TriggerArea against a fixed set of random points and
+* 		steps around the target. About a third of them hit, so both the early exits and the full
+* 		slab test are exercised.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark
+{
+	@Setup
+	public void setup()
+	{
+		Random random = new Random(42);
+
+		for(int i = 0; i < SAMPLES; i++)
+		{
+			m_x0[i] = 200 + random.nextFloat() * 200;
+			m_y0[i] = 200 + random.nextFloat() * 200;
+			m_x1[i] = m_x0[i] + FlightBenchmark.X_STEP;
+			m_y1[i] = m_y0[i] + (random.nextFloat() - 0.5f) * 20;
+		}
+	}
+
+	// Point test used before the swept test was added
+	@Benchmark
+	public boolean collider()
+	{
+		int i = m_next++ & (SAMPLES - 1);
+		return m_trigger.collider(m_x0[i], m_y0[i]);
+	}
+
+	// Swept test of one physics step
+	@Benchmark
+	public float sweep()
+	{
+		int i = m_next++ & (SAMPLES - 1);
+		return m_trigger.sweep(m_x0[i], m_y0[i], m_x1[i], m_y1[i]);
+	}
+
+	// Must be a power of two
+	private static final int SAMPLES = 1024;
+
+	private final TriggerArea m_trigger = new TriggerArea(250, 250, 350, 350);
+
+	private final float[] m_x0 = new float[SAMPLES];
+	private final float[] m_y0 = new float[SAMPLES];
+	private final float[] m_x1 = new float[SAMPLES];
+	private final float[] m_y1 = new float[SAMPLES];
+
+	private int m_next = 0;
+}
@@ -0,0 +1,122 @@
+package atul.android.finalproject.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import atul.android.finalproject.FlightSimulator;
+import atul.android.finalproject.HitPredictor;
+import atul.android.finalproject.TrajectoryEngine;
+import atul.android.finalproject.TriggerArea;
+
+/**
+* Class FlightBenchmark
+*
+* Brief Measures the work Game.update() does for the rocket: one trajectory evaluation and one swept
+* 		collision test per physics step. step() is a single frame, flight() is a whole launch
+* 		stepped by the FlightSimulator (as Game.update() does) until the rocket hits the target
+* 		or leaves the screen, and predict() is the
+* 		closed-form answer to the same question used by the instant result mode.
+*
+*@note	The screen is a 480 x 800 portrait phone at density 1.5
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlightBenchmark
+{
+	@Param({"30", "45", "70"})
+	public int angle;
+
+	@Param({"40", "70"})
+	public int velocity;
+
+	@Setup
+	public void setup()
+	{
+		m_trajectory.setScreen(HEIGHT, UNIT);
+		m_trajectory.launch(angle, velocity);
+
+		// Same trigger area Game.setTriggerArea() builds around a target in the middle of its range
+		float targetX = WIDTH * 0.6f;
+		float targetY = HEIGHT * 0.4f;
+		m_trigger = TriggerArea.aroundTarget(targetX, targetY, TARGET_WIDTH, TARGET_HEIGHT);
+
+		m_simulator.setBounds(WIDTH, HEIGHT);
+		m_simulator.setTriggerArea(m_trigger);
+
+		m_x = 0;
+		m_y = m_trajectory.screenYAt(0);
+	}
+
+	// One physics step of a flight which wraps around at the edge of the screen
+	@Benchmark
+	public float step()
+	{
+		float x = m_x + X_STEP;
+		float y = m_trajectory.screenYAt(x);
+
+		float t = m_trigger.sweep(m_x, m_y, x, y);
+
+		if(x > WIDTH || y > HEIGHT)
+		{
+			x = 0;
+			y = m_trajectory.screenYAt(0);
+		}
+
+		m_x = x;
+		m_y = y;
+
+		return t;
+	}
+
+	// A whole flight, stepped the way the animation thread does it
+	@Benchmark
+	public int flight()
+	{
+		m_simulator.start();
+
+		int state = m_simulator.step();
+
+		while(state == FlightSimulator.FLYING)
+			state = m_simulator.step();
+
+		return state;
+	}
+
+	// The same flight answered in closed form
+	@Benchmark
+	public boolean predict()
+	{
+		return m_predictor.predict(m_trajectory, m_trigger.getLeft(), m_trigger.getTop(),
+								   m_trigger.getRight(), m_trigger.getBottom(), WIDTH);
+	}
+
+	static final float WIDTH = 480;
+	static final float HEIGHT = 800;
+	static final float UNIT = 1.5f;
+	static final float X_STEP = FlightSimulator.X_STEP;
+	static final float TARGET_WIDTH = 48;
+	static final float TARGET_HEIGHT = 48;
+
+	private final TrajectoryEngine m_trajectory = new TrajectoryEngine();
+	private final FlightSimulator m_simulator = new FlightSimulator(m_trajectory);
+	private final HitPredictor m_predictor = new HitPredictor();
+	private TriggerArea m_trigger;
+
+	private float m_x;
+	private float m_y;
+}
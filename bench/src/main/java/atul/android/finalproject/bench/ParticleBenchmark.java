@@ -0,0 +1,85 @@
+package atul.android.finalproject.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import atul.android.finalproject.ParticleSystem;
+
+/**
+* Class ParticleBenchmark
+*
+* Brief Measures the ParticleSystem while a salvo is in flight and a hit blows up in every step,
+* 		more than the game asks of it. step() is one physics step followed by the exhaust of the
+* 		salvo and an explosion, as in Game.update(). With 256 particles the ring is full and the
+* 		oldest sparks are given to the new ones. interpolate() is the per-frame work of the
+* 		renderer before the points are drawn. Both must not allocate.
+*
+*@note	The budget and the forces are the ones of the game on a screen of density 1.5
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParticleBenchmark
+{
+	@Param({"256", "1024"})
+	public int particles;
+
+	@Setup
+	public void setup()
+	{
+		m_particles = new ParticleSystem(particles, BUDGET);
+		m_particles.setForces(1.5f, 0.85f);
+
+		m_points = new float[2 * particles];
+
+		// Run until the sparks dying match the sparks emitted
+		for(int i = 0; i < WARMUP_STEPS; i++)
+			step();
+	}
+
+	// One physics step, then the sparks of a salvo of rockets and of a hit
+	@Benchmark
+	public int step()
+	{
+		int count = m_particles.step();
+
+		for(int i = 0; i < ROCKETS; i++)
+			m_particles.emit(ParticleSystem.EXHAUST, 100 + 20 * i, 400 - 10 * i, -3, 2, 3, 8, 3);
+
+		m_particles.emit(ParticleSystem.BLAST, 300, 300, 0, -6, 18, 16, 48);
+
+		return count;
+	}
+
+	// Positions of every spark for one drawn frame
+	@Benchmark
+	public int interpolate()
+	{
+		return m_particles.interpolate(0.5f, m_points, m_starts);
+	}
+
+	// Particles emitted in a physics step, and rockets of a salvo
+	private static final int BUDGET = 128;
+	private static final int ROCKETS = 5;
+
+	// Longer than the life of any spark
+	private static final int WARMUP_STEPS = 50;
+
+	private ParticleSystem m_particles;
+	private float[] m_points;
+	private final int[] m_starts = new int[ParticleSystem.BUCKETS + 1];
+}
@@ -0,0 +1,136 @@
+package atul.android.finalproject.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import atul.android.finalproject.FlightSimulator;
+import atul.android.finalproject.LaunchRecord;
+import atul.android.finalproject.LaunchRecorder;
+import atul.android.finalproject.LaunchReplayer;
+import atul.android.finalproject.TargetGenerator;
+import atul.android.finalproject.TrajectoryEngine;
+import atul.android.finalproject.TriggerArea;
+
+/**
+* Class ReplayBenchmark
+*
+* Brief Measures reading and replaying a whole session from a launch log. The log pulled from a
+* 		device is used if it is given with -Dbench.log=launches.bin, otherwise a session of
+* 		SESSION_LAUNCHES launches is recorded in memory first.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayBenchmark
+{
+	@Setup
+	public void setup() throws IOException
+	{
+		String path = System.getProperty("bench.log");
+
+		if(path != null)
+			m_log = LaunchReplayer.load(new File(path));
+		else
+			m_log = recordSession();
+
+		m_start = m_log.position();
+	}
+
+	// Every launch of the session, read from the log and replayed
+	@Benchmark
+	public int replaySession()
+	{
+		m_log.position(m_start);
+
+		int same = 0;
+
+		while(m_log.hasRemaining() && m_record.read(m_log))
+		{
+			if(m_replayer.replay(m_record))
+				same++;
+		}
+
+		return same;
+	}
+
+	// Records a session the way Game does, into a log held in memory
+	private static ByteBuffer recordSession()
+	{
+		TargetGenerator generator = new TargetGenerator();
+		TrajectoryEngine trajectory = new TrajectoryEngine();
+		FlightSimulator simulator = new FlightSimulator(trajectory);
+		LaunchRecord record = new LaunchRecord();
+
+		ByteBuffer log = ByteBuffer.allocate(SESSION_LAUNCHES * (LaunchRecord.FIXED_SIZE + 8 * 256));
+		log.putInt(LaunchRecorder.MAGIC);
+		log.putShort(LaunchRecorder.VERSION);
+
+		int width = (int) FlightBenchmark.WIDTH;
+		int height = (int) FlightBenchmark.HEIGHT;
+
+		trajectory.setScreen(height, FlightBenchmark.UNIT);
+		simulator.setBounds(width, height);
+
+		for(int i = 0; i < SESSION_LAUNCHES; i++)
+		{
+			generator.setSeed(i);
+			generator.generate(width, height);
+
+			TriggerArea area = TriggerArea.aroundTarget(generator.getX(), generator.getY(),
+														FlightBenchmark.TARGET_WIDTH, FlightBenchmark.TARGET_HEIGHT);
+
+			// Shots a player might try, from flat to steep
+			int angle = 20 + (i * 7) % 60;
+			int velocity = 30 + (i * 11) % 50;
+
+			trajectory.launch(angle, velocity);
+			simulator.setTriggerArea(area);
+			simulator.start();
+
+			record.begin(i, i, width, height, FlightBenchmark.UNIT);
+			record.setTarget(generator.getX(), generator.getY(), area);
+			record.setLaunch(angle, velocity, false);
+
+			int state = simulator.step();
+
+			while(state == FlightSimulator.FLYING)
+			{
+				record.addFrame(simulator.getX(), simulator.getY());
+				state = simulator.step();
+			}
+
+			record.setResult(simulator.getX(), simulator.getY(), simulator.getMaxHeight(),
+							 state == FlightSimulator.HIT);
+			record.write(log);
+		}
+
+		log.flip();
+
+		return log;
+	}
+
+	// Launches of the session recorded when no log is given
+	static final int SESSION_LAUNCHES = 200;
+
+	private ByteBuffer m_log;
+	private int m_start;
+
+	private final LaunchRecord m_record = new LaunchRecord();
+	private final LaunchReplayer m_replayer = new LaunchReplayer(LaunchReplayer.DEFAULT_TOLERANCE);
+}
@@ -0,0 +1,86 @@
+package atul.android.finalproject.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import atul.android.finalproject.ProjectilePool;
+import atul.android.finalproject.TrajectoryEngine;
+import atul.android.finalproject.TriggerArea;
+
+/**
+* Class SalvoBenchmark
+*
+* Brief Measures one physics step of the ProjectilePool with many rockets in flight, the work
+* 		Game.update() does in a frame of a salvo. Every rocket which finishes is fired again at
+* 		once, so the pool stays full and rockets keep finishing and moving to other entries as
+* 		they do in the game. interpolate() is the per-frame work of the renderer.
+*
+*@note	The screen is the one of FlightBenchmark
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SalvoBenchmark
+{
+	@Param({"1", "16", "256"})
+	public int rockets;
+
+	@Setup
+	public void setup()
+	{
+		m_trajectory.setScreen(FlightBenchmark.HEIGHT, FlightBenchmark.UNIT);
+
+		m_pool = new ProjectilePool(rockets, m_trajectory);
+		m_pool.setBounds(FlightBenchmark.WIDTH, FlightBenchmark.HEIGHT);
+		m_pool.setTriggerArea(TriggerArea.aroundTarget(FlightBenchmark.WIDTH * 0.6f, FlightBenchmark.HEIGHT * 0.4f,
+													   FlightBenchmark.TARGET_WIDTH, FlightBenchmark.TARGET_HEIGHT));
+
+		m_positions = new float[2 * rockets];
+
+		for(int i = 0; i < rockets; i++)
+			fire(i);
+	}
+
+	// One physics step of every rocket in flight
+	@Benchmark
+	public int step()
+	{
+		int done = m_pool.step();
+
+		for(int i = 0; i < done; i++)
+			fire(m_pool.getDoneId(i));
+
+		return done;
+	}
+
+	// Positions of every rocket for one drawn frame
+	@Benchmark
+	public int interpolate()
+	{
+		return m_pool.interpolate(0.5f, m_positions);
+	}
+
+	// Fires a rocket with launch values which depend on a number, from flat to steep
+	private void fire(int i)
+	{
+		m_pool.fire(20 + (i * 7) % 60, 30 + (i * 11) % 50);
+	}
+
+	private final TrajectoryEngine m_trajectory = new TrajectoryEngine();
+	private ProjectilePool m_pool;
+	private float[] m_positions;
+}
@@ -0,0 +1,55 @@
+package atul.android.finalproject.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import atul.android.finalproject.ToneSynth;
+
+/**
+* Class SynthBenchmark
+*
+* Brief Measures one 10 ms buffer of the flight tones with the rocket moving between buffers, the
+* 		work the audio thread does while the rocket is in the air.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SynthBenchmark
+{
+	@Setup
+	public void setup()
+	{
+		m_synth.setTarget(ToneSynth.pitchOf(0.5f), ToneSynth.panOf(0.7f), 0.4f);
+	}
+
+	@Benchmark
+	public short[] render()
+	{
+		m_height = (m_height + 0.01f) % 1;
+
+		m_synth.setRocket(ToneSynth.pitchOf(m_height), ToneSynth.panOf(m_height), 0.8f);
+		m_synth.render(m_buffer, FRAMES);
+
+		return m_buffer;
+	}
+
+	private static final int FRAMES = 441;
+
+	private final ToneSynth m_synth = new ToneSynth(44100);
+	private final short[] m_buffer = new short[2 * FRAMES];
+
+	private float m_height = 0;
+}
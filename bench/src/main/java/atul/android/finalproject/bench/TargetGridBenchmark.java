@@ -0,0 +1,149 @@
+package atul.android.finalproject.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import atul.android.finalproject.TargetGrid;
+import atul.android.finalproject.TriggerArea;
+
+/**
+* Class TargetGridBenchmark
+*
+* Brief Measures the collision test of a physics step of a salvo against a field of pumpkins.
+* 		sweep() tests SEGMENTS rocket steps against the TargetGrid, brute() tests the same steps
+* 		against every trigger area, as the game would without the grid. With the grid the cost
+* 		should hardly change from a few pumpkins to hundreds. advance() moves a quarter of the
+* 		pumpkins by one physics step.
+*
+*@note	The screen and the cell size are the ones of the game
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TargetGridBenchmark
+{
+	@Param({"16", "256"})
+	public int targets;
+
+	@Setup
+	public void setup()
+	{
+		Random random = new Random(42);
+
+		m_grid = new TargetGrid(targets, CELL);
+		m_grid.setBounds(FlightBenchmark.WIDTH, FlightBenchmark.HEIGHT);
+
+		m_left = new float[targets];
+		m_top = new float[targets];
+		m_right = new float[targets];
+		m_bottom = new float[targets];
+
+		for(int i = 0; i < targets; i++)
+		{
+			float x = random.nextFloat() * (FlightBenchmark.WIDTH - FlightBenchmark.TARGET_WIDTH);
+			float y = random.nextFloat() * (FlightBenchmark.HEIGHT - FlightBenchmark.TARGET_HEIGHT);
+
+			int target = m_grid.add(x, y, FlightBenchmark.TARGET_WIDTH, FlightBenchmark.TARGET_HEIGHT, false);
+
+			if(i % 4 == 0)
+				m_grid.setMotion(target, 2, Math.max(0, x - 60), x + 60);
+
+			TriggerArea area = TriggerArea.aroundTarget(x, y, FlightBenchmark.TARGET_WIDTH, FlightBenchmark.TARGET_HEIGHT);
+			m_left[i] = area.getLeft();
+			m_top[i] = area.getTop();
+			m_right[i] = area.getRight();
+			m_bottom[i] = area.getBottom();
+		}
+
+		// Steps of a few pixels all over the screen, like the ones of rockets in flight
+		for(int i = 0; i < SEGMENTS; i++)
+		{
+			float x = random.nextFloat() * FlightBenchmark.WIDTH;
+			float y = random.nextFloat() * FlightBenchmark.HEIGHT;
+
+			m_segments[4 * i] = x;
+			m_segments[4 * i + 1] = y;
+			m_segments[4 * i + 2] = x + 2 + random.nextFloat() * 6;
+			m_segments[4 * i + 3] = y - 6 + random.nextFloat() * 12;
+		}
+	}
+
+	// Every step against the pumpkins of the cells it can reach
+	@Benchmark
+	public int sweep()
+	{
+		int hits = 0;
+
+		for(int i = 0; i < 4 * SEGMENTS; i += 4)
+		{
+			if(m_grid.sweep(m_segments[i], m_segments[i + 1], m_segments[i + 2], m_segments[i + 3]) != TriggerArea.NO_HIT)
+				hits++;
+		}
+
+		return hits;
+	}
+
+	// Every step against every pumpkin
+	@Benchmark
+	public int brute()
+	{
+		int hits = 0;
+
+		for(int i = 0; i < 4 * SEGMENTS; i += 4)
+		{
+			float first = TriggerArea.NO_HIT;
+
+			// The earliest impact, like the grid
+			for(int t = 0; t < targets; t++)
+			{
+				float impact = TriggerArea.sweep(m_left[t], m_top[t], m_right[t], m_bottom[t],
+												 m_segments[i], m_segments[i + 1], m_segments[i + 2], m_segments[i + 3]);
+
+				if(impact != TriggerArea.NO_HIT && (first == TriggerArea.NO_HIT || impact < first))
+					first = impact;
+			}
+
+			if(first != TriggerArea.NO_HIT)
+				hits++;
+		}
+
+		return hits;
+	}
+
+	// One physics step of the moving pumpkins
+	@Benchmark
+	public void advance()
+	{
+		m_grid.advance();
+	}
+
+	// Rocket steps tested in one call, the rockets of a salvo
+	private static final int SEGMENTS = 64;
+
+	// Cell size of the grid of the game
+	private static final float CELL = 64;
+
+	private TargetGrid m_grid;
+
+	private float[] m_left;
+	private float[] m_top;
+	private float[] m_right;
+	private float[] m_bottom;
+
+	private final float[] m_segments = new float[4 * SEGMENTS];
+}
@@ -0,0 +1,83 @@
+package atul.android.finalproject.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import atul.android.finalproject.BatchSolver;
+import atul.android.finalproject.InverseSolver;
+import atul.android.finalproject.ShotAnalyzer;
+import atul.android.finalproject.TargetGenerator;
+
+/**
+* Class TurnBenchmark
+*
+* Brief Measures the work GameManager does between two launches: placing a new target, solving
+* 		every shot for it and working out the advice after a miss.
+*/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TurnBenchmark
+{
+	@Benchmark
+	public int generateTarget()
+	{
+		m_generator.generate((int) FlightBenchmark.WIDTH, (int) FlightBenchmark.HEIGHT);
+		return m_generator.getX() + m_generator.getY();
+	}
+
+	// Every (angle, velocity) pair for one target, on all the cores
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int solveTarget()
+	{
+		return m_solver.solve(240, 280, 312, 376, FlightBenchmark.HEIGHT, FlightBenchmark.UNIT,
+							  FlightBenchmark.WIDTH);
+	}
+
+	@Benchmark
+	public int analyzeShot()
+	{
+		// Walk the landing point across the target so every branch is taken
+		m_x = (m_x + 7) % (int) FlightBenchmark.WIDTH;
+		m_height = (m_height + 13) % (int) FlightBenchmark.HEIGHT;
+
+		return ShotAnalyzer.analyze(m_x, m_height, 300, 350, (int) FlightBenchmark.HEIGHT);
+	}
+
+	// Launch values which would have hit, for a walk over the seekbar values
+	@Benchmark
+	public double correctShot()
+	{
+		m_x = (m_x + 7) % (int) FlightBenchmark.WIDTH;
+
+		m_inverse.solve(m_x % 91, (m_x * 3) % 91, 276, 328, FlightBenchmark.HEIGHT, FlightBenchmark.UNIT);
+		return m_inverse.getVelocity() + m_inverse.getAngle();
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		m_solver.shutdown();
+	}
+
+	private final TargetGenerator m_generator = new TargetGenerator(42);
+	private final BatchSolver m_solver = new BatchSolver();
+	private final InverseSolver m_inverse = new InverseSolver();
+
+	private int m_x = 0;
+	private int m_height = 0;
+}
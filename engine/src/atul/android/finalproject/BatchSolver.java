@@ -0,0 +1,239 @@
+package atul.android.finalproject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+* Class BatchSolver
+*
+* Brief This class works out the result of every shot the player can choose for one target. The
+* 		seekbar gives integer angles and velocities from 0 to MAX_INPUT, so there are only
+* 		(MAX_INPUT + 1)^2 shots and each one is a closed-form HitPredictor call.
+*
+* 		solve() shares the angles between a few worker threads. Each worker takes the next
+* 		angle that nobody has taken yet, so a slow core does not hold the others up. The
+* 		results are kept in
+* 			- a bitset with one bit per shot, set if the shot hits the target
+* 			- the miss distance of every shot in pixels, 0 for a hit
+*
+* 		After that isHit() and getMissDistance() are array lookups, so hints and difficulty
+* 		checks can ask about any shot without simulating it.
+*
+*@note	Every angle gets whole words of the bitset, so two workers never write the same word.
+*		Call shutdown() when the solver is no longer needed
+*/
+public class BatchSolver
+{
+	// Solver with one worker per available processor
+	public BatchSolver()
+	{
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	* Represents the constructor which sets the number of worker threads
+	*
+	* @param threads - Number of worker threads. The calling thread only waits for them
+	*/
+	public BatchSolver(int threads)
+	{
+		threads = Math.max(1, threads);
+
+		m_executor = Executors.newFixedThreadPool(threads, new ThreadFactory()
+		{
+			@Override
+			public Thread newThread(Runnable r)
+			{
+				Thread thread = new Thread(r, "BatchSolver");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		m_workers = new ArrayList<Worker>(threads);
+
+		for(int i = 0; i < threads; i++)
+			m_workers.add(new Worker());
+	}
+
+	/**
+	* Solves every shot for one target. The calling thread blocks until all of them are done
+	*
+	* @param left    - Left edge of the trigger area
+	* @param top     - Top edge of the trigger area
+	* @param right   - Right edge of the trigger area
+	* @param bottom  - Bottom edge of the trigger area
+	* @param groundY - Screen y coordinate of the launch point
+	* @param unit    - Screen density
+	* @param width   - Width of the screen
+	*
+	* @return Number of shots which hit the target
+	*/
+	public synchronized int solve(float left, float top, float right, float bottom,
+								  float groundY, float unit, float width)
+	{
+		m_left = left;
+		m_top = top;
+		m_right = right;
+		m_bottom = bottom;
+		m_groundY = groundY;
+		m_unit = unit;
+		m_width = width;
+
+		m_nextAngle.set(0);
+
+		try
+		{
+			m_executor.invokeAll(m_workers);
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+
+		int count = 0;
+
+		for(Worker worker : m_workers)
+			count += worker.m_hits;
+
+		m_hitCount = count;
+
+		return count;
+	}
+
+	/**
+	* Tells whether a shot hits the target of the last solve()
+	*
+	* @param angle    - Launch angle, 0 to MAX_INPUT
+	* @param velocity - Launch velocity, 0 to MAX_INPUT
+	*/
+	public boolean isHit(int angle, int velocity)
+	{
+		return (m_bits[angle * WORDS_PER_ANGLE + (velocity >> 6)] & (1L << velocity)) != 0;
+	}
+
+	/**
+	* Distance in pixels by which a shot misses the target of the last solve(). 0 for a hit
+	*
+	* @param angle    - Launch angle, 0 to MAX_INPUT
+	* @param velocity - Launch velocity, 0 to MAX_INPUT
+	*/
+	public float getMissDistance(int angle, int velocity)
+	{
+		return m_miss[angle * INPUTS + velocity];
+	}
+
+	// Public property exposing the number of shots which hit the target of the last solve()
+	public int getHitCount()
+	{
+		return m_hitCount;
+	}
+
+	// Stops the worker threads
+	public void shutdown()
+	{
+		m_executor.shutdownNow();
+	}
+
+	/**
+	* Distance from the point (x, y) to the trigger area
+	*/
+	private float distanceToArea(float x, float y)
+	{
+		float dx = Math.max(0, Math.max(m_left - x, x - m_right));
+		float dy = Math.max(0, Math.max(m_top - y, y - m_bottom));
+
+		return (float) Math.sqrt(dx * dx + dy * dy);
+	}
+
+	/**
+	* Class Worker
+	*
+	* Brief Solves whole angles until there are none left. Each worker has its own trajectory
+	* 		engine and predictor, so nothing is shared except the output arrays
+	*/
+	private class Worker implements Callable<Void>
+	{
+		@Override
+		public Void call()
+		{
+			m_hits = 0;
+			m_trajectory.setScreen(m_groundY, m_unit);
+
+			float centerX = (m_left + m_right) / 2;
+
+			for(int angle = m_nextAngle.getAndIncrement(); angle <= MAX_INPUT;
+				angle = m_nextAngle.getAndIncrement())
+			{
+				int word = angle * WORDS_PER_ANGLE;
+
+				for(int i = 0; i < WORDS_PER_ANGLE; i++)
+					m_bits[word + i] = 0;
+
+				for(int velocity = 0; velocity <= MAX_INPUT; velocity++)
+				{
+					m_trajectory.launch(angle, velocity);
+
+					float miss = 0;
+
+					if(m_predictor.predict(m_trajectory, m_left, m_top, m_right, m_bottom, m_width))
+					{
+						m_bits[word + (velocity >> 6)] |= 1L << velocity;
+						m_hits++;
+					}
+					else if(m_predictor.getExitX() >= centerX)
+					{
+						// The rocket passes the target. Measure the gap as it goes by
+						miss = distanceToArea(centerX, m_trajectory.screenYAt(centerX));
+					}
+					else
+					{
+						// The rocket falls short. Measure from where it leaves the screen
+						miss = distanceToArea(m_predictor.getExitX(), m_predictor.getExitY());
+					}
+
+					m_miss[angle * INPUTS + velocity] = miss;
+				}
+			}
+
+			return null;
+		}
+
+		private final TrajectoryEngine m_trajectory = new TrajectoryEngine();
+		private final HitPredictor m_predictor = new HitPredictor();
+
+		// Number of hits found by this worker in the last solve()
+		private int m_hits = 0;
+	}
+
+	// Largest angle and velocity the seekbar can give
+	public static final int MAX_INPUT = 90;
+
+	private static final int INPUTS = MAX_INPUT + 1;
+	private static final int WORDS_PER_ANGLE = (INPUTS + 63) / 64;
+
+	private final ExecutorService m_executor;
+	private final List<Worker> m_workers;
+
+	// Next angle to be taken by a worker
+	private final AtomicInteger m_nextAngle = new AtomicInteger();
+
+	private final long[] m_bits = new long[INPUTS * WORDS_PER_ANGLE];
+	private final float[] m_miss = new float[INPUTS * INPUTS];
+
+	private int m_hitCount = 0;
+
+	// Target and screen of the current solve(). Written before the workers start
+	private float m_left;
+	private float m_top;
+	private float m_right;
+	private float m_bottom;
+	private float m_groundY;
+	private float m_unit;
+	private float m_width;
+}
@@ -0,0 +1,428 @@
+package atul.android.finalproject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+* Class ClipCache
+*
+* Brief This class keeps recorded speech clips (WAV files) in a directory, one file per text. The
+* 		total size of the files is limited, and the least recently played clips are deleted first.
+*
+* 		The file of a text is named after the SHA-1 of the text, so the same text finds the same
+* 		file after a restart. The last modified time of a file is its last use, which keeps the
+* 		least recently used order across restarts.
+*
+* 		New clips are written to getTempFile() and handed to add() once they are complete, so a
+* 		half written clip is never played.
+*
+*@note	This class is not thread safe
+*/
+public class ClipCache
+{
+	/**
+	* Class Clip
+	*
+	* Brief Represents one cached clip. The player keeps its own handle of the loaded clip here
+	*/
+	public static class Clip
+	{
+		private Clip(File file, long durationMillis)
+		{
+			m_file = file;
+			m_durationMillis = durationMillis;
+		}
+
+		// Public property exposing the file of the clip
+		public File getFile()
+		{
+			return m_file;
+		}
+
+		// Public property exposing how long the clip plays
+		public long getDurationMillis()
+		{
+			return m_durationMillis;
+		}
+
+		// Public property exposing the handle given to the clip by the player. 0 if it is not loaded
+		public int getHandle()
+		{
+			return m_handle;
+		}
+
+		public void setHandle(int handle)
+		{
+			m_handle = handle;
+		}
+
+		// Public property telling whether the player has finished loading the clip
+		public boolean isReady()
+		{
+			return m_ready;
+		}
+
+		public void setReady(boolean ready)
+		{
+			m_ready = ready;
+		}
+
+		private final File m_file;
+		private final long m_durationMillis;
+
+		private int m_handle = 0;
+		private boolean m_ready = false;
+	}
+
+	/**
+	* Interface OnEvictListener
+	*
+	* Brief Called before the file of a clip is deleted, so the player can unload it
+	*/
+	public interface OnEvictListener
+	{
+		void onEvict(Clip clip);
+	}
+
+	/**
+	* Opens the cache in a directory and finds the clips left there by earlier runs
+	*
+	* @param directory - Directory of the clips. It is created if it does not exist
+	* @param maxBytes  - Largest total size of the clips
+	*/
+	public ClipCache(File directory, long maxBytes)
+	{
+		m_directory = directory;
+		m_maxBytes = maxBytes;
+
+		m_directory.mkdirs();
+
+		File[] files = m_directory.listFiles();
+
+		if(files == null)
+			return;
+
+		// Oldest first, so that the order of the map matches the last use
+		Arrays.sort(files, new Comparator<File>()
+		{
+			@Override
+			public int compare(File a, File b)
+			{
+				long diff = a.lastModified() - b.lastModified();
+				return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+			}
+		});
+
+		for(File file : files)
+		{
+			String name = file.getName();
+
+			if(name.endsWith(TEMP_SUFFIX))
+			{
+				// Left by a synthesis which did not finish
+				file.delete();
+				continue;
+			}
+
+			if(! name.endsWith(CLIP_SUFFIX))
+				continue;
+
+			long duration = readDurationMillis(file);
+
+			if(duration <= 0)
+			{
+				file.delete();
+				continue;
+			}
+
+			String key = name.substring(0, name.length() - CLIP_SUFFIX.length());
+			m_clips.put(key, new Clip(file, duration));
+			m_bytes += file.length();
+		}
+
+		trim();
+	}
+
+	/**
+	* Finds the clip of a text and marks it as used
+	*
+	* @param text - Text of the clip
+	*
+	* @return The clip or null if the text is not cached
+	*/
+	public Clip get(String text)
+	{
+		String key = keyFor(text);
+		Clip clip = m_clips.remove(key);
+
+		if(clip != null)
+		{
+			// Move it to the back, it is now the most recently used
+			m_clips.put(key, clip);
+			clip.getFile().setLastModified(System.currentTimeMillis());
+		}
+
+		return clip;
+	}
+
+	/**
+	* Finds the clip of a text without marking it as used
+	*
+	* @param text - Text of the clip
+	*
+	* @return True if the text is cached
+	*/
+	public boolean contains(String text)
+	{
+		return m_clips.containsKey(keyFor(text));
+	}
+
+	/**
+	* Finds the clip of a text without marking it as used
+	*
+	* @param text - Text of the clip
+	*
+	* @return The clip or null if the text is not cached
+	*/
+	public Clip peek(String text)
+	{
+		return m_clips.get(keyFor(text));
+	}
+
+	/**
+	* File to write a new clip of the text to. Pass it to add() when it is complete
+	*
+	* @param text - Text of the clip
+	*/
+	public File getTempFile(String text)
+	{
+		return new File(m_directory, keyFor(text) + TEMP_SUFFIX);
+	}
+
+	/**
+	* Adds a complete clip to the cache. Older clips are deleted if the cache gets too big
+	*
+	* @param text - Text of the clip
+	* @param temp - File the clip was written to (from getTempFile())
+	*
+	* @return The new clip or null if the file is not a valid clip
+	*/
+	public Clip add(String text, File temp)
+	{
+		String key = keyFor(text);
+		File file = new File(m_directory, key + CLIP_SUFFIX);
+
+		long duration = readDurationMillis(temp);
+
+		if(duration <= 0)
+		{
+			temp.delete();
+			return null;
+		}
+
+		// An older clip of the same text is replaced
+		remove(key);
+
+		if(! temp.renameTo(file))
+		{
+			temp.delete();
+			return null;
+		}
+
+		Clip clip = new Clip(file, duration);
+		m_clips.put(key, clip);
+		m_bytes += file.length();
+
+		trim();
+
+		return m_clips.get(key);
+	}
+
+	// Sets the listener told about deleted clips
+	public void setOnEvictListener(OnEvictListener listener)
+	{
+		m_listener = listener;
+	}
+
+	// Public property exposing the total size of the clips
+	public long getBytes()
+	{
+		return m_bytes;
+	}
+
+	/**
+	* Reads the play time of a WAV file from its header
+	*
+	* @param file - WAV file
+	*
+	* @return Play time in milliseconds, or -1 if the file is not a valid PCM WAV file
+	*/
+	public static long readDurationMillis(File file)
+	{
+		RandomAccessFile in = null;
+
+		try
+		{
+			in = new RandomAccessFile(file, "r");
+
+			if(in.readInt() != RIFF)
+				return -1;
+
+			skip(in, 4);
+
+			if(in.readInt() != WAVE)
+				return -1;
+
+			long byteRate = 0;
+
+			// Walk the chunks until the data chunk. The fmt chunk comes before it
+			while(in.getFilePointer() + 8 <= in.length())
+			{
+				int id = in.readInt();
+				long size = readLittleInt(in) & 0xffffffffL;
+
+				if(id == FMT)
+				{
+					skip(in, 8);
+					byteRate = readLittleInt(in) & 0xffffffffL;
+					skip(in, size - 12);
+				}
+				else if(id == DATA)
+				{
+					if(byteRate == 0)
+						return -1;
+
+					// The header of a streamed file may not have the real size
+					size = Math.min(size, in.length() - in.getFilePointer());
+
+					return size * 1000 / byteRate;
+				}
+				else
+				{
+					skip(in, size);
+				}
+
+				// Chunks are word aligned
+				if((size & 1) != 0)
+					skip(in, 1);
+			}
+
+			return -1;
+		}
+		catch(IOException e)
+		{
+			return -1;
+		}
+		finally
+		{
+			if(in != null)
+			{
+				try
+				{
+					in.close();
+				}
+				catch(IOException e)
+				{
+				}
+			}
+		}
+	}
+
+	// Deletes the least recently used clips until the cache fits in m_maxBytes
+	private void trim()
+	{
+		Iterator<Clip> clips = m_clips.values().iterator();
+
+		while(m_bytes > m_maxBytes && clips.hasNext())
+		{
+			Clip clip = clips.next();
+			clips.remove();
+
+			evict(clip);
+		}
+	}
+
+	// Removes a clip which is being replaced
+	private void remove(String key)
+	{
+		Clip clip = m_clips.remove(key);
+
+		if(clip != null)
+			evict(clip);
+	}
+
+	private void evict(Clip clip)
+	{
+		if(m_listener != null)
+			m_listener.onEvict(clip);
+
+		m_bytes -= clip.getFile().length();
+		clip.getFile().delete();
+	}
+
+	// Name of the file of a text
+	private static String keyFor(String text)
+	{
+		try
+		{
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			byte[] hash = digest.digest(text.getBytes("UTF-8"));
+
+			char[] hex = new char[hash.length * 2];
+
+			for(int i = 0; i < hash.length; i++)
+			{
+				hex[2 * i] = HEX[(hash[i] >> 4) & 0xf];
+				hex[2 * i + 1] = HEX[hash[i] & 0xf];
+			}
+
+			return new String(hex);
+		}
+		catch(NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException(e);
+		}
+		catch(IOException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static int readLittleInt(RandomAccessFile in) throws IOException
+	{
+		return Integer.reverseBytes(in.readInt());
+	}
+
+	private static void skip(RandomAccessFile in, long bytes) throws IOException
+	{
+		in.seek(in.getFilePointer() + bytes);
+	}
+
+	private static final String CLIP_SUFFIX = ".wav";
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	// Chunk ids of a WAV file, read as big endian ints
+	private static final int RIFF = 0x52494646;
+	private static final int WAVE = 0x57415645;
+	private static final int FMT = 0x666d7420;
+	private static final int DATA = 0x64617461;
+
+	private final File m_directory;
+	private final long m_maxBytes;
+
+	private long m_bytes = 0;
+
+	// Clips by key, least recently used first. get() moves a clip to the back
+	private final LinkedHashMap<String, Clip> m_clips = new LinkedHashMap<String, Clip>();
+
+	private OnEvictListener m_listener = null;
+}
@@ -0,0 +1,191 @@
+package atul.android.finalproject;
+
+/**
+* Class FlightSimulator
+*
+* Brief This class moves the rocket through a flight one physics step at a time. It is the update
+* 		step of the game without the drawing and the sound, so a flight gives the same positions
+* 		whether it is animated by the game, replayed from a launch log or simulated in a batch.
+*
+* 		Every step the rocket moves X_STEP pixels along the x axis and the segment it travelled
+* 		is tested against the trigger area. The flight ends when the rocket enters the trigger
+* 		area (at the point where it entered) or leaves the screen.
+*
+*@note	The trajectory engine must have its screen and launch constants set before start(). step()
+*		does not allocate
+*/
+public class FlightSimulator
+{
+	/**
+	* Represents the constructor
+	*
+	* @param trajectory - Computes the flight path. It is shared with the caller, who launches it
+	*/
+	public FlightSimulator(TrajectoryEngine trajectory)
+	{
+		m_trajectory = trajectory;
+	}
+
+	/**
+	* Sets the size of the screen. The rocket leaves the screen outside (0, 0) - (width, height)
+	*
+	* @param width  - Width of the screen
+	* @param height - Height of the screen
+	*/
+	public void setBounds(float width, float height)
+	{
+		m_width = width;
+		m_height = height;
+	}
+
+	/**
+	* Sets the trigger area of the target
+	*
+	* @param triggerArea - The trigger area. null if there is no target
+	*/
+	public void setTriggerArea(TriggerArea triggerArea)
+	{
+		m_triggerArea = triggerArea;
+	}
+
+	// Puts the rocket at the launch point. Call it after the trajectory engine has been launched
+	public void start()
+	{
+		m_x = 0;
+		m_y = m_trajectory.getGroundY();
+
+		// There is no previous state yet, so the previous state is the launch position
+		m_prevX = m_x;
+		m_prevY = m_y;
+
+		// The highest point is the one with the smallest screen y
+		m_maxHeight = m_y;
+
+		m_steps = 0;
+	}
+
+	/**
+	* Moves the rocket by one physics step
+	*
+	* @return FLYING if the rocket moved on, HIT if it entered the trigger area or MISSED if it left
+	* 		  the screen. When the flight ends getX() and getY() are where it stopped
+	*/
+	public int step()
+	{
+		float x = m_x;
+		float y = m_y;
+
+		/*
+		* The rocket has moved from the previous position to (x, y) in the last step. The whole
+		* segment is tested against the trigger area, not only its end point. Otherwise a fast
+		* rocket could jump over the trigger area between two steps
+		*/
+		float impact = TriggerArea.NO_HIT;
+
+		if(m_triggerArea != null)
+			impact = m_triggerArea.sweep(m_prevX, m_prevY, x, y);
+
+		if(impact != TriggerArea.NO_HIT)
+		{
+			// Move the rocket back to the exact point where it entered the trigger area
+			x = m_prevX + (x - m_prevX) * impact;
+			y = m_prevY + (y - m_prevY) * impact;
+		}
+
+		if(y < m_maxHeight)
+			m_maxHeight = y;
+
+		if(impact != TriggerArea.NO_HIT || outOfBound(x, y))
+		{
+			m_x = x;
+			m_y = y;
+
+			return impact != TriggerArea.NO_HIT ? HIT : MISSED;
+		}
+
+		// Remember the current state so that the renderer can interpolate towards the new one
+		m_prevX = x;
+		m_prevY = y;
+
+		m_x = x + X_STEP;
+		m_y = m_trajectory.screenYAt(m_x);
+
+		m_steps++;
+
+		return FLYING;
+	}
+
+	/**
+	* Check if the rocket is out of screen
+	*
+	* @return True if the rocket is out of screen otherwise false
+	*/
+	private boolean outOfBound(float x, float y)
+	{
+		return x < 0 || x > m_width || y < 0 || y > m_height;
+	}
+
+	// Public property exposing the x coordinate of the rocket
+	public float getX()
+	{
+		return m_x;
+	}
+
+	// Public property exposing the y coordinate of the rocket
+	public float getY()
+	{
+		return m_y;
+	}
+
+	// Public property exposing the x coordinate of the rocket before the last step
+	public float getPrevX()
+	{
+		return m_prevX;
+	}
+
+	// Public property exposing the y coordinate of the rocket before the last step
+	public float getPrevY()
+	{
+		return m_prevY;
+	}
+
+	// Public property exposing the smallest screen y (the highest point) reached by the rocket
+	public float getMaxHeight()
+	{
+		return m_maxHeight;
+	}
+
+	// Public property exposing the number of steps the rocket has moved on since start()
+	public int getSteps()
+	{
+		return m_steps;
+	}
+
+	// Values returned by step()
+	public static final int FLYING = 0;
+	public static final int HIT = 1;
+	public static final int MISSED = 2;
+
+	/*
+	* Distance (in pixels) the rocket moves along the x axis in one physics step. Together with
+	* AnimationThread.STEP_NANOS this fixes the pace of the flight on every device
+	*/
+	public static final float X_STEP = 5;
+
+	private final TrajectoryEngine m_trajectory;
+
+	private TriggerArea m_triggerArea = null;
+
+	private float m_width = 0;
+	private float m_height = 0;
+
+	// Position of the rocket now and at the previous physics step
+	private float m_x = 0;
+	private float m_y = 0;
+	private float m_prevX = 0;
+	private float m_prevY = 0;
+
+	private float m_maxHeight = 0;
+
+	private int m_steps = 0;
+}
@@ -0,0 +1,194 @@
+package atul.android.finalproject;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+* Class FrameStats
+*
+* Brief This class keeps the frame time statistics of the game engine. The time spent updating the
+* 		game, drawing it, locking the canvas and posting it are recorded separately in histograms,
+* 		so that we can see where the frame time goes. The part of the update and of the drawing
+* 		spent on the particles is recorded too. It also counts the dropped frames and the
+* 		exceptions which the engine has swallowed.
+*
+*@note	The statistics are written by the engine thread only. See LatencyHistogram
+*/
+public class FrameStats
+{
+	// Records the time taken by one Game.update()
+	public void recordUpdate(long nanos)
+	{
+		m_update.record(nanos);
+	}
+
+	// Records the time taken by one Game.render()
+	public void recordDraw(long nanos)
+	{
+		m_draw.record(nanos);
+	}
+
+	// Records the time spent on the particles in one Game.update()
+	public void recordParticleUpdate(long nanos)
+	{
+		m_particleUpdate.record(nanos);
+	}
+
+	// Records the time spent drawing the particles in one Game.render()
+	public void recordParticleDraw(long nanos)
+	{
+		m_particleDraw.record(nanos);
+	}
+
+	// Records the time taken by one SurfaceHolder.lockCanvas()
+	public void recordLock(long nanos)
+	{
+		m_lock.record(nanos);
+	}
+
+	// Records the time taken by one SurfaceHolder.unlockCanvasAndPost()
+	public void recordPost(long nanos)
+	{
+		m_post.record(nanos);
+	}
+
+	/**
+	* Records the time between the start of two frames. A frame which took longer than about one
+	* and a half screen refreshes is counted as dropped
+	*
+	* @param nanos - Time between the start of this frame and the previous one
+	*/
+	public void recordFrame(long nanos)
+	{
+		m_frame.record(nanos);
+
+		if(nanos > DROPPED_FRAME_NANOS)
+			m_droppedFrames++;
+	}
+
+	/**
+	* Counts an exception which the engine has caught and ignored
+	*
+	* @param e - The exception. Only the last one is kept
+	*/
+	public void countException(Exception e)
+	{
+		m_exceptions++;
+		m_lastException = e;
+	}
+
+	// Public property exposing the number of dropped frames
+	public long getDroppedFrames()
+	{
+		return m_droppedFrames;
+	}
+
+	// Public property exposing the number of exceptions swallowed by the engine
+	public long getExceptions()
+	{
+		return m_exceptions;
+	}
+
+	// Public property exposing the histogram of frame times
+	public LatencyHistogram getFrameTimes()
+	{
+		return m_frame;
+	}
+
+	// Forgets all the statistics
+	public void reset()
+	{
+		m_update.reset();
+		m_draw.reset();
+		m_particleUpdate.reset();
+		m_particleDraw.reset();
+		m_lock.reset();
+		m_post.reset();
+		m_frame.reset();
+
+		m_droppedFrames = 0;
+		m_exceptions = 0;
+		m_lastException = null;
+	}
+
+	/**
+	* Writes a one line summary for the debug overlay
+	*
+	* @param out - Buffer to which the summary is appended
+	*/
+	public void summarize(StringBuilder out)
+	{
+		out.append("frame p50 ").append(m_frame.getPercentile(50) / 1000f)
+		   .append(" p99 ").append(m_frame.getPercentile(99) / 1000f)
+		   .append(" ms  dropped ").append(m_droppedFrames)
+		   .append("  errors ").append(m_exceptions);
+	}
+
+	/**
+	* Writes a one line summary of the cost of the particles for the debug overlay
+	*
+	* @param out - Buffer to which the summary is appended
+	*/
+	public void summarizeParticles(StringBuilder out)
+	{
+		out.append("particles update p99 ").append(m_particleUpdate.getPercentile(99) / 1000f)
+		   .append(" draw p99 ").append(m_particleDraw.getPercentile(99) / 1000f)
+		   .append(" ms");
+	}
+
+	/**
+	* Writes all the statistics as text
+	*
+	* @param out    - Where the statistics are written
+	* @param device - Name of the device model. It is written in the header
+	*/
+	public void dump(Writer out, String device) throws IOException
+	{
+		out.write("device: " + device + "\n");
+		out.write("section      count     mean      p50      p90      p99    p99.9      max (us)\n");
+
+		dump(out, "frame", m_frame);
+		dump(out, "update", m_update);
+		dump(out, "draw", m_draw);
+		dump(out, "p.update", m_particleUpdate);
+		dump(out, "p.draw", m_particleDraw);
+		dump(out, "lock", m_lock);
+		dump(out, "post", m_post);
+
+		out.write("dropped frames: " + m_droppedFrames + "\n");
+		out.write("swallowed exceptions: " + m_exceptions + "\n");
+
+		if(m_lastException != null)
+			out.write("last exception: " + m_lastException + "\n");
+	}
+
+	// Writes one line of the table of statistics
+	private void dump(Writer out, String name, LatencyHistogram histogram) throws IOException
+	{
+		out.write(String.format("%-8s %9d %8d %8d %8d %8d %8d %8d\n",
+								name,
+								histogram.getCount(),
+								histogram.getMean(),
+								histogram.getPercentile(50),
+								histogram.getPercentile(90),
+								histogram.getPercentile(99),
+								histogram.getPercentile(99.9),
+								histogram.getMax()));
+	}
+
+	// A frame taking longer than 25 ms (one and a half refreshes at 60 Hz) is counted as dropped
+	private static final long DROPPED_FRAME_NANOS = 25000000L;
+
+	private final LatencyHistogram m_update = new LatencyHistogram();
+	private final LatencyHistogram m_draw = new LatencyHistogram();
+	private final LatencyHistogram m_particleUpdate = new LatencyHistogram();
+	private final LatencyHistogram m_particleDraw = new LatencyHistogram();
+	private final LatencyHistogram m_lock = new LatencyHistogram();
+	private final LatencyHistogram m_post = new LatencyHistogram();
+	private final LatencyHistogram m_frame = new LatencyHistogram();
+
+	private long m_droppedFrames = 0;
+	private long m_exceptions = 0;
+
+	private volatile Exception m_lastException = null;
+}
@@ -0,0 +1,260 @@
+package atul.android.finalproject;
+
+/**
+* Class HitPredictor
+*
+* Brief This class works out the result of a flight the moment the rocket is launched, without
+* 		animating it. The flight path is a parabola and the trigger area is a rectangle, so the
+* 		points where the rocket enters the trigger area or leaves the screen are the roots of
+* 		quadratic equations.
+*
+* 		On the screen the path is y(x) = ax^2 + bx + c where
+* 			a =  unit * g / 2v^2cos^2(theta)
+* 			b = -unit * tan(theta)
+* 			c =  ground (bottom of the screen)
+*
+* 		The results of the last prediction are kept in this object so that predict() does not
+* 		allocate. Reuse one object for many predictions.
+*/
+public class HitPredictor
+{
+	/**
+	* Predicts the result of the flight launched in the trajectory engine
+	*
+	* @param trajectory - Trajectory engine with the screen and launch constants set
+	* @param left       - Left edge of the trigger area
+	* @param top        - Top edge of the trigger area
+	* @param right      - Right edge of the trigger area
+	* @param bottom     - Bottom edge of the trigger area
+	* @param width      - Width of the screen. The rocket leaves the screen when x > width
+	*
+	* @return True if the rocket hits the trigger area before it leaves the screen. Otherwise false
+	*/
+	public boolean predict(TrajectoryEngine trajectory, float left, float top, float right, float bottom,
+						   float width)
+	{
+		double unit = trajectory.getUnit();
+		double ground = trajectory.getGroundY();
+
+		m_a = unit * trajectory.getDrop();
+		m_b = -unit * trajectory.getTan();
+		m_c = ground;
+
+		// Find where the rocket leaves the screen. It can leave on the right..
+		double exit = width;
+
+		// .. through the bottom (y > ground) once it comes back down to the launch height ..
+		if(m_b >= 0)
+			exit = 0;
+		else if(m_a > 0)
+			exit = Math.min(exit, -m_b / m_a);
+
+		// .. or through the top (y < 0)
+		if(solve(m_c) > 0)
+			exit = Math.min(exit, m_root1);
+
+		if(exit < 0)
+			exit = 0;
+
+		m_exitX = (float) exit;
+		m_exitY = (float) yAt(exit);
+
+		// Look for the first x inside the trigger area before the rocket leaves the screen
+		m_hit = false;
+		m_entryX = Float.NaN;
+		m_entryY = Float.NaN;
+
+		double lo = Math.max(0, left);
+		double hi = Math.min(right, exit);
+
+		if(lo <= hi)
+		{
+			/*
+			* The x values inside the trigger area form intervals. Their ends are lo or the points
+			* where the path crosses the top or bottom edge, so the first point inside the area
+			* is one of these candidates
+			*/
+			int count = 0;
+			m_candidates[count++] = lo;
+
+			int roots = solve(m_c - top);
+			count = addCandidates(roots, lo, hi, count);
+
+			roots = solve(m_c - bottom);
+			count = addCandidates(roots, lo, hi, count);
+
+			// Insertion sort of at most 5 values
+			for(int i = 1; i < count; i++)
+			{
+				double value = m_candidates[i];
+				int j = i - 1;
+
+				while(j >= 0 && m_candidates[j] > value)
+				{
+					m_candidates[j + 1] = m_candidates[j];
+					j--;
+				}
+
+				m_candidates[j + 1] = value;
+			}
+
+			for(int i = 0; i < count; i++)
+			{
+				double y = yAt(m_candidates[i]);
+
+				if(y >= top - EPSILON && y <= bottom + EPSILON)
+				{
+					m_hit = true;
+					m_entryX = (float) m_candidates[i];
+					m_entryY = (float) y;
+					break;
+				}
+			}
+		}
+
+		// The flight stops at the trigger area on a hit, otherwise at the edge of the screen
+		double end = m_hit ? m_entryX : exit;
+
+		// Keep track of the maximum height (lowest y) reached before the flight stops
+		double maxHeight = Math.min(yAt(0), yAt(end));
+
+		if(m_a > 0)
+		{
+			double apex = -m_b / (2 * m_a);
+
+			if(apex > 0 && apex < end)
+				maxHeight = Math.min(maxHeight, yAt(apex));
+		}
+
+		m_maxHeight = (float) maxHeight;
+
+		return m_hit;
+	}
+
+	// Public property telling whether the last prediction was a hit
+	public boolean isHit()
+	{
+		return m_hit;
+	}
+
+	// Public property exposing the x coordinate where the rocket enters the trigger area. NaN on a miss
+	public float getEntryX()
+	{
+		return m_entryX;
+	}
+
+	// Public property exposing the y coordinate where the rocket enters the trigger area. NaN on a miss
+	public float getEntryY()
+	{
+		return m_entryY;
+	}
+
+	// Public property exposing the x coordinate where the path leaves the screen
+	public float getExitX()
+	{
+		return m_exitX;
+	}
+
+	// Public property exposing the y coordinate where the path leaves the screen
+	public float getExitY()
+	{
+		return m_exitY;
+	}
+
+	// Public property exposing the x coordinate where the flight stops (entry on a hit, exit on a miss)
+	public float getEndX()
+	{
+		return m_hit ? m_entryX : m_exitX;
+	}
+
+	// Public property exposing the y coordinate where the flight stops (entry on a hit, exit on a miss)
+	public float getEndY()
+	{
+		return m_hit ? m_entryY : m_exitY;
+	}
+
+	// Public property exposing the maximum height (lowest screen y) reached before the flight stops
+	public float getMaxHeight()
+	{
+		return m_maxHeight;
+	}
+
+	// Screen y coordinate of the path at x
+	private double yAt(double x)
+	{
+		return (m_a * x + m_b) * x + m_c;
+	}
+
+	/**
+	* Solves ax^2 + bx + c = 0 for the current a and b. The roots are stored in ascending order
+	* in m_root1 and m_root2
+	*
+	* @param c - Constant term
+	*
+	* @return Number of real roots (0, 1 or 2)
+	*/
+	private int solve(double c)
+	{
+		if(m_a == 0)
+		{
+			if(m_b == 0)
+				return 0;
+
+			m_root1 = m_root2 = -c / m_b;
+			return 1;
+		}
+
+		double discriminant = m_b * m_b - 4 * m_a * c;
+
+		if(discriminant < 0)
+			return 0;
+
+		// Numerically stable form. Avoids subtracting two nearly equal numbers
+		double q = -0.5 * (m_b + (m_b < 0 ? -1 : 1) * Math.sqrt(discriminant));
+
+		double r1 = q / m_a;
+		double r2 = (q == 0) ? r1 : c / q;
+
+		m_root1 = Math.min(r1, r2);
+		m_root2 = Math.max(r1, r2);
+
+		return 2;
+	}
+
+	// Adds the roots found by solve() which lie between lo and hi to the candidates
+	private int addCandidates(int roots, double lo, double hi, int count)
+	{
+		if(roots > 0 && m_root1 > lo && m_root1 <= hi)
+			m_candidates[count++] = m_root1;
+
+		if(roots > 1 && m_root2 > lo && m_root2 <= hi)
+			m_candidates[count++] = m_root2;
+
+		return count;
+	}
+
+	// Tolerance (in pixels) for rounding errors when checking a candidate against the trigger area
+	private static final double EPSILON = 1e-3;
+
+	// Coefficients of the path y(x) = ax^2 + bx + c
+	private double m_a;
+	private double m_b;
+	private double m_c;
+
+	// Roots found by the last call to solve()
+	private double m_root1;
+	private double m_root2;
+
+	// Candidate entry points. Reused between predictions
+	private final double[] m_candidates = new double[5];
+
+	private boolean m_hit = false;
+
+	private float m_entryX = Float.NaN;
+	private float m_entryY = Float.NaN;
+
+	private float m_exitX = 0;
+	private float m_exitY = 0;
+
+	private float m_maxHeight = 0;
+}
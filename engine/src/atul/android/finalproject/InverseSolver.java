@@ -0,0 +1,101 @@
+package atul.android.finalproject;
+
+/**
+* Class InverseSolver
+*
+* Brief This class works backwards from the target to the launch values which would hit it. It keeps
+* 		one launch value of the missed shot and solves the projectile motion equation for the other.
+*
+* 		With h the height of the target and x its distance, the rocket passes through the target when
+*
+* 		h = ( xtan(theta) ) - ( (x^2g) / 2v^2cos^2(theta) )
+*
+* 		Keeping the angle, this gives the velocity directly
+*
+* 		v^2 = x^2g / ( 2cos^2(theta) (xtan(theta) - h) )
+*
+* 		Keeping the velocity and writing T = tan(theta), 1 / cos^2(theta) = 1 + T^2 and k = x^2g / 2v^2
+* 		it becomes a quadratic in T
+*
+* 		kT^2 - xT + (k + h) = 0
+*
+* 		which has a low and a high (lob) solution. The one closer to the launched angle is used, as
+* 		that is the smaller change for the player.
+*
+* 		The results of the last solve are kept in this object, so solve() does not allocate.
+*
+*@note	The results are not rounded, the seekbar only gives whole numbers so the caller decides how
+*		to round
+*/
+public class InverseSolver
+{
+	/**
+	* Solves for the launch values which pass through the target
+	*
+	* @param angle    - Launch angle of the missed shot in degrees
+	* @param velocity - Launch velocity of the missed shot
+	* @param targetX  - Screen x coordinate of the point to hit (pixels from the launch point)
+	* @param targetY  - Screen y coordinate of the point to hit
+	* @param groundY  - Screen y coordinate of the launch point
+	* @param unit     - Screen density
+	*
+	* @return True if at least one of the two launch values could be found
+	*/
+	public boolean solve(int angle, int velocity, float targetX, float targetY, float groundY, float unit)
+	{
+		double x = targetX;
+		double h = (groundY - targetY) / unit;
+
+		double o = (Math.PI / 180) * angle;
+		double cos = Math.cos(o);
+		double tan = Math.tan(o);
+
+		// Velocity for the same angle. The target must be below the line the rocket is launched on
+		m_velocity = Double.NaN;
+
+		double rise = x * tan - h;
+
+		if(cos > EPSILON && rise > 0 && x > 0)
+			m_velocity = Math.sqrt(TrajectoryEngine.GRAVITY * x * x / (2 * cos * cos * rise));
+
+		// Angle for the same velocity
+		m_angle = Double.NaN;
+
+		if(velocity > 0 && x > 0)
+		{
+			double k = TrajectoryEngine.GRAVITY * x * x / (2.0 * velocity * velocity);
+			double discriminant = x * x - 4 * k * (k + h);
+
+			// A negative discriminant means the target is out of reach at this velocity
+			if(discriminant >= 0)
+			{
+				double root = Math.sqrt(discriminant);
+
+				double low = Math.atan((x - root) / (2 * k)) * (180 / Math.PI);
+				double high = Math.atan((x + root) / (2 * k)) * (180 / Math.PI);
+
+				m_angle = Math.abs(low - angle) <= Math.abs(high - angle) ? low : high;
+			}
+		}
+
+		return ! Double.isNaN(m_velocity) || ! Double.isNaN(m_angle);
+	}
+
+	// Public property exposing the velocity which hits with the same angle. NaN if there is none
+	public double getVelocity()
+	{
+		return m_velocity;
+	}
+
+	// Public property exposing the angle which hits with the same velocity. NaN if there is none
+	public double getAngle()
+	{
+		return m_angle;
+	}
+
+	// Smaller values of cos(theta) are treated as a vertical launch
+	private static final double EPSILON = 1e-9;
+
+	private double m_velocity = Double.NaN;
+	private double m_angle = Double.NaN;
+}
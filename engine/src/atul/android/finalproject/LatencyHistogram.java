@@ -0,0 +1,142 @@
+package atul.android.finalproject;
+
+/**
+* Class LatencyHistogram
+*
+* Brief This class counts how often a duration (e.g. the time to draw a frame) falls into each of a
+* 		fixed set of buckets. The memory used does not grow with the number of values recorded, so
+* 		it can record every frame of a long session.
+*
+* 		Durations are kept in microseconds. Below 16 us every value has its own bucket. Above that
+* 		every power of two is split into 16 buckets, so a percentile is accurate to about 6%.
+* 		Values above about a minute are counted in the last bucket.
+*
+*@note	Recording does not allocate and is not synchronized. It is meant to be written by one thread.
+*		Readers on other threads may see a slightly out of date picture, which is fine for statistics
+*/
+public class LatencyHistogram
+{
+	/**
+	* Records one duration
+	*
+	* @param nanos - Duration in nano seconds
+	*/
+	public void record(long nanos)
+	{
+		long micros = nanos / 1000;
+
+		if(micros < 0)
+			micros = 0;
+
+		m_counts[bucketOf(micros)]++;
+		m_count++;
+		m_total += micros;
+
+		if(micros > m_max)
+			m_max = micros;
+	}
+
+	/**
+	* Returns the duration below which the given percentage of the recorded values lie
+	*
+	* @param percentile - Percentage (0 to 100) e.g. 99 for the 99th percentile
+	*
+	* @return Duration in micro seconds. It is the upper end of the bucket. 0 if nothing is recorded
+	*/
+	public long getPercentile(double percentile)
+	{
+		long count = m_count;
+
+		if(count == 0)
+			return 0;
+
+		long rank = (long) Math.ceil(count * percentile / 100);
+
+		if(rank < 1)
+			rank = 1;
+
+		long seen = 0;
+
+		for(int i = 0; i < BUCKETS; i++)
+		{
+			seen += m_counts[i];
+
+			if(seen >= rank)
+				return Math.min(upperBoundOf(i), m_max);
+		}
+
+		return m_max;
+	}
+
+	// Public property exposing the number of recorded values
+	public long getCount()
+	{
+		return m_count;
+	}
+
+	// Public property exposing the mean of the recorded values in micro seconds
+	public long getMean()
+	{
+		return (m_count == 0) ? 0 : m_total / m_count;
+	}
+
+	// Public property exposing the largest recorded value in micro seconds
+	public long getMax()
+	{
+		return m_max;
+	}
+
+	// Forgets all the recorded values
+	public void reset()
+	{
+		for(int i = 0; i < BUCKETS; i++)
+			m_counts[i] = 0;
+
+		m_count = 0;
+		m_total = 0;
+		m_max = 0;
+	}
+
+	// Index of the bucket counting the given duration (micro seconds)
+	private static int bucketOf(long micros)
+	{
+		if(micros < SUB_BUCKETS)
+			return (int) micros;
+
+		// Power of two above SUB_BUCKETS. Each of them has SUB_BUCKETS buckets
+		int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+
+		if(shift >= RANGES)
+			return BUCKETS - 1;
+
+		return SUB_BUCKETS + shift * SUB_BUCKETS + (int) ((micros >> shift) - SUB_BUCKETS);
+	}
+
+	// Largest duration (micro seconds) counted by the given bucket
+	private static long upperBoundOf(int bucket)
+	{
+		if(bucket < SUB_BUCKETS)
+			return bucket;
+
+		int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+		long sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+
+		return ((SUB_BUCKETS + sub + 1) << shift) - 1;
+	}
+
+	// Every power of two is split into 2^SUB_BUCKET_BITS buckets
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	// Number of powers of two above SUB_BUCKETS. Covers durations up to about 67 seconds
+	private static final int RANGES = 22;
+
+	private static final int BUCKETS = SUB_BUCKETS + RANGES * SUB_BUCKETS;
+
+	// Number of values recorded in each bucket
+	private final long[] m_counts = new long[BUCKETS];
+
+	private long m_count = 0;
+	private long m_total = 0;
+	private long m_max = 0;
+}
@@ -0,0 +1,356 @@
+package atul.android.finalproject;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+* Class LaunchRecord
+*
+* Brief This class holds everything needed to play a launch again: the seed of the round, the
+* 		screen, the target, the launch values, the position of the rocket after every physics step
+* 		and the result. It is written to and read from the launch log in a compact binary form
+*
+* 			long  time                 - System.currentTimeMillis() of the launch
+* 			long  seed                 - Seed of the target generator of the round
+* 			short width, height        - Size of the game surface in pixels
+* 			float density              - Screen density (TrajectoryEngine unit)
+* 			short targetX, targetY     - Position of the target
+* 			float left, top,
+* 				  right, bottom        - Trigger area of the target
+* 			byte  angle, velocity      - Launch values (0 to 90)
+* 			byte  flags                - FLAG_HIT, FLAG_INSTANT
+* 			float endX, endY,
+* 				  maxHeight            - Result of the flight
+* 			short frames               - Number of physics steps, followed by x and y (floats) of each
+*
+* 		Numbers are big endian, as ByteBuffer writes them.
+*
+*@note	One record is reused for every launch. The frame array only grows when a flight is longer
+*		than any before it
+*/
+public class LaunchRecord
+{
+	/**
+	* Starts a new launch. The frames and the result of the last launch are forgotten
+	*
+	* @param time     - Time of the launch in milliseconds
+	* @param seed     - Seed of the target generator of the round
+	* @param width    - Width of the game surface
+	* @param height   - Height of the game surface
+	* @param density  - Screen density
+	*/
+	public void begin(long time, long seed, int width, int height, float density)
+	{
+		m_time = time;
+		m_seed = seed;
+		m_width = width;
+		m_height = height;
+		m_density = density;
+
+		m_frameCount = 0;
+		m_flags = 0;
+	}
+
+	/**
+	* Sets the target of the launch
+	*
+	* @param x           - x coordinate of the target
+	* @param y           - y coordinate of the target
+	* @param triggerArea - Trigger area of the target
+	*/
+	public void setTarget(int x, int y, TriggerArea triggerArea)
+	{
+		m_targetX = x;
+		m_targetY = y;
+
+		m_left = triggerArea.getLeft();
+		m_top = triggerArea.getTop();
+		m_right = triggerArea.getRight();
+		m_bottom = triggerArea.getBottom();
+	}
+
+	/**
+	* Sets the launch values
+	*
+	* @param angle    - Launch angle
+	* @param velocity - Launch velocity
+	* @param instant  - True if the result was predicted instead of animated. There are no frames
+	*/
+	public void setLaunch(int angle, int velocity, boolean instant)
+	{
+		m_angle = angle;
+		m_velocity = velocity;
+
+		if(instant)
+			m_flags |= FLAG_INSTANT;
+	}
+
+	/**
+	* Adds the position of the rocket after a physics step
+	*
+	* @param x - x coordinate of the rocket
+	* @param y - y coordinate of the rocket
+	*/
+	public void addFrame(float x, float y)
+	{
+		if(2 * m_frameCount == m_frames.length)
+		{
+			float[] frames = new float[2 * m_frames.length];
+			System.arraycopy(m_frames, 0, frames, 0, m_frames.length);
+			m_frames = frames;
+		}
+
+		m_frames[2 * m_frameCount] = x;
+		m_frames[2 * m_frameCount + 1] = y;
+		m_frameCount++;
+	}
+
+	/**
+	* Sets the result of the flight
+	*
+	* @param endX      - x coordinate where the flight stopped
+	* @param endY      - y coordinate where the flight stopped
+	* @param maxHeight - Highest point (smallest screen y) reached by the rocket
+	* @param hit       - True if the target was hit
+	*/
+	public void setResult(float endX, float endY, float maxHeight, boolean hit)
+	{
+		m_endX = endX;
+		m_endY = endY;
+		m_maxHeight = maxHeight;
+
+		if(hit)
+			m_flags |= FLAG_HIT;
+		else
+			m_flags &= ~FLAG_HIT;
+	}
+
+	// Public property exposing the number of bytes write() needs for this record
+	public int getSize()
+	{
+		return FIXED_SIZE + 8 * Math.min(m_frameCount, MAX_FRAMES);
+	}
+
+	/**
+	* Writes the record at the position of the buffer
+	*
+	* @param out - Buffer with at least getSize() bytes remaining
+	*/
+	public void write(ByteBuffer out)
+	{
+		int frames = Math.min(m_frameCount, MAX_FRAMES);
+
+		out.putLong(m_time);
+		out.putLong(m_seed);
+		out.putShort((short) m_width);
+		out.putShort((short) m_height);
+		out.putFloat(m_density);
+		out.putShort((short) m_targetX);
+		out.putShort((short) m_targetY);
+		out.putFloat(m_left);
+		out.putFloat(m_top);
+		out.putFloat(m_right);
+		out.putFloat(m_bottom);
+		out.put((byte) m_angle);
+		out.put((byte) m_velocity);
+		out.put((byte) m_flags);
+		out.putFloat(m_endX);
+		out.putFloat(m_endY);
+		out.putFloat(m_maxHeight);
+		out.putShort((short) frames);
+
+		for(int i = 0; i < 2 * frames; i++)
+			out.putFloat(m_frames[i]);
+	}
+
+	/**
+	* Reads a record from the position of the buffer
+	*
+	* @param in - Buffer holding the record
+	*
+	* @return False if the buffer ends before the record (the log was cut off while it was written)
+	*/
+	public boolean read(ByteBuffer in)
+	{
+		try
+		{
+			m_time = in.getLong();
+			m_seed = in.getLong();
+			m_width = in.getShort();
+			m_height = in.getShort();
+			m_density = in.getFloat();
+			m_targetX = in.getShort();
+			m_targetY = in.getShort();
+			m_left = in.getFloat();
+			m_top = in.getFloat();
+			m_right = in.getFloat();
+			m_bottom = in.getFloat();
+			m_angle = in.get();
+			m_velocity = in.get();
+			m_flags = in.get();
+			m_endX = in.getFloat();
+			m_endY = in.getFloat();
+			m_maxHeight = in.getFloat();
+
+			int frames = in.getShort() & 0xffff;
+
+			m_frameCount = 0;
+
+			for(int i = 0; i < frames; i++)
+				addFrame(in.getFloat(), in.getFloat());
+
+			return true;
+		}
+		catch(BufferUnderflowException e)
+		{
+			return false;
+		}
+	}
+
+	// Public property exposing the time of the launch in milliseconds
+	public long getTime()
+	{
+		return m_time;
+	}
+
+	// Public property exposing the seed of the target generator of the round
+	public long getSeed()
+	{
+		return m_seed;
+	}
+
+	// Public property exposing the width of the game surface
+	public int getWidth()
+	{
+		return m_width;
+	}
+
+	// Public property exposing the height of the game surface
+	public int getHeight()
+	{
+		return m_height;
+	}
+
+	// Public property exposing the screen density
+	public float getDensity()
+	{
+		return m_density;
+	}
+
+	// Public property exposing the x coordinate of the target
+	public int getTargetX()
+	{
+		return m_targetX;
+	}
+
+	// Public property exposing the y coordinate of the target
+	public int getTargetY()
+	{
+		return m_targetY;
+	}
+
+	// Returns a new trigger area with the recorded edges
+	public TriggerArea createTriggerArea()
+	{
+		return new TriggerArea(m_left, m_top, m_right, m_bottom);
+	}
+
+	// Public property exposing the launch angle
+	public int getAngle()
+	{
+		return m_angle;
+	}
+
+	// Public property exposing the launch velocity
+	public int getVelocity()
+	{
+		return m_velocity;
+	}
+
+	// Public property telling whether the result was predicted instead of animated
+	public boolean isInstant()
+	{
+		return (m_flags & FLAG_INSTANT) != 0;
+	}
+
+	// Public property telling whether the target was hit
+	public boolean isHit()
+	{
+		return (m_flags & FLAG_HIT) != 0;
+	}
+
+	// Public property exposing the x coordinate where the flight stopped
+	public float getEndX()
+	{
+		return m_endX;
+	}
+
+	// Public property exposing the y coordinate where the flight stopped
+	public float getEndY()
+	{
+		return m_endY;
+	}
+
+	// Public property exposing the highest point (smallest screen y) reached by the rocket
+	public float getMaxHeight()
+	{
+		return m_maxHeight;
+	}
+
+	// Public property exposing the number of recorded physics steps
+	public int getFrameCount()
+	{
+		return m_frameCount;
+	}
+
+	// Returns the x coordinate of the rocket after a physics step
+	public float getFrameX(int frame)
+	{
+		return m_frames[2 * frame];
+	}
+
+	// Returns the y coordinate of the rocket after a physics step
+	public float getFrameY(int frame)
+	{
+		return m_frames[2 * frame + 1];
+	}
+
+	public static final int FLAG_HIT = 1;
+	public static final int FLAG_INSTANT = 2;
+
+	// Size of a record without its frames
+	public static final int FIXED_SIZE = 8 + 8 + 2 + 2 + 4 + 2 + 2 + 4 * 4 + 1 + 1 + 1 + 3 * 4 + 2;
+
+	// Frames beyond this are not written. A flight across any phone screen is far shorter
+	public static final int MAX_FRAMES = 0xffff;
+
+	// Room for the frames of a flight across a large screen
+	private static final int INITIAL_FRAMES = 512;
+
+	private long m_time;
+	private long m_seed;
+	private int m_width;
+	private int m_height;
+	private float m_density;
+
+	private int m_targetX;
+	private int m_targetY;
+
+	// Trigger area of the target
+	private float m_left;
+	private float m_top;
+	private float m_right;
+	private float m_bottom;
+
+	private int m_angle;
+	private int m_velocity;
+	private int m_flags;
+
+	private float m_endX;
+	private float m_endY;
+	private float m_maxHeight;
+
+	// x and y of every physics step, one after the other
+	private float[] m_frames = new float[2 * INITIAL_FRAMES];
+	private int m_frameCount = 0;
+}
@@ -0,0 +1,118 @@
+package atul.android.finalproject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+* Class LaunchRecorder
+*
+* Brief This class appends launches to the launch log, so that a launch reported by a player can be
+* 		played again with LaunchReplayer. The log starts with a header (MAGIC, VERSION) and is
+* 		followed by LaunchRecords.
+*
+* 		A launch is put together in a reused buffer and written to the file channel with one call,
+* 		instead of one small write per value. The file is opened by the first launch. When it grows
+* 		over MAX_BYTES it is renamed to the .old file and a new log is started, so at most two logs
+* 		are kept.
+*/
+public class LaunchRecorder
+{
+	/**
+	* Represents the constructor. The file is not opened until the first launch
+	*
+	* @param file - The launch log
+	*/
+	public LaunchRecorder(File file)
+	{
+		m_file = file;
+	}
+
+	/**
+	* Appends a launch to the log
+	*
+	* @param record - The launch
+	*/
+	public synchronized void append(LaunchRecord record) throws IOException
+	{
+		if(m_channel != null && m_channel.size() > MAX_BYTES)
+			rollOver();
+
+		if(m_channel == null)
+			m_channel = new FileOutputStream(m_file, true).getChannel();
+
+		boolean header = m_channel.size() == 0;
+		int size = record.getSize() + (header ? HEADER_SIZE : 0);
+
+		if(m_buffer.capacity() < size)
+			m_buffer = ByteBuffer.allocateDirect(size);
+
+		m_buffer.clear();
+
+		if(header)
+		{
+			m_buffer.putInt(MAGIC);
+			m_buffer.putShort(VERSION);
+		}
+
+		record.write(m_buffer);
+		m_buffer.flip();
+
+		while(m_buffer.hasRemaining())
+			m_channel.write(m_buffer);
+	}
+
+	// Closes the log. The next launch opens it again
+	public synchronized void close()
+	{
+		if(m_channel == null)
+			return;
+
+		try
+		{
+			m_channel.close();
+		}
+		catch(IOException e)
+		{
+			// Every launch has been written already
+		}
+
+		m_channel = null;
+	}
+
+	// Keeps the full log as the .old file and starts a new one
+	private void rollOver()
+	{
+		close();
+
+		File old = new File(m_file.getPath() + OLD_SUFFIX);
+		old.delete();
+		m_file.renameTo(old);
+	}
+
+	// First bytes of a launch log ("RKLG")
+	public static final int MAGIC = 0x524b4c47;
+
+	// Version of the format of LaunchRecord
+	public static final short VERSION = 1;
+
+	// Size of MAGIC and VERSION
+	public static final int HEADER_SIZE = 6;
+
+	// Size over which a new log is started
+	public static final long MAX_BYTES = 1024 * 1024;
+
+	// Added to the name of the log which is kept when a new one is started
+	public static final String OLD_SUFFIX = ".old";
+
+	// Enough for a flight across a large screen
+	private static final int BUFFER_SIZE = 16 * 1024;
+
+	private final File m_file;
+
+	private FileChannel m_channel = null;
+
+	private ByteBuffer m_buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+}
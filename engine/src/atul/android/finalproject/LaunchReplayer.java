@@ -0,0 +1,226 @@
+package atul.android.finalproject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+* Class LaunchReplayer
+*
+* Brief This class plays the launches of a launch log again, with the same engine classes the game
+* 		uses (TrajectoryEngine, FlightSimulator and HitPredictor), and checks that every physics
+* 		step and the result come out as they were recorded.
+*
+* 		It can be run from the command line on the log pulled from a device
+*
+* 			java -cp benchmarks.jar atul.android.finalproject.LaunchReplayer launches.bin [tolerance]
+*
+* 		and prints every launch which does not replay, and how long the replay took.
+*
+*@note	The positions are compared with a tolerance (in pixels), because the math library of the
+*		device may round the last bit of tan() and cos() differently
+*/
+public class LaunchReplayer
+{
+	/**
+	* Represents the constructor
+	*
+	* @param tolerance - Largest difference (in pixels) of a position which still counts as the same
+	*/
+	public LaunchReplayer(float tolerance)
+	{
+		m_tolerance = tolerance;
+	}
+
+	/**
+	* Reads a launch log
+	*
+	* @param file - The launch log
+	*
+	* @return Buffer positioned at the first record. Read the records with LaunchRecord.read()
+	*/
+	public static ByteBuffer load(File file) throws IOException
+	{
+		FileChannel channel = new FileInputStream(file).getChannel();
+
+		try
+		{
+			ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+
+			while(buffer.hasRemaining())
+			{
+				if(channel.read(buffer) < 0)
+					break;
+			}
+
+			buffer.flip();
+
+			if(buffer.remaining() < LaunchRecorder.HEADER_SIZE || buffer.getInt() != LaunchRecorder.MAGIC)
+				throw new IOException(file + " is not a launch log");
+
+			short version = buffer.getShort();
+
+			if(version != LaunchRecorder.VERSION)
+				throw new IOException(file + " has version " + version + ", expected " + LaunchRecorder.VERSION);
+
+			return buffer;
+		}
+		finally
+		{
+			channel.close();
+		}
+	}
+
+	/**
+	* Plays a launch again
+	*
+	* @param record - The recorded launch
+	*
+	* @return True if every physics step and the result are the same as recorded
+	*/
+	public boolean replay(LaunchRecord record)
+	{
+		m_trajectory.setScreen(record.getHeight(), record.getDensity());
+		m_trajectory.launch(record.getAngle(), record.getVelocity());
+
+		m_mismatch = NO_MISMATCH;
+
+		TriggerArea area = record.createTriggerArea();
+
+		if(record.isInstant())
+		{
+			boolean hit = m_predictor.predict(m_trajectory, area.getLeft(), area.getTop(), area.getRight(),
+											  area.getBottom(), record.getWidth());
+
+			if(hit != record.isHit() || ! same(m_predictor.getEndX(), record.getEndX())
+			   || ! same(m_predictor.getEndY(), record.getEndY()))
+				m_mismatch = 0;
+
+			return m_mismatch == NO_MISMATCH;
+		}
+
+		m_simulator.setBounds(record.getWidth(), record.getHeight());
+		m_simulator.setTriggerArea(area);
+		m_simulator.start();
+
+		int frame = 0;
+		int state;
+
+		while((state = m_simulator.step()) == FlightSimulator.FLYING)
+		{
+			if(m_mismatch == NO_MISMATCH
+			   && (frame >= record.getFrameCount()
+				   || ! same(m_simulator.getX(), record.getFrameX(frame))
+				   || ! same(m_simulator.getY(), record.getFrameY(frame))))
+				m_mismatch = frame;
+
+			frame++;
+		}
+
+		if(m_mismatch == NO_MISMATCH
+		   && (frame != record.getFrameCount()
+			   || (state == FlightSimulator.HIT) != record.isHit()
+			   || ! same(m_simulator.getX(), record.getEndX())
+			   || ! same(m_simulator.getY(), record.getEndY())
+			   || ! same(m_simulator.getMaxHeight(), record.getMaxHeight())))
+			m_mismatch = frame;
+
+		m_steps = frame;
+
+		return m_mismatch == NO_MISMATCH;
+	}
+
+	// Public property exposing the first physics step which differs in the last replay. NO_MISMATCH if none
+	public int getMismatch()
+	{
+		return m_mismatch;
+	}
+
+	// Public property exposing the number of physics steps of the last replay
+	public int getSteps()
+	{
+		return m_steps;
+	}
+
+	// The first test is for infinite and NaN positions (a launch with no velocity drops out of the screen at once)
+	private boolean same(float a, float b)
+	{
+		return Float.compare(a, b) == 0 || Math.abs(a - b) <= m_tolerance;
+	}
+
+	/**
+	* Replays a launch log and prints the launches which do not replay
+	*
+	* @param args - Path of the log, and optionally the tolerance in pixels
+	*/
+	public static void main(String[] args) throws IOException
+	{
+		if(args.length < 1)
+		{
+			System.err.println("usage: LaunchReplayer <launch log> [tolerance]");
+			System.exit(2);
+		}
+
+		float tolerance = args.length > 1 ? Float.parseFloat(args[1]) : DEFAULT_TOLERANCE;
+
+		ByteBuffer log = load(new File(args[0]));
+
+		LaunchReplayer replayer = new LaunchReplayer(tolerance);
+		LaunchRecord record = new LaunchRecord();
+
+		int launches = 0;
+		int failed = 0;
+		int hits = 0;
+		long steps = 0;
+		long nanos = 0;
+
+		while(log.hasRemaining())
+		{
+			if(! record.read(log))
+			{
+				System.out.println("the log ends in the middle of a launch");
+				break;
+			}
+
+			long start = System.nanoTime();
+			boolean same = replayer.replay(record);
+			nanos += System.nanoTime() - start;
+
+			launches++;
+			steps += replayer.getSteps();
+
+			if(record.isHit())
+				hits++;
+
+			if(! same)
+			{
+				failed++;
+				System.out.println("launch " + launches + " (seed " + record.getSeed() + ", angle "
+								   + record.getAngle() + ", velocity " + record.getVelocity()
+								   + ") differs at step " + replayer.getMismatch());
+			}
+		}
+
+		System.out.println(launches + " launches, " + hits + " hits, " + failed + " differ, "
+						   + steps + " steps in " + nanos / 1000 + " us");
+
+		System.exit(failed == 0 ? 0 : 1);
+	}
+
+	// Returned by getMismatch() when the replay is the same as the record
+	public static final int NO_MISMATCH = -1;
+
+	// Default tolerance in pixels
+	public static final float DEFAULT_TOLERANCE = 0.01f;
+
+	private final float m_tolerance;
+
+	private final TrajectoryEngine m_trajectory = new TrajectoryEngine();
+	private final FlightSimulator m_simulator = new FlightSimulator(m_trajectory);
+	private final HitPredictor m_predictor = new HitPredictor();
+
+	private int m_mismatch = NO_MISMATCH;
+	private int m_steps = 0;
+}
@@ -0,0 +1,360 @@
+package atul.android.finalproject;
+
+/**
+* Class ParticleSystem
+*
+* Brief This class moves the particles of the explosions and of the exhaust of the rockets. The
+* 		particles are kept in parallel arrays (position now and at the last physics step,
+* 		velocity, age and life) which are allocated once. New particles are taken from the arrays
+* 		as from a ring: emit() writes at the slot after the newest particle. The particles live
+* 		about as long as each other, so the live ones stay in one window of the ring, from the
+* 		oldest to the newest, and step() only goes over that window. When the ring is full the
+* 		oldest particle is given to the new one.
+*
+* 		Every physics step may emit up to a budget of particles, the rest are dropped and counted.
+* 		adapt() takes the time the particles cost in a frame and lowers the budget when it is over
+* 		the target, then raises it again slowly once the frames are cheap. Under load there are
+* 		fewer particles, never a slower frame.
+*
+* 		interpolate() gives the positions of the particles between the last two physics states,
+* 		sorted into buckets of the same kind and the same age, so that each bucket can be drawn
+* 		in one call with one paint. The particles fade with their age over LEVELS levels.
+*
+*@note	Nothing is allocated after the constructor
+*/
+public class ParticleSystem
+{
+	/**
+	* Represents the constructor
+	*
+	* @param capacity - Largest number of particles alive at the same time
+	* @param budget   - Largest number of particles emitted in one physics step
+	*/
+	public ParticleSystem(int capacity, int budget)
+	{
+		m_x = new float[capacity];
+		m_y = new float[capacity];
+		m_prevX = new float[capacity];
+		m_prevY = new float[capacity];
+		m_vx = new float[capacity];
+		m_vy = new float[capacity];
+		m_age = new int[capacity];
+		m_life = new int[capacity];
+		m_kind = new int[capacity];
+
+		m_maxBudget = budget;
+		m_budget = budget;
+		m_remaining = budget;
+	}
+
+	/**
+	* Sets the forces acting on the particles
+	*
+	* @param gravity - Pixels added to the y velocity in one physics step
+	* @param drag    - Part of the velocity kept from one physics step to the next
+	*/
+	public void setForces(float gravity, float drag)
+	{
+		m_gravity = gravity;
+		m_drag = drag;
+	}
+
+	// Removes every particle
+	public void clear()
+	{
+		for(int i = 0; i < m_life.length; i++)
+			m_life[i] = 0;
+
+		m_first = 0;
+		m_used = 0;
+		m_count = 0;
+	}
+
+	/**
+	* Moves every particle by one physics step, and removes the ones which have lived their life.
+	* The budget of the next step starts again
+	*
+	* @return Number of particles alive
+	*/
+	public int step()
+	{
+		m_remaining = m_budget;
+
+		int capacity = m_x.length;
+
+		for(int n = 0, i = m_first; n < m_used; n++, i = i + 1 == capacity ? 0 : i + 1)
+		{
+			if(m_life[i] == 0)
+				continue;
+
+			m_prevX[i] = m_x[i];
+			m_prevY[i] = m_y[i];
+
+			if(++m_age[i] >= m_life[i])
+			{
+				m_life[i] = 0;
+				m_count--;
+				continue;
+			}
+
+			m_x[i] += m_vx[i];
+			m_y[i] += m_vy[i];
+
+			m_vx[i] *= m_drag;
+			m_vy[i] = m_vy[i] * m_drag + m_gravity;
+		}
+
+		// The window starts at the oldest particle alive
+		while(m_used > 0 && m_life[m_first] == 0)
+		{
+			m_first = m_first + 1 == capacity ? 0 : m_first + 1;
+			m_used--;
+		}
+
+		return m_count;
+	}
+
+	/**
+	* Emits particles from a point. Only as many as the budget of the step has left are emitted
+	*
+	* @param kind   - Kind of the particles, EXHAUST or BLAST
+	* @param x      - x coordinate of the point
+	* @param y      - y coordinate of the point
+	* @param vx     - Mean x velocity, pixels in one physics step
+	* @param vy     - Mean y velocity, pixels in one physics step
+	* @param spread - Largest difference from the mean velocity on each axis
+	* @param life   - Largest number of physics steps a particle lives. Each lives from half of it
+	* @param count  - Number of particles wanted
+	*
+	* @return Number of particles emitted
+	*/
+	public int emit(int kind, float x, float y, float vx, float vy, float spread, int life, int count)
+	{
+		int emitted = Math.min(count, m_remaining);
+
+		m_remaining -= emitted;
+		m_dropped += count - emitted;
+
+		int capacity = m_x.length;
+
+		for(int n = 0; n < emitted; n++)
+		{
+			int i = m_first + m_used;
+
+			if(i >= capacity)
+				i -= capacity;
+
+			if(m_used == capacity)
+			{
+				// The ring is full. The oldest particle makes room
+				if(m_life[i] != 0)
+					m_count--;
+
+				m_first = m_first + 1 == capacity ? 0 : m_first + 1;
+			}
+			else
+				m_used++;
+
+			m_x[i] = x;
+			m_y[i] = y;
+			m_prevX[i] = x;
+			m_prevY[i] = y;
+			m_vx[i] = vx + (2 * random() - 1) * spread;
+			m_vy[i] = vy + (2 * random() - 1) * spread;
+			m_age[i] = 0;
+			m_life[i] = Math.max(1, life / 2 + (int) (random() * (life - life / 2 + 1)));
+			m_kind[i] = kind;
+
+			m_count++;
+		}
+
+		return emitted;
+	}
+
+	/**
+	* Changes the budget from the time the particles cost in the last frame. The budget drops by a
+	* quarter when the frame was over the target, otherwise it grows by one particle
+	*
+	* @param nanos       - Time spent moving and drawing the particles in the last frame
+	* @param targetNanos - Time the particles may cost in a frame
+	*/
+	public void adapt(long nanos, long targetNanos)
+	{
+		if(nanos > targetNanos)
+			m_budget = Math.max(MIN_BUDGET, m_budget - m_budget / 4);
+		else if(m_budget < m_maxBudget)
+			m_budget++;
+	}
+
+	/**
+	* Works out the position of every particle between the last two physics states, sorted into
+	* buckets of the same kind and level of age. Bucket b is kind * LEVELS + level, level 0 being
+	* the youngest particles. The bounds of the particles are kept for getLeft() ...
+	*
+	* @param alpha  - How far (0 to 1) the render time is between the previous and current physics state
+	* @param out    - Set to x and y of every particle one after the other. At least twice the capacity
+	* @param starts - Set to the first particle of every bucket in out, and the number of particles
+	* 				  at the end. At least BUCKETS + 1 long
+	*
+	* @return Number of particles alive
+	*/
+	public int interpolate(float alpha, float[] out, int[] starts)
+	{
+		for(int b = 0; b <= BUCKETS; b++)
+			starts[b] = 0;
+
+		int capacity = m_x.length;
+
+		// Count the particles of every bucket
+		for(int n = 0, i = m_first; n < m_used; n++, i = i + 1 == capacity ? 0 : i + 1)
+		{
+			if(m_life[i] != 0)
+				starts[bucketOf(i) + 1]++;
+		}
+
+		for(int b = 0; b < BUCKETS; b++)
+		{
+			starts[b + 1] += starts[b];
+			m_cursor[b] = starts[b];
+		}
+
+		m_left = Float.MAX_VALUE;
+		m_top = Float.MAX_VALUE;
+		m_right = -Float.MAX_VALUE;
+		m_bottom = -Float.MAX_VALUE;
+
+		for(int n = 0, i = m_first; n < m_used; n++, i = i + 1 == capacity ? 0 : i + 1)
+		{
+			if(m_life[i] == 0)
+				continue;
+
+			float x = m_prevX[i] + (m_x[i] - m_prevX[i]) * alpha;
+			float y = m_prevY[i] + (m_y[i] - m_prevY[i]) * alpha;
+
+			int p = m_cursor[bucketOf(i)]++;
+			out[2 * p] = x;
+			out[2 * p + 1] = y;
+
+			m_left = Math.min(m_left, x);
+			m_top = Math.min(m_top, y);
+			m_right = Math.max(m_right, x);
+			m_bottom = Math.max(m_bottom, y);
+		}
+
+		return m_count;
+	}
+
+	// Returns the bucket of the particle of a slot
+	private int bucketOf(int i)
+	{
+		return m_kind[i] * LEVELS + m_age[i] * LEVELS / m_life[i];
+	}
+
+	// Returns a pseudo random number from 0 to 1. Cheaper than java.util.Random and good enough for sparks
+	private float random()
+	{
+		m_seed = m_seed * 1103515245 + 12345;
+		return ((m_seed >>> 8) & 0xffff) / 65536f;
+	}
+
+	// Public property exposing the number of particles alive
+	public int getCount()
+	{
+		return m_count;
+	}
+
+	// Public property exposing the largest number of particles alive
+	public int getCapacity()
+	{
+		return m_x.length;
+	}
+
+	// Public property exposing the number of particles the current step may emit
+	public int getBudget()
+	{
+		return m_budget;
+	}
+
+	// Public property exposing the number of particles left to emit in the current step
+	public int getRemaining()
+	{
+		return m_remaining;
+	}
+
+	// Public property exposing the number of particles dropped because the budget was used up
+	public long getDropped()
+	{
+		return m_dropped;
+	}
+
+	// Public property exposing the smallest x coordinate of a particle at the last interpolate()
+	public float getLeft()
+	{
+		return m_left;
+	}
+
+	// Public property exposing the smallest y coordinate of a particle at the last interpolate()
+	public float getTop()
+	{
+		return m_top;
+	}
+
+	// Public property exposing the largest x coordinate of a particle at the last interpolate()
+	public float getRight()
+	{
+		return m_right;
+	}
+
+	// Public property exposing the largest y coordinate of a particle at the last interpolate()
+	public float getBottom()
+	{
+		return m_bottom;
+	}
+
+	// Kinds of particles
+	public static final int EXHAUST = 0;
+	public static final int BLAST = 1;
+	public static final int KINDS = 2;
+
+	// Levels of age a particle fades through, and the buckets of interpolate()
+	public static final int LEVELS = 4;
+	public static final int BUCKETS = KINDS * LEVELS;
+
+	// The budget never drops below this, so a hit always shows some sparks
+	public static final int MIN_BUDGET = 8;
+
+	// Position, velocity and age of every slot. A life of 0 is a free slot
+	private final float[] m_x;
+	private final float[] m_y;
+	private final float[] m_prevX;
+	private final float[] m_prevY;
+	private final float[] m_vx;
+	private final float[] m_vy;
+	private final int[] m_age;
+	private final int[] m_life;
+	private final int[] m_kind;
+
+	// Window of the ring which holds every particle alive, from the oldest
+	private int m_first = 0;
+	private int m_used = 0;
+
+	private int m_count = 0;
+
+	private final int m_maxBudget;
+	private int m_budget;
+	private int m_remaining;
+	private long m_dropped = 0;
+
+	private float m_gravity = 0;
+	private float m_drag = 1;
+
+	private int m_seed = 0x2545f491;
+
+	// Next particle of every bucket written by interpolate()
+	private final int[] m_cursor = new int[BUCKETS];
+
+	private float m_left = 0;
+	private float m_top = 0;
+	private float m_right = 0;
+	private float m_bottom = 0;
+}
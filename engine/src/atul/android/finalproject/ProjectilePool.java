@@ -0,0 +1,449 @@
+package atul.android.finalproject;
+
+/**
+* Class ProjectilePool
+*
+* Brief This class moves any number of rockets at the same time, up to the capacity it was made
+* 		with. The state of the rockets is kept in parallel arrays (position now and at the last
+* 		physics step, highest point, launch constants) which are allocated once, instead of one
+* 		object per rocket. step() moves every rocket with one loop over the arrays, with the same
+* 		physics and the same swept collision test as FlightSimulator, so a rocket of the pool
+* 		flies exactly like a single rocket does.
+*
+* 		The live rockets are always the first getCount() entries of the arrays. A rocket which has
+* 		finished is replaced by the last live rocket, so the loops never skip over dead entries.
+* 		A rocket is known by the id returned by fire(), which does not change when it is moved;
+* 		indexOf() gives its current entry.
+*
+* 		The rockets which finished in the last step are listed with their result (getDoneCount(),
+* 		getDoneId() ...) until the next step.
+*
+* 		The target is either one trigger area (setTriggerArea()) or a TargetGrid (setTargets()).
+* 		A rocket stops at a target of the grid which stops rockets. It bursts any other target it
+* 		runs into and flies on. The burst target is removed from the grid and listed
+* 		(getBurstCount(), getBurstTarget() ...) until the next step.
+*
+*@note	The trajectory engine must have its screen set before fire(). fire() leaves the trajectory
+*		engine launched with the values of that rocket. Nothing is allocated after the constructor
+*		and setTargets()
+*/
+public class ProjectilePool
+{
+	/**
+	* Represents the constructor
+	*
+	* @param capacity   - Largest number of rockets in flight at the same time
+	* @param trajectory - Works out the launch constants of every rocket. It is shared with the caller
+	*/
+	public ProjectilePool(int capacity, TrajectoryEngine trajectory)
+	{
+		m_trajectory = trajectory;
+
+		m_x = new float[capacity];
+		m_y = new float[capacity];
+		m_prevX = new float[capacity];
+		m_prevY = new float[capacity];
+		m_maxHeight = new float[capacity];
+		m_tan = new double[capacity];
+		m_drop = new double[capacity];
+		m_id = new int[capacity];
+
+		m_index = new int[capacity];
+		m_freeIds = new int[capacity];
+
+		m_doneId = new int[capacity];
+		m_doneX = new float[capacity];
+		m_doneY = new float[capacity];
+		m_doneMaxHeight = new float[capacity];
+		m_doneHit = new boolean[capacity];
+
+		clear();
+	}
+
+	/**
+	* Sets the size of the screen. A rocket leaves the screen outside (0, 0) - (width, height)
+	*
+	* @param width  - Width of the screen
+	* @param height - Height of the screen
+	*/
+	public void setBounds(float width, float height)
+	{
+		m_width = width;
+		m_height = height;
+	}
+
+	/**
+	* Sets the targets. The pool changes the grid: the targets which are burst are removed
+	*
+	* @param grid - The targets. null to use the trigger area of setTriggerArea() instead
+	*/
+	public void setTargets(TargetGrid grid)
+	{
+		m_grid = grid;
+
+		// Every target can be burst in the same step
+		if(grid != null && m_burstTarget.length < grid.getCapacity())
+		{
+			m_burstTarget = new int[grid.getCapacity()];
+			m_burstId = new int[grid.getCapacity()];
+		}
+	}
+
+	/**
+	* Sets the trigger area of the target. It is used when there is no grid
+	*
+	* @param triggerArea - The trigger area. null if there is no target
+	*/
+	public void setTriggerArea(TriggerArea triggerArea)
+	{
+		m_hasTarget = triggerArea != null;
+
+		if(m_hasTarget)
+		{
+			m_left = triggerArea.getLeft();
+			m_top = triggerArea.getTop();
+			m_right = triggerArea.getRight();
+			m_bottom = triggerArea.getBottom();
+		}
+	}
+
+	// Removes every rocket. The ids are given out from 0 again
+	public void clear()
+	{
+		m_count = 0;
+		m_doneCount = 0;
+
+		int capacity = m_freeIds.length;
+
+		// Popped from the end, so the first rocket gets id 0
+		for(int i = 0; i < capacity; i++)
+		{
+			m_freeIds[i] = capacity - 1 - i;
+			m_index[i] = NO_PROJECTILE;
+		}
+
+		m_freeCount = capacity;
+	}
+
+	/**
+	* Puts a new rocket at the launch point
+	*
+	* @param angle    - Launch angle
+	* @param velocity - Launch velocity
+	*
+	* @return Id of the rocket, or NO_PROJECTILE if the pool is full
+	*/
+	public int fire(int angle, int velocity)
+	{
+		if(m_freeCount == 0)
+			return NO_PROJECTILE;
+
+		int id = m_freeIds[--m_freeCount];
+		int i = m_count++;
+
+		m_trajectory.launch(angle, velocity);
+
+		m_tan[i] = m_trajectory.getTan();
+		m_drop[i] = m_trajectory.getDrop();
+
+		// There is no previous state yet, so the previous state is the launch position
+		m_x[i] = 0;
+		m_y[i] = m_trajectory.getGroundY();
+		m_prevX[i] = m_x[i];
+		m_prevY[i] = m_y[i];
+		m_maxHeight[i] = m_y[i];
+
+		m_id[i] = id;
+		m_index[id] = i;
+
+		return id;
+	}
+
+	/**
+	* Moves every rocket by one physics step. A rocket which enters the trigger area (it stops at
+	* the point where it entered) or leaves the screen is taken out of the pool and listed as done
+	*
+	* @return Number of rockets which finished in this step
+	*/
+	public int step()
+	{
+		m_doneCount = 0;
+		m_burstCount = 0;
+
+		float groundY = m_trajectory.getGroundY();
+		float unit = m_trajectory.getUnit();
+
+		int i = 0;
+
+		while(i < m_count)
+		{
+			float prevX = m_prevX[i];
+			float prevY = m_prevY[i];
+			float x = m_x[i];
+			float y = m_y[i];
+
+			// The whole segment travelled in the last step is tested, as in FlightSimulator.step()
+			float impact = TriggerArea.NO_HIT;
+
+			if(m_grid != null)
+				impact = sweepTargets(i, prevX, prevY, x, y);
+			else if(m_hasTarget)
+				impact = TriggerArea.sweep(m_left, m_top, m_right, m_bottom, prevX, prevY, x, y);
+
+			if(impact != TriggerArea.NO_HIT)
+			{
+				x = prevX + (x - prevX) * impact;
+				y = prevY + (y - prevY) * impact;
+			}
+
+			if(y < m_maxHeight[i])
+				m_maxHeight[i] = y;
+
+			if(impact != TriggerArea.NO_HIT || x < 0 || x > m_width || y < 0 || y > m_height)
+			{
+				// The last rocket is moved to this entry, so the entry is looked at again
+				finish(i, x, y, impact != TriggerArea.NO_HIT);
+				continue;
+			}
+
+			m_prevX[i] = x;
+			m_prevY[i] = y;
+
+			x += FlightSimulator.X_STEP;
+
+			m_x[i] = x;
+			m_y[i] = groundY - (float) ((x * m_tan[i]) - (x * x * m_drop[i])) * unit;
+
+			i++;
+		}
+
+		return m_doneCount;
+	}
+
+	/**
+	* Finds the first target of the grid which stops the rocket of an entry in its last step. The
+	* targets it bursts on the way are removed from the grid and listed
+	*
+	* @return Time of impact with the target which stops the rocket, or TriggerArea.NO_HIT
+	*/
+	private float sweepTargets(int i, float x0, float y0, float x1, float y1)
+	{
+		float impact = m_grid.sweep(x0, y0, x1, y1);
+
+		while(impact != TriggerArea.NO_HIT && ! m_grid.stops(m_grid.getHit()))
+		{
+			int target = m_grid.getHit();
+
+			m_burstTarget[m_burstCount] = target;
+			m_burstId[m_burstCount] = m_id[i];
+			m_burstCount++;
+
+			m_grid.remove(target);
+
+			// Look again for a target further along the segment
+			impact = m_grid.sweep(x0, y0, x1, y1);
+		}
+
+		return impact;
+	}
+
+	// Lists the rocket of an entry as done and moves the last live rocket into the entry
+	private void finish(int i, float x, float y, boolean hit)
+	{
+		int id = m_id[i];
+
+		m_doneId[m_doneCount] = id;
+		m_doneX[m_doneCount] = x;
+		m_doneY[m_doneCount] = y;
+		m_doneMaxHeight[m_doneCount] = m_maxHeight[i];
+		m_doneHit[m_doneCount] = hit;
+		m_doneCount++;
+
+		m_index[id] = NO_PROJECTILE;
+		m_freeIds[m_freeCount++] = id;
+
+		int last = --m_count;
+
+		if(i == last)
+			return;
+
+		m_x[i] = m_x[last];
+		m_y[i] = m_y[last];
+		m_prevX[i] = m_prevX[last];
+		m_prevY[i] = m_prevY[last];
+		m_maxHeight[i] = m_maxHeight[last];
+		m_tan[i] = m_tan[last];
+		m_drop[i] = m_drop[last];
+		m_id[i] = m_id[last];
+
+		m_index[m_id[i]] = i;
+	}
+
+	/**
+	* Works out where every rocket is drawn, between its last two physics states
+	*
+	* @param alpha - How far (0 to 1) the render time is between the previous and current physics state
+	* @param out   - Filled with x and y of every rocket, one after the other. At least 2 * getCount() long
+	*
+	* @return Number of rockets
+	*/
+	public int interpolate(float alpha, float[] out)
+	{
+		for(int i = 0; i < m_count; i++)
+		{
+			out[2 * i] = m_prevX[i] + (m_x[i] - m_prevX[i]) * alpha;
+			out[2 * i + 1] = m_prevY[i] + (m_y[i] - m_prevY[i]) * alpha;
+		}
+
+		return m_count;
+	}
+
+	/**
+	* Returns the entry of a rocket
+	*
+	* @param id - Id returned by fire()
+	*
+	* @return The entry, or NO_PROJECTILE if the rocket has finished
+	*/
+	public int indexOf(int id)
+	{
+		return m_index[id];
+	}
+
+	// Public property exposing the number of rockets in flight
+	public int getCount()
+	{
+		return m_count;
+	}
+
+	// Public property exposing the largest number of rockets in flight
+	public int getCapacity()
+	{
+		return m_x.length;
+	}
+
+	// Returns the x coordinate of the rocket of an entry
+	public float getX(int i)
+	{
+		return m_x[i];
+	}
+
+	// Returns the y coordinate of the rocket of an entry
+	public float getY(int i)
+	{
+		return m_y[i];
+	}
+
+	// Returns the x coordinate of the rocket of an entry before the last step
+	public float getPrevX(int i)
+	{
+		return m_prevX[i];
+	}
+
+	// Returns the y coordinate of the rocket of an entry before the last step
+	public float getPrevY(int i)
+	{
+		return m_prevY[i];
+	}
+
+	// Public property exposing the number of rockets which finished in the last step
+	public int getDoneCount()
+	{
+		return m_doneCount;
+	}
+
+	// Returns the id of a rocket which finished in the last step
+	public int getDoneId(int done)
+	{
+		return m_doneId[done];
+	}
+
+	// Returns the x coordinate where a rocket which finished in the last step stopped
+	public float getDoneX(int done)
+	{
+		return m_doneX[done];
+	}
+
+	// Returns the y coordinate where a rocket which finished in the last step stopped
+	public float getDoneY(int done)
+	{
+		return m_doneY[done];
+	}
+
+	// Returns the highest point (smallest screen y) reached by a rocket which finished in the last step
+	public float getDoneMaxHeight(int done)
+	{
+		return m_doneMaxHeight[done];
+	}
+
+	// Returns true if a rocket which finished in the last step hit the target
+	public boolean isDoneHit(int done)
+	{
+		return m_doneHit[done];
+	}
+
+	// Public property exposing the number of targets burst in the last step
+	public int getBurstCount()
+	{
+		return m_burstCount;
+	}
+
+	// Returns the index in the grid of a target burst in the last step
+	public int getBurstTarget(int burst)
+	{
+		return m_burstTarget[burst];
+	}
+
+	// Returns the id of the rocket which burst a target in the last step
+	public int getBurstId(int burst)
+	{
+		return m_burstId[burst];
+	}
+
+	// Returned by fire() when the pool is full and by indexOf() for a rocket which has finished
+	public static final int NO_PROJECTILE = -1;
+
+	private final TrajectoryEngine m_trajectory;
+
+	private float m_width = 0;
+	private float m_height = 0;
+
+	// Targets of the round. null if there is only the trigger area
+	private TargetGrid m_grid = null;
+
+	// Trigger area of the target, read once so that step() does not call into it
+	private boolean m_hasTarget = false;
+	private float m_left;
+	private float m_top;
+	private float m_right;
+	private float m_bottom;
+
+	// State of the live rockets, entries 0 to m_count - 1
+	private final float[] m_x;
+	private final float[] m_y;
+	private final float[] m_prevX;
+	private final float[] m_prevY;
+	private final float[] m_maxHeight;
+	private final double[] m_tan;
+	private final double[] m_drop;
+	private final int[] m_id;
+	private int m_count = 0;
+
+	// Entry of every id, and the ids which are not in use
+	private final int[] m_index;
+	private final int[] m_freeIds;
+	private int m_freeCount = 0;
+
+	// Rockets which finished in the last step
+	private final int[] m_doneId;
+	private final float[] m_doneX;
+	private final float[] m_doneY;
+	private final float[] m_doneMaxHeight;
+	private final boolean[] m_doneHit;
+	private int m_doneCount = 0;
+
+	// Targets burst in the last step, and the rockets which burst them
+	private int[] m_burstTarget = new int[0];
+	private int[] m_burstId = new int[0];
+	private int m_burstCount = 0;
+}
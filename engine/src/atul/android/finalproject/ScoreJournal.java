@@ -0,0 +1,226 @@
+package atul.android.finalproject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+* Class ScoreJournal
+*
+* Brief This class keeps the high score in a small append-only journal. Every new high score is
+* 		appended as an entry of ENTRY_SIZE bytes after a header (MAGIC, VERSION)
+*
+* 			int score  - The high score
+* 			int check  - ~score, so that an entry which was not written completely is found
+*
+* 		and forced to the storage, so a score which has been appended survives a crash of the
+* 		process or of the device. Appending never rewrites what is in the file already.
+*
+* 		load() reads the last complete entry. A crash while an entry was appended leaves a torn
+* 		entry at the end of the file, which is ignored. If the journal has more than one entry (or
+* 		a torn one) load() compacts it: the last score is written to a new file which then replaces
+* 		the journal, so the journal never grows past a few entries and a torn entry is never
+* 		followed by new ones.
+*
+*@note	This class is not thread safe. ScoreStore uses it from its own thread only
+*/
+public class ScoreJournal
+{
+	/**
+	* Represents the constructor. The file is not opened until load() or append()
+	*
+	* @param file - The journal
+	*/
+	public ScoreJournal(File file)
+	{
+		m_file = file;
+	}
+
+	/**
+	* Reads the last high score in the journal and compacts the journal if it needs it
+	*
+	* @return The high score, or 0 if the journal is missing or has no complete entry
+	*/
+	public int load() throws IOException
+	{
+		close();
+
+		int score = 0;
+		int entries = 0;
+		boolean torn = false;
+
+		if(m_file.exists())
+		{
+			RandomAccessFile file = new RandomAccessFile(m_file, "r");
+
+			try
+			{
+				ByteBuffer in = ByteBuffer.allocate((int) Math.min(file.length(), MAX_BYTES));
+				file.getChannel().read(in, 0);
+				in.flip();
+
+				if(in.remaining() < HEADER_SIZE || in.getInt() != MAGIC || in.getShort() != VERSION)
+					torn = in.limit() > 0;
+				else
+				{
+					while(in.remaining() >= ENTRY_SIZE)
+					{
+						int value = in.getInt();
+
+						if(in.getInt() != ~value)
+						{
+							torn = true;
+							break;
+						}
+
+						score = value;
+						entries++;
+					}
+
+					torn |= in.hasRemaining();
+				}
+			}
+			finally
+			{
+				file.close();
+			}
+		}
+
+		m_entries = entries;
+
+		if(torn || entries > 1)
+			compact(score);
+
+		return score;
+	}
+
+	/**
+	* Appends a high score and forces it to the storage. The journal is compacted first when it
+	* has MAX_ENTRIES entries
+	*
+	* @param score - The high score
+	*/
+	public void append(int score) throws IOException
+	{
+		if(m_entries >= MAX_ENTRIES)
+			compact(score);
+		else
+		{
+			if(m_channel == null)
+				m_channel = new FileOutputStream(m_file, true).getChannel();
+
+			m_buffer.clear();
+
+			if(m_channel.size() == 0)
+			{
+				m_buffer.putInt(MAGIC);
+				m_buffer.putShort(VERSION);
+			}
+
+			m_buffer.putInt(score);
+			m_buffer.putInt(~score);
+			m_buffer.flip();
+
+			while(m_buffer.hasRemaining())
+				m_channel.write(m_buffer);
+
+			m_channel.force(false);
+			m_entries++;
+		}
+	}
+
+	// Closes the journal. The next append() opens it again
+	public void close()
+	{
+		if(m_channel == null)
+			return;
+
+		try
+		{
+			m_channel.close();
+		}
+		catch(IOException e)
+		{
+			// Every entry has been forced to the storage already
+		}
+
+		m_channel = null;
+	}
+
+	// Public property exposing the number of complete entries in the journal
+	public int getEntries()
+	{
+		return m_entries;
+	}
+
+	/**
+	* Replaces the journal with one holding only the given score. The new journal is written and
+	* forced to a temporary file first, so a crash leaves either the old or the new journal
+	*
+	* @param score - The high score
+	*/
+	private void compact(int score) throws IOException
+	{
+		close();
+
+		File temp = new File(m_file.getPath() + TEMP_SUFFIX);
+		FileChannel channel = new FileOutputStream(temp, false).getChannel();
+
+		try
+		{
+			m_buffer.clear();
+			m_buffer.putInt(MAGIC);
+			m_buffer.putShort(VERSION);
+			m_buffer.putInt(score);
+			m_buffer.putInt(~score);
+			m_buffer.flip();
+
+			while(m_buffer.hasRemaining())
+				channel.write(m_buffer);
+
+			channel.force(false);
+		}
+		finally
+		{
+			channel.close();
+		}
+
+		if(! temp.renameTo(m_file))
+			throw new IOException("Cannot replace " + m_file);
+
+		m_entries = 1;
+	}
+
+	// First bytes of a score journal ("RKSC")
+	public static final int MAGIC = 0x524b5343;
+
+	// Version of the format of the entries
+	public static final short VERSION = 1;
+
+	// Size of MAGIC and VERSION
+	public static final int HEADER_SIZE = 6;
+
+	// Size of one entry
+	public static final int ENTRY_SIZE = 8;
+
+	// Entries appended before the journal is compacted while the game runs
+	public static final int MAX_ENTRIES = 256;
+
+	// Bytes of the journal which are read. A journal is never longer than MAX_ENTRIES entries
+	private static final int MAX_BYTES = HEADER_SIZE + MAX_ENTRIES * ENTRY_SIZE;
+
+	// Added to the name of the journal while it is compacted
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	private final File m_file;
+
+	private FileChannel m_channel = null;
+
+	private final ByteBuffer m_buffer = ByteBuffer.allocate(HEADER_SIZE + ENTRY_SIZE);
+
+	// Complete entries in the journal
+	private int m_entries = 0;
+}
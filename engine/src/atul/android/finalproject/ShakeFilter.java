@@ -0,0 +1,151 @@
+package atul.android.finalproject;
+
+/**
+* Class ShakeFilter
+*
+* Brief This class finds shakes in the accelerometer samples. A shake is a few strong swings of the
+* 		phone in a short time, not one bump and not the phone lying still.
+*
+* 		1. Gravity is removed with a high-pass filter. A low-pass filter follows gravity (it
+* 		   changes only when the phone is turned) and is subtracted from the sample
+* 		2. A swing is the moment the squared size of what is left rises over THRESHOLD^2, so no
+* 		   square root is needed
+* 		3. The times of the last PEAKS swings are kept in a ring buffer. When the oldest of them
+* 		   is less than WINDOW old, the phone is being shaken
+* 		4. After a shake the filter ignores the phone for COOLDOWN, so one shake is reported once
+*
+*@note	The filter uses the timestamps of the samples, so it works at any sampling rate and with
+*		batched samples. It does not allocate
+*/
+public class ShakeFilter
+{
+	/**
+	* Adds a sample of the accelerometer
+	*
+	* @param x         - Acceleration along x in m/s^2
+	* @param y         - Acceleration along y in m/s^2
+	* @param z         - Acceleration along z in m/s^2
+	* @param timestamp - Time of the sample in nanoseconds
+	*
+	* @return True if this sample completes a shake
+	*/
+	public boolean add(float x, float y, float z, long timestamp)
+	{
+		switch(m_state)
+		{
+		case STATE_STARTING:
+			// Start the gravity at the first sample, otherwise the whole of gravity looks like a swing
+			m_gravityX = x;
+			m_gravityY = y;
+			m_gravityZ = z;
+
+			m_lastTimestamp = timestamp;
+			m_state = STATE_LISTENING;
+			return false;
+
+		case STATE_COOLDOWN:
+			filter(x, y, z, timestamp);
+
+			if(timestamp - m_cooldownStart >= COOLDOWN)
+			{
+				m_count = 0;
+				m_above = false;
+				m_state = STATE_LISTENING;
+			}
+			return false;
+
+		default:
+			break;
+		}
+
+		float magnitude = filter(x, y, z, timestamp);
+
+		boolean above = magnitude > THRESHOLD * THRESHOLD;
+		boolean swing = above && ! m_above;
+		m_above = above;
+
+		if(! swing)
+			return false;
+
+		// Keep the times of the last PEAKS swings
+		m_peaks[m_next] = timestamp;
+		m_next = (m_next + 1) % PEAKS;
+		m_count = Math.min(m_count + 1, PEAKS);
+
+		// m_next is now the oldest of them
+		if(m_count < PEAKS || timestamp - m_peaks[m_next] > WINDOW)
+			return false;
+
+		m_state = STATE_COOLDOWN;
+		m_cooldownStart = timestamp;
+
+		return true;
+	}
+
+	// Forgets everything. Call it when the samples start again (for example in onResume)
+	public void reset()
+	{
+		m_state = STATE_STARTING;
+		m_count = 0;
+		m_next = 0;
+		m_above = false;
+	}
+
+	/**
+	* Updates the gravity and returns the squared size of the acceleration without it
+	*/
+	private float filter(float x, float y, float z, long timestamp)
+	{
+		float dt = Math.max(0, timestamp - m_lastTimestamp) / 1e9f;
+		m_lastTimestamp = timestamp;
+
+		// Weight of the old gravity. It depends on the time since the last sample
+		float alpha = GRAVITY_TIME_CONSTANT / (GRAVITY_TIME_CONSTANT + dt);
+
+		m_gravityX = alpha * m_gravityX + (1 - alpha) * x;
+		m_gravityY = alpha * m_gravityY + (1 - alpha) * y;
+		m_gravityZ = alpha * m_gravityZ + (1 - alpha) * z;
+
+		float lx = x - m_gravityX;
+		float ly = y - m_gravityY;
+		float lz = z - m_gravityZ;
+
+		return lx * lx + ly * ly + lz * lz;
+	}
+
+	// Acceleration (without gravity) of a swing in m/s^2
+	public static final float THRESHOLD = 12;
+
+	// Number of swings in a shake
+	public static final int PEAKS = 3;
+
+	// Longest time of the swings of a shake in nanoseconds
+	public static final long WINDOW = 800000000L;
+
+	// Time after a shake in which the phone is ignored, in nanoseconds
+	public static final long COOLDOWN = 1500000000L;
+
+	// Time constant of the gravity filter in seconds
+	private static final float GRAVITY_TIME_CONSTANT = 0.25f;
+
+	private static final int STATE_STARTING = 0;
+	private static final int STATE_LISTENING = 1;
+	private static final int STATE_COOLDOWN = 2;
+
+	private int m_state = STATE_STARTING;
+
+	private float m_gravityX;
+	private float m_gravityY;
+	private float m_gravityZ;
+
+	private long m_lastTimestamp;
+	private long m_cooldownStart;
+
+	// True while the last sample was over the threshold
+	private boolean m_above = false;
+
+	// Ring buffer of the times of the last swings
+	private final long[] m_peaks = new long[PEAKS];
+	private int m_next = 0;
+	private int m_count = 0;
+}
@@ -0,0 +1,52 @@
+package atul.android.finalproject;
+
+/**
+* Class ShotAnalyzer
+*
+* Brief This class works out the advice given to the player after a missed shot.
+*
+* 		The analysis is divided into four parts
+* 		1. Rocket falls short of distance in x direction but not in y
+* 		2. Rocket falls short of distance in x direction and also in y
+* 		3. Rocket falls short of distance in y direction but not in x
+* 		4. Rocket exceeds distance in y direction and also in x
+*/
+public class ShotAnalyzer
+{
+	/**
+	* Analyzes a missed shot
+	*
+	* @param x             - distance travelled by rocket in x direction
+	* @param heightFromTop - maximum height achieved by the rocket, measured from the top of the screen
+	* @param targetX       - x coordinate of the target
+	* @param targetY       - y coordinate of the target
+	* @param screenHeight  - height of the screen
+	*
+	* @return One of DECREASE_ANGLE, INCREASE_VELOCITY, DECREASE_VELOCITY or INCREASE_ANGLE
+	*/
+	public static int analyze(float x, float heightFromTop, int targetX, int targetY, int screenHeight)
+	{
+		float maxHeight = screenHeight - heightFromTop;
+
+		if(x < targetX)
+		{
+			if(maxHeight > targetY)
+				return DECREASE_ANGLE;
+			else
+				return INCREASE_VELOCITY;
+		}
+		else
+		{
+			if(maxHeight > targetY)
+				return DECREASE_VELOCITY;
+			else
+				return INCREASE_ANGLE;
+		}
+	}
+
+	// Advice returned by analyze()
+	public static final int DECREASE_ANGLE = 0;
+	public static final int INCREASE_VELOCITY = 1;
+	public static final int DECREASE_VELOCITY = 2;
+	public static final int INCREASE_ANGLE = 3;
+}
@@ -0,0 +1,414 @@
+package atul.android.finalproject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+* Class ShotHistory
+*
+* Brief This class keeps every shot of the player in a file of fixed size records, so that the
+* 		statistics of the player can be worked out from all the shots ever made. The file starts
+* 		with a header of HEADER_SIZE bytes which holds the totals of the statistics
+*
+* 			int   magic, short version, short record size
+* 			int   shots, hits                 - All the shots and the ones which hit
+* 			int   targets, attempts           - Targets which were hit and the shots they took
+* 			long  timeToHit                   - Sum of the times the targets took to hit
+* 			int   current attempts, x, y      - Shots at the target of the last shot, and its position
+* 			int   angle shots[ANGLE_BUCKETS]  - Shots per bucket of the launch angle
+* 			int   angle hits[ANGLE_BUCKETS]   - Hits per bucket of the launch angle
+*
+* 		followed by the shots, RECORD_SIZE bytes each
+*
+* 			long  time                 - System.currentTimeMillis() of the shot
+* 			short targetX, targetY     - Position of the target
+* 			byte  angle, velocity      - Launch values
+* 			byte  flags                - FLAG_HIT
+* 			byte  unused
+* 			float missX, missY         - Where the rocket stopped, relative to the target
+* 			int   time                 - Milliseconds from the target appearing to the shot
+*
+* 		The header is memory mapped and its totals are updated in place for every shot, so the
+* 		statistics never need the shots to be read again and opening the file reads nothing but
+* 		the header, however many shots it holds. A shot is appended with one write at its place
+* 		after the last shot counted in the header.
+*
+* 		The header is updated after the shot has been written. If the process dies in between, the
+* 		number of shots in the header and in the file do not match and open() works the totals out
+* 		again from the shots, which are read through a memory mapping as well. A shot which was
+* 		only partly written is ignored and written over by the next one.
+*
+*@note	This class is not thread safe. ScoreStore uses it from its own thread only
+*/
+public class ShotHistory
+{
+	/**
+	* Class Shot
+	*
+	* Brief This class holds one shot of the history
+	*/
+	public static class Shot
+	{
+		/**
+		* Sets the shot
+		*
+		* @param time      - System.currentTimeMillis() of the shot
+		* @param targetX   - x coordinate of the target
+		* @param targetY   - y coordinate of the target
+		* @param angle     - Launch angle
+		* @param velocity  - Launch velocity
+		* @param hit       - True if the target was hit
+		* @param missX     - x coordinate where the rocket stopped, relative to the target
+		* @param missY     - y coordinate where the rocket stopped, relative to the target
+		* @param timeToHit - Milliseconds from the target appearing to the shot
+		*/
+		public void set(long time, int targetX, int targetY, int angle, int velocity, boolean hit,
+						float missX, float missY, int timeToHit)
+		{
+			m_time = time;
+			m_targetX = targetX;
+			m_targetY = targetY;
+			m_angle = angle;
+			m_velocity = velocity;
+			m_hit = hit;
+			m_missX = missX;
+			m_missY = missY;
+			m_timeToHit = timeToHit;
+		}
+
+		// Public property exposing the time of the shot in milliseconds
+		public long getTime()
+		{
+			return m_time;
+		}
+
+		// Public property exposing the x coordinate of the target
+		public int getTargetX()
+		{
+			return m_targetX;
+		}
+
+		// Public property exposing the y coordinate of the target
+		public int getTargetY()
+		{
+			return m_targetY;
+		}
+
+		// Public property exposing the launch angle
+		public int getAngle()
+		{
+			return m_angle;
+		}
+
+		// Public property exposing the launch velocity
+		public int getVelocity()
+		{
+			return m_velocity;
+		}
+
+		// Public property telling whether the target was hit
+		public boolean isHit()
+		{
+			return m_hit;
+		}
+
+		// Public property exposing the x coordinate where the rocket stopped, relative to the target
+		public float getMissX()
+		{
+			return m_missX;
+		}
+
+		// Public property exposing the y coordinate where the rocket stopped, relative to the target
+		public float getMissY()
+		{
+			return m_missY;
+		}
+
+		// Public property exposing the milliseconds from the target appearing to the shot
+		public int getTimeToHit()
+		{
+			return m_timeToHit;
+		}
+
+		private long m_time;
+		private int m_targetX;
+		private int m_targetY;
+		private int m_angle;
+		private int m_velocity;
+		private boolean m_hit;
+		private float m_missX;
+		private float m_missY;
+		private int m_timeToHit;
+	}
+
+	/**
+	* Represents the constructor. The file is not opened until open()
+	*
+	* @param file - The history
+	*/
+	public ShotHistory(File file)
+	{
+		m_file = file;
+	}
+
+	/**
+	* Opens the history, creating it if there is none. A file which is not a history is started
+	* again
+	*/
+	public void open() throws IOException
+	{
+		close();
+
+		m_channel = new RandomAccessFile(m_file, "rw").getChannel();
+
+		if(m_channel.size() < HEADER_SIZE)
+			m_channel.truncate(0);
+
+		// Mapping the header makes the file at least HEADER_SIZE bytes long, filled with zeros
+		m_header = m_channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+
+		if(m_header.getInt(MAGIC_OFFSET) != MAGIC || m_header.getShort(VERSION_OFFSET) != VERSION
+		   || m_header.getShort(RECORD_SIZE_OFFSET) != RECORD_SIZE)
+		{
+			m_channel.truncate(HEADER_SIZE);
+			clearHeader();
+		}
+
+		long stored = (m_channel.size() - HEADER_SIZE) / RECORD_SIZE;
+
+		if(stored != m_header.getInt(SHOTS_OFFSET))
+			rebuild((int) Math.min(stored, Integer.MAX_VALUE));
+	}
+
+	// Closes the history. The mappings stay valid until they are collected
+	public void close()
+	{
+		if(m_channel == null)
+			return;
+
+		m_header.force();
+
+		try
+		{
+			m_channel.close();
+		}
+		catch(IOException e)
+		{
+			// The shots have been written already
+		}
+
+		m_channel = null;
+		m_header = null;
+		m_records = null;
+	}
+
+	/**
+	* Appends a shot and adds it to the totals
+	*
+	* @param shot - The shot
+	*/
+	public void add(Shot shot) throws IOException
+	{
+		int shots = getShots();
+
+		m_record.clear();
+		m_record.putLong(shot.m_time);
+		m_record.putShort((short) shot.m_targetX);
+		m_record.putShort((short) shot.m_targetY);
+		m_record.put((byte) shot.m_angle);
+		m_record.put((byte) shot.m_velocity);
+		m_record.put((byte) (shot.m_hit ? FLAG_HIT : 0));
+		m_record.put((byte) 0);
+		m_record.putFloat(shot.m_missX);
+		m_record.putFloat(shot.m_missY);
+		m_record.putInt(shot.m_timeToHit);
+		m_record.flip();
+
+		long position = HEADER_SIZE + (long) shots * RECORD_SIZE;
+
+		while(m_record.hasRemaining())
+			position += m_channel.write(m_record, position);
+
+		count(shot);
+	}
+
+	/**
+	* Reads a shot
+	*
+	* @param index - Index of the shot, 0 is the first one
+	* @param out   - Filled with the shot
+	*/
+	public void read(int index, Shot out) throws IOException
+	{
+		// Map every shot up to the last one. The mapping is made again only when it has grown
+		if(m_records == null || m_records.capacity() < (index + 1) * RECORD_SIZE)
+			m_records = m_channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, (long) getShots() * RECORD_SIZE);
+
+		int at = index * RECORD_SIZE;
+
+		out.m_time = m_records.getLong(at);
+		out.m_targetX = m_records.getShort(at + 8);
+		out.m_targetY = m_records.getShort(at + 10);
+		out.m_angle = m_records.get(at + 12);
+		out.m_velocity = m_records.get(at + 13);
+		out.m_hit = (m_records.get(at + 14) & FLAG_HIT) != 0;
+		out.m_missX = m_records.getFloat(at + 16);
+		out.m_missY = m_records.getFloat(at + 20);
+		out.m_timeToHit = m_records.getInt(at + 24);
+	}
+
+	// Public property exposing the number of shots in the history
+	public int getShots()
+	{
+		return m_header.getInt(SHOTS_OFFSET);
+	}
+
+	/**
+	* Copies the totals of the history. This reads only the header
+	*
+	* @param out - Filled with the statistics
+	*/
+	public void getStats(ShotStats out)
+	{
+		out.m_shots = m_header.getInt(SHOTS_OFFSET);
+		out.m_hits = m_header.getInt(HITS_OFFSET);
+		out.m_targets = m_header.getInt(TARGETS_OFFSET);
+		out.m_attempts = m_header.getInt(ATTEMPTS_OFFSET);
+		out.m_timeToHit = m_header.getLong(TIME_TO_HIT_OFFSET);
+		out.m_currentAttempts = m_header.getInt(CURRENT_ATTEMPTS_OFFSET);
+
+		for(int i = 0; i < ShotStats.ANGLE_BUCKETS; i++)
+		{
+			out.m_angleShots[i] = m_header.getInt(ANGLE_SHOTS_OFFSET + 4 * i);
+			out.m_angleHits[i] = m_header.getInt(ANGLE_HITS_OFFSET + 4 * i);
+		}
+	}
+
+	/**
+	* Adds a shot to the totals in the header. The shot is counted last, so the header tells that
+	* the shot is in the file only when all of its totals are in
+	*
+	* @param shot - The shot
+	*/
+	private void count(Shot shot)
+	{
+		int bucket = ShotStats.bucketOf(shot.m_angle);
+
+		// Shots at another target start counting again. The last target was left without a hit
+		if(shot.m_targetX != m_header.getInt(CURRENT_X_OFFSET) || shot.m_targetY != m_header.getInt(CURRENT_Y_OFFSET))
+		{
+			m_header.putInt(CURRENT_ATTEMPTS_OFFSET, 0);
+			m_header.putInt(CURRENT_X_OFFSET, shot.m_targetX);
+			m_header.putInt(CURRENT_Y_OFFSET, shot.m_targetY);
+		}
+
+		int attempts = increment(CURRENT_ATTEMPTS_OFFSET);
+		increment(ANGLE_SHOTS_OFFSET + 4 * bucket);
+
+		if(shot.m_hit)
+		{
+			increment(HITS_OFFSET);
+			increment(ANGLE_HITS_OFFSET + 4 * bucket);
+			increment(TARGETS_OFFSET);
+
+			m_header.putInt(ATTEMPTS_OFFSET, m_header.getInt(ATTEMPTS_OFFSET) + attempts);
+			m_header.putLong(TIME_TO_HIT_OFFSET, m_header.getLong(TIME_TO_HIT_OFFSET) + shot.m_timeToHit);
+
+			// The next shot is at a new target, even if it is at the same place
+			m_header.putInt(CURRENT_ATTEMPTS_OFFSET, 0);
+			m_header.putInt(CURRENT_X_OFFSET, NO_TARGET);
+		}
+
+		increment(SHOTS_OFFSET);
+	}
+
+	// Adds one to an int of the header and returns the new value
+	private int increment(int offset)
+	{
+		int value = m_header.getInt(offset) + 1;
+		m_header.putInt(offset, value);
+
+		return value;
+	}
+
+	// Works out the totals again from the first shots in the file
+	private void rebuild(int shots) throws IOException
+	{
+		clearHeader();
+
+		m_channel.truncate(HEADER_SIZE + (long) shots * RECORD_SIZE);
+
+		m_records = m_channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, (long) shots * RECORD_SIZE);
+
+		Shot shot = new Shot();
+
+		for(int i = 0; i < shots; i++)
+		{
+			read(i, shot);
+			count(shot);
+		}
+
+		m_header.force();
+	}
+
+	// Writes the header of a history without shots
+	private void clearHeader()
+	{
+		for(int i = 0; i < HEADER_SIZE; i += 4)
+			m_header.putInt(i, 0);
+
+		m_header.putInt(MAGIC_OFFSET, MAGIC);
+		m_header.putShort(VERSION_OFFSET, VERSION);
+		m_header.putShort(RECORD_SIZE_OFFSET, (short) RECORD_SIZE);
+		m_header.putInt(CURRENT_X_OFFSET, NO_TARGET);
+	}
+
+	// First bytes of a shot history ("RKSH")
+	public static final int MAGIC = 0x524b5348;
+
+	// Version of the format of the header and the shots
+	public static final short VERSION = 1;
+
+	// Size of the header
+	public static final int HEADER_SIZE = 128;
+
+	// Size of one shot
+	public static final int RECORD_SIZE = 28;
+
+	public static final int FLAG_HIT = 1;
+
+	// Offsets of the values in the header
+	private static final int MAGIC_OFFSET = 0;
+	private static final int VERSION_OFFSET = 4;
+	private static final int RECORD_SIZE_OFFSET = 6;
+	private static final int SHOTS_OFFSET = 8;
+	private static final int HITS_OFFSET = 12;
+	private static final int TARGETS_OFFSET = 16;
+	private static final int ATTEMPTS_OFFSET = 20;
+	private static final int TIME_TO_HIT_OFFSET = 24;
+	private static final int CURRENT_ATTEMPTS_OFFSET = 32;
+	private static final int CURRENT_X_OFFSET = 36;
+	private static final int CURRENT_Y_OFFSET = 40;
+	private static final int ANGLE_SHOTS_OFFSET = 44;
+	private static final int ANGLE_HITS_OFFSET = ANGLE_SHOTS_OFFSET + 4 * ShotStats.ANGLE_BUCKETS;
+
+	// Position of the current target when there is none. No target is ever there
+	private static final int NO_TARGET = Integer.MIN_VALUE;
+
+	private final File m_file;
+
+	private FileChannel m_channel = null;
+
+	// The header, mapped for as long as the history is open
+	private MappedByteBuffer m_header = null;
+
+	// The shots, mapped when they are read
+	private MappedByteBuffer m_records = null;
+
+	// A shot is put together here before it is written
+	private final ByteBuffer m_record = ByteBuffer.allocate(RECORD_SIZE);
+}
@@ -0,0 +1,127 @@
+package atul.android.finalproject;
+
+/**
+* Class ShotStats
+*
+* Brief This class holds the statistics of all the shots in a ShotHistory at one moment. The
+* 		history fills it from the totals it keeps up to date, so filling it does not depend on the
+* 		number of shots. It is a copy, so it can be handed to the main thread and read there while
+* 		the history takes more shots.
+*
+* 		The launch angles are put in ANGLE_BUCKETS buckets of ANGLE_BUCKET degrees each, 90 goes
+* 		in the last bucket.
+*/
+public class ShotStats
+{
+	/**
+	* Returns the bucket of a launch angle
+	*
+	* @param angle - Launch angle, 0 to 90
+	*/
+	public static int bucketOf(int angle)
+	{
+		return Math.max(0, Math.min(ANGLE_BUCKETS - 1, angle / ANGLE_BUCKET));
+	}
+
+	// Public property exposing the number of shots
+	public int getShots()
+	{
+		return m_shots;
+	}
+
+	// Public property exposing the number of shots which hit the target
+	public int getHits()
+	{
+		return m_hits;
+	}
+
+	// Public property exposing the part of the shots which hit the target, 0 if there are no shots
+	public float getHitRate()
+	{
+		return m_shots == 0 ? 0 : (float) m_hits / m_shots;
+	}
+
+	/**
+	* Returns the part of the shots in a bucket of launch angles which hit the target
+	*
+	* @param bucket - Bucket of the launch angle, see bucketOf()
+	*
+	* @return The hit rate, 0 if there are no shots in the bucket
+	*/
+	public float getHitRate(int bucket)
+	{
+		return m_angleShots[bucket] == 0 ? 0 : (float) m_angleHits[bucket] / m_angleShots[bucket];
+	}
+
+	// Returns the number of shots in a bucket of launch angles
+	public int getShots(int bucket)
+	{
+		return m_angleShots[bucket];
+	}
+
+	/**
+	* Returns the bucket of launch angles with the best hit rate. Buckets with less than
+	* MIN_BUCKET_SHOTS shots are left out, their hit rate says little
+	*
+	* @return The bucket, or NO_BUCKET if no bucket has enough shots
+	*/
+	public int getBestBucket()
+	{
+		int best = NO_BUCKET;
+
+		for(int i = 0; i < ANGLE_BUCKETS; i++)
+		{
+			if(m_angleShots[i] >= MIN_BUCKET_SHOTS && (best == NO_BUCKET || getHitRate(i) > getHitRate(best)))
+				best = i;
+		}
+
+		return best;
+	}
+
+	// Public property exposing the number of targets which were hit
+	public int getTargets()
+	{
+		return m_targets;
+	}
+
+	// Public property exposing the average number of shots a target took to hit, 0 if none was hit
+	public float getAttemptsPerTarget()
+	{
+		return m_targets == 0 ? 0 : (float) m_attempts / m_targets;
+	}
+
+	// Public property exposing the average time from a target appearing to it being hit, in milliseconds
+	public long getTimeToHit()
+	{
+		return m_targets == 0 ? 0 : m_timeToHit / m_targets;
+	}
+
+	// Public property exposing the number of shots at the current target
+	public int getCurrentAttempts()
+	{
+		return m_currentAttempts;
+	}
+
+	// Degrees of launch angle in a bucket
+	public static final int ANGLE_BUCKET = 10;
+
+	// Number of buckets of the launch angle
+	public static final int ANGLE_BUCKETS = 9;
+
+	// Shots a bucket needs before its hit rate is compared with the others
+	public static final int MIN_BUCKET_SHOTS = 5;
+
+	// Returned by getBestBucket() when no bucket has enough shots
+	public static final int NO_BUCKET = -1;
+
+	// Filled by ShotHistory.getStats()
+	int m_shots = 0;
+	int m_hits = 0;
+	int m_targets = 0;
+	int m_attempts = 0;
+	long m_timeToHit = 0;
+	int m_currentAttempts = 0;
+
+	final int[] m_angleShots = new int[ANGLE_BUCKETS];
+	final int[] m_angleHits = new int[ANGLE_BUCKETS];
+}
@@ -0,0 +1,410 @@
+package atul.android.finalproject;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+* Class SimulationRunner
+*
+* Brief This class simulates players shooting at many targets, to tune the area the targets are
+* 		placed in (TargetGenerator) and the size of the trigger area (TriggerArea.aroundTarget())
+* 		without playtests. It is run from the command line
+*
+* 			java -cp benchmarks.jar atul.android.finalproject.SimulationRunner --targets 1000000
+*
+* 		For every target the modelled player picks one of the angles for which the seekbar gives
+* 		enough velocity, works out the velocity which passes through the middle of the trigger
+* 		area and launches with both values off by a normally distributed error of --noise
+* 		seekbar units (rounded to whole numbers like the seekbar).
+* 		The player tries again, with a new error, until the target is hit or --attempts launches
+* 		have been made. Every launch is stepped by the FlightSimulator, as in the game.
+*
+* 		The targets are shared between one worker per core in chunks. Each worker adds its
+* 		results into its own SimulationStats, so nothing is shared while they run and the run
+* 		scales with the cores. The random numbers of a target come from its index, so the
+* 		results do not depend on the number of threads.
+*
+* 		The results are written as CSV to regions.csv, attempts.csv and misses.csv in the --out
+* 		directory.
+*/
+public class SimulationRunner
+{
+	/**
+	* Reads the options of the command line. Options which are not given keep their defaults
+	*
+	* @param args - Pairs of --option value
+	*/
+	public void parse(String[] args)
+	{
+		for(int i = 0; i + 1 < args.length; i += 2)
+		{
+			String option = args[i];
+			String value = args[i + 1];
+
+			if(option.equals("--targets"))
+				m_targets = Long.parseLong(value);
+			else if(option.equals("--threads"))
+				m_threads = Integer.parseInt(value);
+			else if(option.equals("--seed"))
+				m_seed = Long.parseLong(value);
+			else if(option.equals("--width"))
+				m_width = Integer.parseInt(value);
+			else if(option.equals("--height"))
+				m_height = Integer.parseInt(value);
+			else if(option.equals("--density"))
+				m_density = Float.parseFloat(value);
+			else if(option.equals("--target-size"))
+				m_targetSize = Float.parseFloat(value);
+			else if(option.equals("--range"))
+				m_range = parseRange(value);
+			else if(option.equals("--noise"))
+				m_noise = Double.parseDouble(value);
+			else if(option.equals("--attempts"))
+				m_maxAttempts = Integer.parseInt(value);
+			else if(option.equals("--regions"))
+				m_regions = Integer.parseInt(value);
+			else if(option.equals("--out"))
+				m_out = new File(value);
+			else
+				throw new IllegalArgumentException("unknown option " + option);
+		}
+
+		if(args.length % 2 != 0)
+			throw new IllegalArgumentException("missing value of " + args[args.length - 1]);
+	}
+
+	// Reads left,top,width,height
+	private static float[] parseRange(String value)
+	{
+		String[] parts = value.split(",");
+
+		if(parts.length != 4)
+			throw new IllegalArgumentException("--range needs left,top,width,height");
+
+		float[] range = new float[4];
+
+		for(int i = 0; i < 4; i++)
+			range[i] = Float.parseFloat(parts[i]);
+
+		return range;
+	}
+
+	/**
+	* Simulates every target on all the workers
+	*
+	* @return The results of all the targets
+	*/
+	public SimulationStats run() throws InterruptedException, ExecutionException
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(m_threads);
+
+		try
+		{
+			m_next.set(0);
+
+			List<Future<SimulationStats>> results = new ArrayList<Future<SimulationStats>>(m_threads);
+
+			for(int i = 0; i < m_threads; i++)
+				results.add(executor.submit(new Worker()));
+
+			SimulationStats total = new SimulationStats(m_regions, m_maxAttempts);
+
+			for(Future<SimulationStats> result : results)
+				total.merge(result.get());
+
+			return total;
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	/**
+	* Writes the results to the CSV files in the output directory
+	*
+	* @param stats - Results of run()
+	*/
+	public void write(SimulationStats stats) throws IOException
+	{
+		m_out.mkdirs();
+
+		Writer out = new BufferedWriter(new FileWriter(new File(m_out, "regions.csv")));
+
+		try
+		{
+			stats.writeRegions(out);
+		}
+		finally
+		{
+			out.close();
+		}
+
+		out = new BufferedWriter(new FileWriter(new File(m_out, "attempts.csv")));
+
+		try
+		{
+			stats.writeAttempts(out);
+		}
+		finally
+		{
+			out.close();
+		}
+
+		out = new BufferedWriter(new FileWriter(new File(m_out, "misses.csv")));
+
+		try
+		{
+			stats.writeMisses(out);
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+
+	/**
+	* Class Worker
+	*
+	* Brief Takes chunks of targets until there are none left and simulates them. Every worker has
+	* 		its own engine objects and results
+	*/
+	private class Worker implements Callable<SimulationStats>
+	{
+		Worker()
+		{
+			m_generator.setRange(m_range[0], m_range[1], m_range[2], m_range[3]);
+
+			m_trajectory.setScreen(m_height, m_density);
+			m_simulator.setBounds(m_width, m_height);
+
+			m_minX = m_generator.getMinX(m_width);
+			m_minY = m_generator.getMinY(m_height);
+			m_rangeX = Math.max(1, m_generator.getRangeX(m_width));
+			m_rangeY = Math.max(1, m_generator.getRangeY(m_height));
+		}
+
+		@Override
+		public SimulationStats call()
+		{
+			SimulationStats stats = new SimulationStats(m_regions, m_maxAttempts);
+
+			while(true)
+			{
+				long first = m_next.getAndAdd(CHUNK);
+
+				if(first >= m_targets)
+					break;
+
+				long last = Math.min(first + CHUNK, m_targets);
+
+				for(long target = first; target < last; target++)
+					simulateTarget(target, stats);
+			}
+
+			return stats;
+		}
+
+		// Shoots at one target until it is hit or the attempts run out
+		private void simulateTarget(long target, SimulationStats stats)
+		{
+			m_generator.setSeed(mix(m_seed + target));
+			m_generator.generate(m_width, m_height);
+
+			int x = m_generator.getX();
+			int y = m_generator.getY();
+
+			int column = Math.min(m_regions - 1, (x - m_minX) * m_regions / m_rangeX);
+			int row = Math.min(m_regions - 1, (y - m_minY) * m_regions / m_rangeY);
+			int region = Math.max(0, row) * m_regions + Math.max(0, column);
+
+			TriggerArea area = TriggerArea.aroundTarget(x, y, m_targetSize, m_targetSize);
+			m_simulator.setTriggerArea(area);
+
+			float aimX = (area.getLeft() + area.getRight()) / 2;
+			float aimY = (area.getTop() + area.getBottom()) / 2;
+
+			m_random.setSeed(mix(~(m_seed + target)));
+
+			// The angles which reach the middle of the trigger area with a velocity the seekbar gives
+			int reachable = 0;
+
+			for(int angle = MIN_AIM_ANGLE; angle <= MAX_AIM_ANGLE; angle++)
+			{
+				m_inverse.solve(angle, 0, aimX, aimY, m_height, m_density);
+
+				if(m_inverse.getVelocity() <= BatchSolver.MAX_INPUT)
+					m_reachable[reachable++] = angle;
+			}
+
+			// The player picks one of them. If there is none the player tries the steepest angle as
+			// fast as the seekbar goes
+			int angle = MAX_AIM_ANGLE;
+			double velocity = BatchSolver.MAX_INPUT;
+
+			if(reachable > 0)
+			{
+				angle = m_reachable[m_random.nextInt(reachable)];
+				m_inverse.solve(angle, 0, aimX, aimY, m_height, m_density);
+				velocity = m_inverse.getVelocity();
+			}
+
+			int attempts = 0;
+			boolean hit = false;
+
+			while(! hit && attempts < m_maxAttempts)
+			{
+				int a = input(angle + m_noise * m_random.nextGaussian());
+				int v = input(velocity + m_noise * m_random.nextGaussian());
+
+				hit = launch(a, v, aimX, aimY);
+				attempts++;
+
+				stats.addLaunch(region, hit, m_missDistance);
+			}
+
+			stats.addTarget(region, attempts, hit);
+		}
+
+		/**
+		* Flies one launch
+		*
+		* @return True if the target was hit. Otherwise m_missDistance is the closest the rocket came
+		* 		  to (aimX, aimY)
+		*/
+		private boolean launch(int angle, int velocity, float aimX, float aimY)
+		{
+			m_trajectory.launch(angle, velocity);
+			m_simulator.start();
+
+			float closest = Float.MAX_VALUE;
+			int state;
+
+			do
+			{
+				state = m_simulator.step();
+
+				float dx = m_simulator.getX() - aimX;
+				float dy = m_simulator.getY() - aimY;
+				closest = Math.min(closest, dx * dx + dy * dy);
+			}
+			while(state == FlightSimulator.FLYING);
+
+			m_missDistance = (float) Math.sqrt(closest);
+
+			return state == FlightSimulator.HIT;
+		}
+
+		private final TargetGenerator m_generator = new TargetGenerator();
+		private final TrajectoryEngine m_trajectory = new TrajectoryEngine();
+		private final FlightSimulator m_simulator = new FlightSimulator(m_trajectory);
+		private final InverseSolver m_inverse = new InverseSolver();
+		private final Random m_random = new Random();
+
+		// Angles which can reach the current target
+		private final int[] m_reachable = new int[MAX_AIM_ANGLE - MIN_AIM_ANGLE + 1];
+
+		// Area of the targets in pixels
+		private final int m_minX;
+		private final int m_minY;
+		private final int m_rangeX;
+		private final int m_rangeY;
+
+		// Miss distance of the last launch
+		private float m_missDistance = 0;
+	}
+
+	/**
+	* Scrambles the bits of a seed. java.util.Random gives nearly the same first numbers for seeds
+	* which are close to each other, such as the indexes of the targets (the finalizer of MurmurHash3)
+	*/
+	private static long mix(long z)
+	{
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+
+		return z ^ (z >>> 33);
+	}
+
+	// Rounds a value the player meant to the whole number the seekbar gives
+	private static int input(double value)
+	{
+		return (int) Math.max(0, Math.min(BatchSolver.MAX_INPUT, Math.round(value)));
+	}
+
+	/**
+	* Runs the simulation with the options of the command line and writes the CSV files
+	*
+	* @param args - Pairs of --option value
+	*/
+	public static void main(String[] args) throws Exception
+	{
+		SimulationRunner runner = new SimulationRunner();
+
+		try
+		{
+			runner.parse(args);
+		}
+		catch(IllegalArgumentException e)
+		{
+			System.err.println(e.getMessage());
+			System.err.println("usage: SimulationRunner [--targets n] [--threads n] [--seed n] [--width px]"
+							   + " [--height px] [--density d] [--target-size px] [--range left,top,width,height]"
+							   + " [--noise units] [--attempts n] [--regions n] [--out directory]");
+			System.exit(2);
+		}
+
+		long start = System.nanoTime();
+		SimulationStats stats = runner.run();
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		runner.write(stats);
+
+		System.out.println(stats.getTargets() + " targets, " + stats.getLaunches() + " launches, "
+						   + stats.getHits() + " hits in " + (float) seconds + " s on " + runner.m_threads
+						   + " threads (" + (long) (stats.getLaunches() / seconds) + " launches/s)");
+	}
+
+	// Targets taken by a worker at a time
+	private static final int CHUNK = 1024;
+
+	// Angles the modelled player picks from
+	private static final int MIN_AIM_ANGLE = 20;
+	private static final int MAX_AIM_ANGLE = 70;
+
+	private long m_targets = 100000;
+	private int m_threads = Runtime.getRuntime().availableProcessors();
+	private long m_seed = 1;
+
+	// The screen of a 480 x 800 phone at density 1.5, and the size of the target image on it
+	private int m_width = 480;
+	private int m_height = 800;
+	private float m_density = 1.5f;
+	private float m_targetSize = 48;
+
+	// Area of the targets as fractions of the screen (left, top, width, height), as in TargetGenerator
+	private float[] m_range = { 0.5f, 1 / 3f, 0.25f, 0.25f };
+
+	// Standard deviation of the error of the player in seekbar units
+	private double m_noise = 2;
+
+	private int m_maxAttempts = 10;
+	private int m_regions = 4;
+
+	private File m_out = new File(".");
+
+	// First target which no worker has taken yet
+	private final AtomicLong m_next = new AtomicLong();
+}
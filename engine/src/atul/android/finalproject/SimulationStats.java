@@ -0,0 +1,210 @@
+package atul.android.finalproject;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+* Class SimulationStats
+*
+* Brief This class adds up the results of simulated launches as they are made, so a run of millions
+* 		of launches needs no more memory than a few arrays. It keeps
+* 		- per region of the target area: targets, launches, hits, attempts and targets which were
+* 		  not hit within the allowed attempts
+* 		- how many targets took 1, 2, .. attempts to hit
+* 		- how close the missed launches came to the target, in MISS_BUCKET pixel buckets
+*
+* 		Every worker of SimulationRunner fills its own object and the objects are merged at the end,
+* 		so the workers never share anything while they run.
+*/
+public class SimulationStats
+{
+	/**
+	* Represents the constructor
+	*
+	* @param regions     - Number of regions along each side of the target area
+	* @param maxAttempts - Largest number of attempts at one target
+	*/
+	public SimulationStats(int regions, int maxAttempts)
+	{
+		m_regions = regions;
+
+		m_targets = new long[regions * regions];
+		m_launches = new long[regions * regions];
+		m_hits = new long[regions * regions];
+		m_attempts = new long[regions * regions];
+		m_unsolved = new long[regions * regions];
+
+		// One entry per attempt count, the last one for the targets which were not hit
+		m_attemptCounts = new long[maxAttempts + 1];
+	}
+
+	/**
+	* Adds a launch
+	*
+	* @param region       - Region of the target
+	* @param hit          - True if the target was hit
+	* @param missDistance - Closest the rocket came to the target in pixels. Ignored for a hit
+	*/
+	public void addLaunch(int region, boolean hit, float missDistance)
+	{
+		m_launches[region]++;
+
+		if(hit)
+		{
+			m_hits[region]++;
+			return;
+		}
+
+		int bucket = (int) (missDistance / MISS_BUCKET);
+		m_misses[Math.max(0, Math.min(MISS_BUCKETS - 1, bucket))]++;
+	}
+
+	/**
+	* Adds a target after all the attempts at it
+	*
+	* @param region   - Region of the target
+	* @param attempts - Number of launches at it
+	* @param solved   - True if the last launch hit it
+	*/
+	public void addTarget(int region, int attempts, boolean solved)
+	{
+		m_targets[region]++;
+		m_attempts[region] += attempts;
+
+		if(solved)
+			m_attemptCounts[attempts - 1]++;
+		else
+		{
+			m_unsolved[region]++;
+			m_attemptCounts[m_attemptCounts.length - 1]++;
+		}
+	}
+
+	/**
+	* Adds the results of another object with the same number of regions and attempts
+	*
+	* @param other - Results to add
+	*/
+	public void merge(SimulationStats other)
+	{
+		add(m_targets, other.m_targets);
+		add(m_launches, other.m_launches);
+		add(m_hits, other.m_hits);
+		add(m_attempts, other.m_attempts);
+		add(m_unsolved, other.m_unsolved);
+		add(m_attemptCounts, other.m_attemptCounts);
+		add(m_misses, other.m_misses);
+	}
+
+	private static void add(long[] to, long[] from)
+	{
+		for(int i = 0; i < to.length; i++)
+			to[i] += from[i];
+	}
+
+	// Public property exposing the number of launches in all the regions
+	public long getLaunches()
+	{
+		return sum(m_launches);
+	}
+
+	// Public property exposing the number of hits in all the regions
+	public long getHits()
+	{
+		return sum(m_hits);
+	}
+
+	// Public property exposing the number of targets in all the regions
+	public long getTargets()
+	{
+		return sum(m_targets);
+	}
+
+	private static long sum(long[] values)
+	{
+		long sum = 0;
+
+		for(long value : values)
+			sum += value;
+
+		return sum;
+	}
+
+	/**
+	* Writes the results of every region as CSV. Regions are numbered from the top left of the
+	* target area, column first
+	*
+	* @param out - Where the CSV is written
+	*/
+	public void writeRegions(Writer out) throws IOException
+	{
+		out.write("column,row,targets,launches,hits,hit_rate,attempts_per_target,unsolved\n");
+
+		for(int row = 0; row < m_regions; row++)
+		{
+			for(int column = 0; column < m_regions; column++)
+			{
+				int region = row * m_regions + column;
+
+				out.write(column + "," + row + "," + m_targets[region] + "," + m_launches[region] + ","
+						  + m_hits[region] + "," + ratio(m_hits[region], m_launches[region]) + ","
+						  + ratio(m_attempts[region], m_targets[region]) + "," + m_unsolved[region] + "\n");
+			}
+		}
+	}
+
+	/**
+	* Writes the number of targets hit after each number of attempts as CSV. The last row counts the
+	* targets which were not hit
+	*
+	* @param out - Where the CSV is written
+	*/
+	public void writeAttempts(Writer out) throws IOException
+	{
+		out.write("attempts,targets\n");
+
+		for(int i = 0; i < m_attemptCounts.length - 1; i++)
+			out.write((i + 1) + "," + m_attemptCounts[i] + "\n");
+
+		out.write("unsolved," + m_attemptCounts[m_attemptCounts.length - 1] + "\n");
+	}
+
+	/**
+	* Writes the distribution of the miss distance as CSV. The last bucket holds every longer miss
+	*
+	* @param out - Where the CSV is written
+	*/
+	public void writeMisses(Writer out) throws IOException
+	{
+		out.write("from_px,to_px,launches\n");
+
+		for(int i = 0; i < MISS_BUCKETS; i++)
+			out.write((int) (i * MISS_BUCKET) + "," + (int) ((i + 1) * MISS_BUCKET) + "," + m_misses[i] + "\n");
+	}
+
+	private static String ratio(long a, long b)
+	{
+		return b == 0 ? "" : String.valueOf((double) a / b);
+	}
+
+	// Width of a bucket of the miss distance in pixels
+	public static final float MISS_BUCKET = 10;
+
+	// Number of buckets of the miss distance
+	public static final int MISS_BUCKETS = 100;
+
+	private final int m_regions;
+
+	// Per region, indexed by row * regions + column
+	private final long[] m_targets;
+	private final long[] m_launches;
+	private final long[] m_hits;
+	private final long[] m_attempts;
+	private final long[] m_unsolved;
+
+	// Targets hit after 1, 2, .. attempts, and the targets not hit
+	private final long[] m_attemptCounts;
+
+	// Missed launches per bucket of the miss distance
+	private final long[] m_misses = new long[MISS_BUCKETS];
+}
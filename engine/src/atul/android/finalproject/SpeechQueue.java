@@ -0,0 +1,287 @@
+package atul.android.finalproject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+* Class SpeechQueue
+*
+* Brief This class decides the order in which the prompts of the game are spoken.
+*
+* 		- Prompts with a higher priority are spoken first. Prompts of the same priority are spoken
+* 		  in the order they were added
+* 		- A prompt can have a tag (for example the target details). supersede() drops every queued
+* 		  prompt with a tag, so the player never hears the details of a target which is gone
+* 		- Low priority prompts which would be spoken by the TTS engine are merged with the low
+* 		  priority prompts behind them which have the same tag, so the engine starts once
+* 		  instead of once per prompt
+*
+* 		It also keeps the numbers which tell how responsive the speech is: the time from adding
+* 		a prompt to starting it, the deepest the queue has been and how many prompts were dropped.
+*
+*@note	This class is not thread safe
+*/
+public class SpeechQueue
+{
+	/**
+	* Interface Merger
+	*
+	* Brief Tells the queue which prompts can be merged. Prompts which are played from a recorded
+	* 		clip should not be, the merged text would not have a clip
+	*/
+	public interface Merger
+	{
+		boolean canMerge(String text);
+	}
+
+	/**
+	* Class Item
+	*
+	* Brief Represents a queued prompt. Items are reused, so keep only the values and not the item
+	*/
+	public static class Item
+	{
+		// Public property exposing the text of the prompt
+		public String getText()
+		{
+			return m_text;
+		}
+
+		// Public property exposing the priority of the prompt
+		public int getPriority()
+		{
+			return m_priority;
+		}
+
+		// Public property exposing the tag of the prompt
+		public int getTag()
+		{
+			return m_tag;
+		}
+
+		private String m_text;
+		private int m_priority;
+		private int m_tag;
+		private long m_added;
+	}
+
+	/**
+	* Adds a prompt behind the queued prompts with the same or a higher priority
+	*
+	* @param text     - Text of the prompt
+	* @param priority - One of PRIORITY_LOW, PRIORITY_NORMAL and PRIORITY_HIGH
+	* @param tag      - Tag used by supersede(). TAG_NONE if the prompt is never superseded
+	* @param now      - Current time in nanoseconds
+	*/
+	public void add(String text, int priority, int tag, long now)
+	{
+		Item item = m_free.poll();
+
+		if(item == null)
+			item = new Item();
+
+		item.m_text = text;
+		item.m_priority = priority;
+		item.m_tag = tag;
+		item.m_added = now;
+
+		// Find the first queued prompt with a lower priority, searching from the back
+		int index = m_items.size();
+
+		while(index > 0 && m_items.get(index - 1).m_priority < priority)
+			index--;
+
+		m_items.add(index, item);
+
+		m_maxDepth = Math.max(m_maxDepth, m_items.size());
+	}
+
+	/**
+	* Drops every queued prompt with a tag
+	*
+	* @param tag - Tag of the prompts
+	*
+	* @return Number of prompts dropped
+	*/
+	public int supersede(int tag)
+	{
+		if(tag == TAG_NONE)
+			return 0;
+
+		int count = 0;
+		Iterator<Item> items = m_items.iterator();
+
+		while(items.hasNext())
+		{
+			Item item = items.next();
+
+			if(item.m_tag == tag)
+			{
+				items.remove();
+				recycle(item);
+				count++;
+			}
+		}
+
+		m_superseded += count;
+
+		return count;
+	}
+
+	/**
+	* Takes the next prompt out of the queue
+	*
+	* @param now  - Current time in nanoseconds
+	* @param text - The text to speak is written here. It is longer than the text of the item if
+	* 				prompts were merged
+	*
+	* @return The first prompt, or null if the queue is empty. Valid until the next call
+	*/
+	public Item poll(long now, StringBuilder text)
+	{
+		recycle(m_polled);
+		m_polled = m_items.poll();
+
+		if(m_polled == null)
+			return null;
+
+		m_waitTimes.record(now - m_polled.m_added);
+
+		text.setLength(0);
+		text.append(m_polled.m_text);
+
+		if(m_polled.m_priority != PRIORITY_LOW || m_merger == null || ! m_merger.canMerge(m_polled.m_text))
+			return m_polled;
+
+		// Merge the low priority prompts behind it
+		while(! m_items.isEmpty())
+		{
+			Item next = m_items.peek();
+
+			if(next.m_priority != PRIORITY_LOW || next.m_tag != m_polled.m_tag || ! m_merger.canMerge(next.m_text))
+				break;
+
+			m_items.poll();
+			m_waitTimes.record(now - next.m_added);
+
+			text.append(MERGE_SEPARATOR).append(next.m_text);
+
+			recycle(next);
+			m_merged++;
+		}
+
+		return m_polled;
+	}
+
+	// Drops every queued prompt
+	public void clear()
+	{
+		m_dropped += m_items.size();
+
+		while(! m_items.isEmpty())
+			recycle(m_items.poll());
+	}
+
+	// Sets the test of prompts which can be merged. Nothing is merged without it
+	public void setMerger(Merger merger)
+	{
+		m_merger = merger;
+	}
+
+	// Public property telling whether there are no queued prompts
+	public boolean isEmpty()
+	{
+		return m_items.isEmpty();
+	}
+
+	// Public property exposing the number of queued prompts
+	public int getDepth()
+	{
+		return m_items.size();
+	}
+
+	// Public property exposing the largest number of queued prompts
+	public int getMaxDepth()
+	{
+		return m_maxDepth;
+	}
+
+	// Public property exposing the time prompts waited in the queue
+	public LatencyHistogram getWaitTimes()
+	{
+		return m_waitTimes;
+	}
+
+	// Public property exposing the number of prompts dropped by supersede()
+	public long getSuperseded()
+	{
+		return m_superseded;
+	}
+
+	// Public property exposing the number of prompts dropped by clear()
+	public long getDropped()
+	{
+		return m_dropped;
+	}
+
+	// Public property exposing the number of prompts merged into the prompt in front of them
+	public long getMerged()
+	{
+		return m_merged;
+	}
+
+	/**
+	* Writes the statistics as text
+	*
+	* @param out - Where the statistics are written
+	*/
+	public void dump(Writer out) throws IOException
+	{
+		out.write("speech wait (ms): count " + m_waitTimes.getCount()
+				  + " p50 " + m_waitTimes.getPercentile(50) / 1000f
+				  + " p90 " + m_waitTimes.getPercentile(90) / 1000f
+				  + " p99 " + m_waitTimes.getPercentile(99) / 1000f
+				  + " max " + m_waitTimes.getMax() / 1000f + "\n");
+		out.write("speech queue: depth " + m_items.size() + " max depth " + m_maxDepth
+				  + " superseded " + m_superseded + " dropped " + m_dropped
+				  + " merged " + m_merged + "\n");
+	}
+
+	private void recycle(Item item)
+	{
+		if(item == null)
+			return;
+
+		item.m_text = null;
+		m_free.add(item);
+	}
+
+	public static final int PRIORITY_LOW = 0;
+	public static final int PRIORITY_NORMAL = 1;
+	public static final int PRIORITY_HIGH = 2;
+
+	// Tag of prompts which are never superseded
+	public static final int TAG_NONE = 0;
+
+	// Put between merged prompts so the TTS engine pauses between them
+	private static final String MERGE_SEPARATOR = ". ";
+
+	// Queued prompts, highest priority first
+	private final LinkedList<Item> m_items = new LinkedList<Item>();
+
+	// Items which can be reused
+	private final LinkedList<Item> m_free = new LinkedList<Item>();
+
+	// Item returned by the last poll()
+	private Item m_polled = null;
+
+	private Merger m_merger = null;
+
+	private final LatencyHistogram m_waitTimes = new LatencyHistogram();
+	private int m_maxDepth = 0;
+	private long m_superseded = 0;
+	private long m_dropped = 0;
+	private long m_merged = 0;
+}
@@ -0,0 +1,125 @@
+package atul.android.finalproject;
+
+import java.util.Random;
+
+/**
+* Class TargetGenerator
+*
+* Brief This class picks the location of the target (pumpkin) based on the screen height and width.
+* 		By default the target is placed between a half and three quarters of the width from the
+* 		left, and between a third and seven twelfths of the height from the top. setRange() moves
+* 		that area, to try other difficulties.
+*
+*@note	Give it a seed to get the same targets again
+*/
+public class TargetGenerator
+{
+	// Default constructor. The targets are different every time
+	public TargetGenerator()
+	{
+		m_random = new Random();
+	}
+
+	/**
+	* Represents the constructor which repeats the same targets for the same seed
+	*
+	* @param seed - Seed of the random numbers
+	*/
+	public TargetGenerator(long seed)
+	{
+		m_random = new Random(seed);
+	}
+
+	/**
+	* Starts the targets of a seed again. The next targets are the same as those of a
+	* TargetGenerator created with the seed
+	*
+	* @param seed - Seed of the random numbers
+	*/
+	public void setSeed(long seed)
+	{
+		m_random.setSeed(seed);
+	}
+
+	/**
+	* Generates the target coordinates based on the screen height and width
+	*
+	* @param width  - Width of the screen
+	* @param height - Height of the screen
+	*
+	* @return False if the screen size is not known yet. Otherwise true
+	*/
+	public boolean generate(int width, int height)
+	{
+		if(height == 0 || width == 0)
+			return false;
+
+		m_x = getMinX(width) + (int) (m_random.nextDouble() * getRangeX(width));
+		m_y = getMinY(height) + (int) (m_random.nextDouble() * getRangeY(height));
+
+		return true;
+	}
+
+	/**
+	* Sets the area of the screen the targets are placed in. Every value is a fraction of the screen
+	*
+	* @param left   - Left edge as a fraction of the width
+	* @param top    - Top edge as a fraction of the height
+	* @param width  - Width as a fraction of the width
+	* @param height - Height as a fraction of the height
+	*/
+	public void setRange(float left, float top, float width, float height)
+	{
+		m_left = left;
+		m_top = top;
+		m_width = width;
+		m_height = height;
+	}
+
+	// Returns the smallest x coordinate of a target on a screen of the given width
+	public int getMinX(int width)
+	{
+		return (int) (width * m_left);
+	}
+
+	// Returns the range of the x coordinates of the targets on a screen of the given width
+	public int getRangeX(int width)
+	{
+		return (int) (width * m_width);
+	}
+
+	// Returns the smallest y coordinate of a target on a screen of the given height
+	public int getMinY(int height)
+	{
+		return (int) (height * m_top);
+	}
+
+	// Returns the range of the y coordinates of the targets on a screen of the given height
+	public int getRangeY(int height)
+	{
+		return (int) (height * m_height);
+	}
+
+	// Public property exposing the x coordinate of the last target
+	public int getX()
+	{
+		return m_x;
+	}
+
+	// Public property exposing the y coordinate of the last target
+	public int getY()
+	{
+		return m_y;
+	}
+
+	private Random m_random;
+
+	// Area of the targets as fractions of the screen
+	private float m_left = 0.5f;
+	private float m_top = 1 / 3f;
+	private float m_width = 0.25f;
+	private float m_height = 0.25f;
+
+	private int m_x = 0;
+	private int m_y = 0;
+}
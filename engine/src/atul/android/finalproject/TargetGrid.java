@@ -0,0 +1,422 @@
+package atul.android.finalproject;
+
+/**
+* Class TargetGrid
+*
+* Brief This class holds the targets of a round and finds the ones a rocket runs into without
+* 		testing all of them. The screen is divided into square cells of the same size and every
+* 		target is kept in the list of the cell which holds the top left corner of its trigger
+* 		area. A target is never bigger than the largest trigger area added so far, so a segment
+* 		can only run into the targets of the cells from (left - largest width, top - largest
+* 		height) to the bottom right corner of the segment. A rocket moves a few pixels in a
+* 		physics step, so that is a handful of cells however many targets there are.
+*
+* 		A target can move to and fro along the x axis (setMotion()). advance() moves the moving
+* 		targets by one physics step. A target is taken out of its cell list and put in another
+* 		only when its corner crosses into another cell, the grid is never built again from scratch.
+*
+* 		The targets are kept in parallel arrays, with a flag for the ones which are alive. The cell
+* 		lists are linked through the arrays too (next and previous target of the same cell), so
+* 		adding, moving and removing a target does not allocate.
+*
+*@note	Until setBounds() is called the whole grid is one cell
+*/
+public class TargetGrid
+{
+	/**
+	* Represents the constructor
+	*
+	* @param capacity - Largest number of targets
+	* @param cellSize - Width and height of a cell in pixels
+	*/
+	public TargetGrid(int capacity, float cellSize)
+	{
+		m_cellSize = cellSize;
+
+		m_x = new float[capacity];
+		m_y = new float[capacity];
+		m_prevX = new float[capacity];
+		m_left = new float[capacity];
+		m_top = new float[capacity];
+		m_right = new float[capacity];
+		m_bottom = new float[capacity];
+		m_width = new float[capacity];
+		m_height = new float[capacity];
+		m_velocity = new float[capacity];
+		m_minX = new float[capacity];
+		m_maxX = new float[capacity];
+		m_alive = new boolean[capacity];
+		m_stops = new boolean[capacity];
+
+		m_cell = new int[capacity];
+		m_next = new int[capacity];
+		m_prev = new int[capacity];
+	}
+
+	/**
+	* Sets the size of the screen. The targets are put in the cells of the new size. Targets outside
+	* the screen are kept in the cells at its edges
+	*
+	* @param width  - Width of the screen
+	* @param height - Height of the screen
+	*/
+	public void setBounds(float width, float height)
+	{
+		m_columns = Math.max(1, (int) Math.ceil(width / m_cellSize));
+		m_rows = Math.max(1, (int) Math.ceil(height / m_cellSize));
+
+		if(m_cellHead.length < m_columns * m_rows)
+			m_cellHead = new int[m_columns * m_rows];
+
+		clearCells();
+
+		for(int i = 0; i < m_count; i++)
+		{
+			if(m_alive[i])
+				link(i, cellOf(m_left[i], m_top[i]));
+		}
+	}
+
+	// Removes every target
+	public void clear()
+	{
+		m_count = 0;
+		m_moving = 0;
+		m_largestWidth = 0;
+		m_largestHeight = 0;
+
+		clearCells();
+	}
+
+	private void clearCells()
+	{
+		for(int i = 0; i < m_cellHead.length; i++)
+			m_cellHead[i] = NO_TARGET;
+	}
+
+	/**
+	* Adds a target with the trigger area the game uses around it (TriggerArea.aroundTarget())
+	*
+	* @param x      - x coordinate of the target image
+	* @param y      - y coordinate of the target image
+	* @param width  - Width of the target image
+	* @param height - Height of the target image
+	* @param stops  - True if a rocket which runs into the target stops there. Otherwise it bursts
+	* 				  the target and flies on
+	*
+	* @return Index of the target, or NO_TARGET if the grid is full
+	*/
+	public int add(float x, float y, float width, float height, boolean stops)
+	{
+		if(m_count == m_x.length)
+			return NO_TARGET;
+
+		int i = m_count++;
+
+		TriggerArea area = TriggerArea.aroundTarget(x, y, width, height);
+
+		m_x[i] = x;
+		m_y[i] = y;
+		m_prevX[i] = x;
+		m_left[i] = area.getLeft();
+		m_top[i] = area.getTop();
+		m_right[i] = area.getRight();
+		m_bottom[i] = area.getBottom();
+		m_width[i] = width;
+		m_height[i] = height;
+		m_velocity[i] = 0;
+		m_alive[i] = true;
+		m_stops[i] = stops;
+
+		m_largestWidth = Math.max(m_largestWidth, m_right[i] - m_left[i]);
+		m_largestHeight = Math.max(m_largestHeight, m_bottom[i] - m_top[i]);
+
+		link(i, cellOf(m_left[i], m_top[i]));
+
+		return i;
+	}
+
+	/**
+	* Makes a target move to and fro along the x axis
+	*
+	* @param target   - Index of the target
+	* @param velocity - Pixels moved in one physics step. Negative to start moving to the left
+	* @param minX     - Smallest x coordinate of the target image
+	* @param maxX     - Largest x coordinate of the target image
+	*/
+	public void setMotion(int target, float velocity, float minX, float maxX)
+	{
+		if(m_velocity[target] == 0 && velocity != 0)
+			m_moving++;
+		else if(m_velocity[target] != 0 && velocity == 0)
+			m_moving--;
+
+		m_velocity[target] = velocity;
+		m_minX[target] = minX;
+		m_maxX[target] = maxX;
+	}
+
+	/**
+	* Removes a target. Its index is not used again until clear()
+	*
+	* @param target - Index of the target
+	*/
+	public void remove(int target)
+	{
+		if(! m_alive[target])
+			return;
+
+		unlink(target);
+		m_alive[target] = false;
+
+		if(m_velocity[target] != 0)
+			m_moving--;
+	}
+
+	// Moves every moving target by one physics step. It turns back at the ends of its range
+	public void advance()
+	{
+		if(m_moving == 0)
+			return;
+
+		for(int i = 0; i < m_count; i++)
+		{
+			m_prevX[i] = m_x[i];
+
+			float velocity = m_velocity[i];
+
+			if(velocity == 0 || ! m_alive[i])
+				continue;
+
+			float x = m_x[i] + velocity;
+
+			if(x < m_minX[i] || x > m_maxX[i])
+			{
+				velocity = -velocity;
+				m_velocity[i] = velocity;
+				x = m_x[i] + velocity;
+			}
+
+			float dx = x - m_x[i];
+
+			m_x[i] = x;
+			m_left[i] += dx;
+			m_right[i] += dx;
+
+			// Most steps stay in the same cell
+			int cell = cellOf(m_left[i], m_top[i]);
+
+			if(cell != m_cell[i])
+			{
+				unlink(i);
+				link(i, cell);
+			}
+		}
+	}
+
+	/**
+	* Finds the first target the segment from (x0, y0) to (x1, y1) runs into. Only the targets of
+	* the cells the segment can reach are tested
+	*
+	* @return Time of impact (0 to 1) with the first target. getHit() tells which one it is.
+	* 		  TriggerArea.NO_HIT if the segment misses every target
+	*/
+	public float sweep(float x0, float y0, float x1, float y1)
+	{
+		m_hit = NO_TARGET;
+
+		if(m_count == 0)
+			return TriggerArea.NO_HIT;
+
+		float minX = Math.min(x0, x1);
+		float minY = Math.min(y0, y1);
+
+		int firstColumn = column(minX - m_largestWidth);
+		int lastColumn = column(Math.max(x0, x1));
+		int firstRow = row(minY - m_largestHeight);
+		int lastRow = row(Math.max(y0, y1));
+
+		float first = TriggerArea.NO_HIT;
+
+		for(int row = firstRow; row <= lastRow; row++)
+		{
+			for(int column = firstColumn; column <= lastColumn; column++)
+			{
+				for(int i = m_cellHead[row * m_columns + column]; i != NO_TARGET; i = m_next[i])
+				{
+					float impact = TriggerArea.sweep(m_left[i], m_top[i], m_right[i], m_bottom[i], x0, y0, x1, y1);
+
+					if(impact != TriggerArea.NO_HIT && (first == TriggerArea.NO_HIT || impact < first))
+					{
+						first = impact;
+						m_hit = i;
+					}
+				}
+			}
+		}
+
+		return first;
+	}
+
+	// Public property exposing the target found by the last sweep(), NO_TARGET if there was none
+	public int getHit()
+	{
+		return m_hit;
+	}
+
+	// Public property exposing the largest number of targets
+	public int getCapacity()
+	{
+		return m_x.length;
+	}
+
+	// Public property exposing the number of targets added since clear(), alive or not
+	public int getCount()
+	{
+		return m_count;
+	}
+
+	// Public property telling whether any target is moving
+	public boolean hasMoving()
+	{
+		return m_moving > 0;
+	}
+
+	// Returns true if a target has not been removed
+	public boolean isAlive(int target)
+	{
+		return m_alive[target];
+	}
+
+	// Returns true if a rocket which runs into a target stops there
+	public boolean stops(int target)
+	{
+		return m_stops[target];
+	}
+
+	// Returns true if a target moves
+	public boolean isMoving(int target)
+	{
+		return m_velocity[target] != 0;
+	}
+
+	// Returns the x coordinate of the image of a target
+	public float getX(int target)
+	{
+		return m_x[target];
+	}
+
+	// Returns the x coordinate of the image of a target before the last advance()
+	public float getPrevX(int target)
+	{
+		return m_prevX[target];
+	}
+
+	// Returns the y coordinate of the image of a target
+	public float getY(int target)
+	{
+		return m_y[target];
+	}
+
+	// Returns the width of the image of a target
+	public float getWidth(int target)
+	{
+		return m_width[target];
+	}
+
+	// Returns the height of the image of a target
+	public float getHeight(int target)
+	{
+		return m_height[target];
+	}
+
+	// Returns the cell holding a point, the nearest one if the point is outside the screen
+	private int cellOf(float x, float y)
+	{
+		return row(y) * m_columns + column(x);
+	}
+
+	private int column(float x)
+	{
+		return Math.max(0, Math.min(m_columns - 1, (int) Math.floor(x / m_cellSize)));
+	}
+
+	private int row(float y)
+	{
+		return Math.max(0, Math.min(m_rows - 1, (int) Math.floor(y / m_cellSize)));
+	}
+
+	// Puts a target at the head of the list of a cell
+	private void link(int target, int cell)
+	{
+		int head = m_cellHead[cell];
+
+		m_cell[target] = cell;
+		m_prev[target] = NO_TARGET;
+		m_next[target] = head;
+
+		if(head != NO_TARGET)
+			m_prev[head] = target;
+
+		m_cellHead[cell] = target;
+	}
+
+	// Takes a target out of the list of its cell
+	private void unlink(int target)
+	{
+		int prev = m_prev[target];
+		int next = m_next[target];
+
+		if(prev != NO_TARGET)
+			m_next[prev] = next;
+		else
+			m_cellHead[m_cell[target]] = next;
+
+		if(next != NO_TARGET)
+			m_prev[next] = prev;
+	}
+
+	// Returned when there is no target
+	public static final int NO_TARGET = -1;
+
+	private final float m_cellSize;
+	private int m_columns = 1;
+	private int m_rows = 1;
+
+	// First target of the list of every cell
+	private int[] m_cellHead = { NO_TARGET };
+
+	// Image and trigger area of every target
+	private final float[] m_x;
+	private final float[] m_y;
+	private final float[] m_prevX;
+	private final float[] m_left;
+	private final float[] m_top;
+	private final float[] m_right;
+	private final float[] m_bottom;
+	private final float[] m_width;
+	private final float[] m_height;
+
+	// Motion of every target. A velocity of 0 does not move
+	private final float[] m_velocity;
+	private final float[] m_minX;
+	private final float[] m_maxX;
+
+	private final boolean[] m_alive;
+	private final boolean[] m_stops;
+
+	// Cell of every target, and the next and previous target in the list of the cell
+	private final int[] m_cell;
+	private final int[] m_next;
+	private final int[] m_prev;
+
+	private int m_count = 0;
+	private int m_moving = 0;
+
+	// Largest width and height of a trigger area since clear()
+	private float m_largestWidth = 0;
+	private float m_largestHeight = 0;
+
+	// Target found by the last sweep()
+	private int m_hit = NO_TARGET;
+}
@@ -0,0 +1,264 @@
+package atul.android.finalproject;
+
+/**
+* Class ToneSynth
+*
+* Brief This class makes the sound which follows the rocket. It mixes two sine tones into a stereo
+* 		buffer
+* 		- the rocket tone. Its pitch follows the height of the rocket and it is panned with the
+* 		  x coordinate of the rocket
+* 		- the target tone. It has the pitch of the height of the target, is panned with the x
+* 		  coordinate of the target and pulses so that it is not mistaken for the rocket
+*
+* 		When the two tones have the same pitch the rocket is at the height of the target.
+*
+* 		The tones are read from a precomputed sine table. The parameters are set by one thread
+* 		(the game) and read once per buffer by another (the audio thread). Within a buffer the
+* 		gains and pitches move linearly to the new values so that a change does not click.
+*
+*@note	render() does not allocate
+*/
+public class ToneSynth
+{
+	/**
+	* Represents the constructor
+	*
+	* @param sampleRate - Sample rate of the output in Hz
+	*/
+	public ToneSynth(int sampleRate)
+	{
+		m_sampleRate = sampleRate;
+	}
+
+	/**
+	* Sets the rocket tone
+	*
+	* @param frequency - Pitch in Hz
+	* @param pan       - -1 (left) to 1 (right)
+	* @param volume    - 0 to 1. 0 fades the tone out
+	*/
+	public void setRocket(float frequency, float pan, float volume)
+	{
+		m_rocketFrequency = frequency;
+		m_rocketPan = pan;
+		m_rocketVolume = volume;
+	}
+
+	/**
+	* Sets the target tone
+	*
+	* @param frequency - Pitch in Hz
+	* @param pan       - -1 (left) to 1 (right)
+	* @param volume    - 0 to 1. 0 fades the tone out
+	*/
+	public void setTarget(float frequency, float pan, float volume)
+	{
+		m_targetFrequency = frequency;
+		m_targetPan = pan;
+		m_targetVolume = volume;
+	}
+
+	// Fades both tones out
+	public void silence()
+	{
+		m_rocketVolume = 0;
+		m_targetVolume = 0;
+	}
+
+	// Public property telling whether both tones have faded out completely
+	public boolean isSilent()
+	{
+		return m_rocket.isSilent() && m_target.isSilent();
+	}
+
+	/**
+	* Renders the next part of the sound
+	*
+	* @param buffer - Interleaved stereo samples (left, right, left, ...)
+	* @param frames - Number of stereo frames to render. The buffer must hold twice as many samples
+	*/
+	public void render(short[] buffer, int frames)
+	{
+		if(frames <= 0)
+			return;
+
+		// Read every parameter once, they may be changed while this buffer is rendered
+		m_rocket.prepare(m_rocketFrequency, m_rocketPan, m_rocketVolume, frames);
+		m_target.prepare(m_targetFrequency, m_targetPan, m_targetVolume, frames);
+
+		float pulseStep = PULSE_FREQUENCY * TABLE_SIZE / m_sampleRate;
+
+		for(int i = 0; i < frames; i++)
+		{
+			float rocket = m_rocket.next();
+
+			// 0 to 1 and back PULSE_FREQUENCY times per second
+			float pulse = 0.5f + 0.5f * lookup(m_pulsePhase);
+			m_pulsePhase = wrap(m_pulsePhase + pulseStep);
+
+			float target = m_target.next() * pulse;
+
+			float left = rocket * m_rocket.m_left + target * m_target.m_left;
+			float right = rocket * m_rocket.m_right + target * m_target.m_right;
+
+			buffer[2 * i] = (short) (left * PEAK);
+			buffer[2 * i + 1] = (short) (right * PEAK);
+		}
+	}
+
+	/**
+	* Pitch of a height, MIN_FREQUENCY at the ground and OCTAVES higher at the top of the screen
+	*
+	* @param fraction - Height as a fraction of the screen height, 0 to 1
+	*/
+	public static float pitchOf(float fraction)
+	{
+		fraction = Math.max(0, Math.min(1, fraction));
+
+		return (float) (MIN_FREQUENCY * Math.pow(2, OCTAVES * fraction));
+	}
+
+	/**
+	* Pan of an x coordinate, -1 at the left edge of the screen and 1 at the right
+	*
+	* @param fraction - x as a fraction of the screen width, 0 to 1
+	*/
+	public static float panOf(float fraction)
+	{
+		return Math.max(-1, Math.min(1, 2 * fraction - 1));
+	}
+
+	// Sine of a phase measured in table entries, with linear interpolation
+	private static float lookup(float phase)
+	{
+		int index = (int) phase;
+		float fraction = phase - index;
+
+		return SINE[index] + (SINE[index + 1] - SINE[index]) * fraction;
+	}
+
+	private static float wrap(float phase)
+	{
+		return phase >= TABLE_SIZE ? phase - TABLE_SIZE : phase;
+	}
+
+	/**
+	* Class Voice
+	*
+	* Brief One sine tone with its current pitch and gains. prepare() sets up the ramps of a buffer
+	* 		and next() returns the following sample
+	*/
+	private class Voice
+	{
+		void prepare(float frequency, float pan, float volume, int frames)
+		{
+			// Equal power pan, so the tone is as loud in the middle as on one side
+			double angle = (pan + 1) * Math.PI / 4;
+			float left = (float) (volume * Math.cos(angle));
+			float right = (float) (volume * Math.sin(angle));
+
+			float step = frequency * TABLE_SIZE / m_sampleRate;
+
+			// The first buffer starts at the right pitch instead of sliding up from 0
+			if(m_step == 0)
+				m_step = step;
+
+			m_stepDelta = (step - m_step) / frames;
+			m_leftDelta = (left - m_left) / frames;
+			m_rightDelta = (right - m_right) / frames;
+
+			m_endLeft = left;
+			m_endRight = right;
+			m_endStep = step;
+
+			m_remaining = frames;
+		}
+
+		float next()
+		{
+			float sample = lookup(m_phase);
+
+			m_step += m_stepDelta;
+			m_left += m_leftDelta;
+			m_right += m_rightDelta;
+
+			m_phase = wrap(m_phase + m_step);
+
+			if(--m_remaining == 0)
+				finish();
+
+			return sample;
+		}
+
+		// Tells whether the tone has faded out
+		boolean isSilent()
+		{
+			return m_endLeft == 0 && m_endRight == 0 && Math.abs(m_left) < SILENCE && Math.abs(m_right) < SILENCE;
+		}
+
+		// Removes the rounding errors of the ramps
+		private void finish()
+		{
+			m_left = m_endLeft;
+			m_right = m_endRight;
+			m_step = m_endStep;
+		}
+
+		private float m_phase = 0;
+		private float m_step = 0;
+		private float m_stepDelta = 0;
+
+		private float m_left = 0;
+		private float m_right = 0;
+		private float m_leftDelta = 0;
+		private float m_rightDelta = 0;
+
+		private float m_endLeft = 0;
+		private float m_endRight = 0;
+		private float m_endStep = 0;
+
+		// Samples left until the end of the ramps
+		private int m_remaining = 0;
+	}
+
+	// Lowest pitch (the ground) in Hz
+	public static final float MIN_FREQUENCY = 220;
+
+	// Range of the pitch from the ground to the top of the screen
+	public static final float OCTAVES = 2;
+
+	// Number of pulses of the target tone per second
+	private static final float PULSE_FREQUENCY = 4;
+
+	// Largest sample value. Two full tones add up to at most 2 * PEAK, which still fits in a short
+	private static final float PEAK = 0.45f * Short.MAX_VALUE;
+
+	// Gain below which a tone is not heard
+	private static final float SILENCE = 1e-4f;
+
+	private static final int TABLE_SIZE = 1024;
+
+	// One period of a sine, with a copy of the first value at the end for the interpolation
+	private static final float[] SINE = new float[TABLE_SIZE + 1];
+
+	static
+	{
+		for(int i = 0; i <= TABLE_SIZE; i++)
+			SINE[i] = (float) Math.sin(2 * Math.PI * i / TABLE_SIZE);
+	}
+
+	private final int m_sampleRate;
+
+	private final Voice m_rocket = new Voice();
+	private final Voice m_target = new Voice();
+
+	private float m_pulsePhase = 0;
+
+	// Written by the game, read once per buffer by the audio thread
+	private volatile float m_rocketFrequency = MIN_FREQUENCY;
+	private volatile float m_rocketPan = 0;
+	private volatile float m_rocketVolume = 0;
+	private volatile float m_targetFrequency = MIN_FREQUENCY;
+	private volatile float m_targetPan = 0;
+	private volatile float m_targetVolume = 0;
+}
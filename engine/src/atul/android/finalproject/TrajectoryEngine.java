@@ -0,0 +1,166 @@
+package atul.android.finalproject;
+
+/**
+* Class TrajectoryEngine
+*
+* Brief This class computes the flight path of the rocket. It does not depend on any Android class
+* 		so it can be used (and tested) on a plain JVM.
+*
+* 		The path is the projectile motion equation
+*
+* 		y = ( xtan(theta) ) - ( (x^2g) / 2v^2cos^2(theta) )
+*
+* 		Reference - http://en.wikipedia.org/wiki/Projectile_motion
+*
+* 		The angle and velocity do not change during a flight, so tan(theta) and the
+* 		g / 2v^2cos^2(theta) term are computed once in launch(). After that every position query
+* 		is a couple of multiplications and does not allocate.
+*
+*@note	x is measured in screen pixels from the launch point. Heights are scaled by the screen
+*		density (unit) and measured upwards from the ground, where as screen y grows downwards
+*/
+public class TrajectoryEngine
+{
+	/**
+	* Sets the screen the trajectory is drawn on
+	*
+	* @param groundY - Screen y coordinate of the launch point (the bottom of the screen)
+	* @param unit    - Screen density. Heights are multiplied by it so that they scale on other devices
+	*/
+	public void setScreen(float groundY, float unit)
+	{
+		m_groundY = groundY;
+		m_unit = unit;
+	}
+
+	/**
+	* Computes the launch constants of a flight. This must be called before the positions are queried
+	*
+	* @param angle    - Launch angle in degrees
+	* @param velocity - Launch velocity
+	*/
+	public void launch(int angle, int velocity)
+	{
+		m_angle = angle;
+		m_velocity = velocity;
+
+		// Calculate the angle in radian
+		double o = (Math.PI / 180) * angle;
+		double cos = Math.cos(o);
+
+		m_tan = Math.tan(o);
+
+		/*
+		* With no velocity the rocket just drops. MAX_VALUE (instead of infinity) keeps the
+		* launch point itself at height 0
+		*/
+		double denominator = 2.0 * velocity * velocity * cos * cos;
+
+		if(denominator == 0)
+			m_drop = Double.MAX_VALUE;
+		else
+			m_drop = GRAVITY / denominator;
+	}
+
+	/**
+	* Height of the rocket at the given distance from the launch point
+	*
+	* @param x - x coordinate (pixels from the launch point)
+	*
+	* @return Height reached by the rocket. It is not scaled by the density
+	*/
+	public float heightAt(float x)
+	{
+		return (float) ((x * m_tan) - (x * x * m_drop));
+	}
+
+	/**
+	* Screen y coordinate of the rocket at the given distance from the launch point
+	*
+	* @param x - x coordinate (pixels from the launch point)
+	*
+	* @return Screen y coordinate. It grows downwards from the top of the screen
+	*/
+	public float screenYAt(float x)
+	{
+		return m_groundY - (heightAt(x) * m_unit);
+	}
+
+	/**
+	* x coordinate of the rocket after it has flown for the given time
+	*
+	* @param seconds - Time since the launch
+	*
+	* @return x coordinate (pixels from the launch point)
+	*/
+	public float xAtTime(float seconds)
+	{
+		return seconds * HORIZONTAL_SPEED;
+	}
+
+	/**
+	* Screen y coordinate of the rocket after it has flown for the given time
+	*
+	* @param seconds - Time since the launch
+	*
+	* @return Screen y coordinate
+	*/
+	public float screenYAtTime(float seconds)
+	{
+		return screenYAt(xAtTime(seconds));
+	}
+
+	// Public property exposing the launch angle of the current flight
+	public int getAngle()
+	{
+		return m_angle;
+	}
+
+	// Public property exposing the launch velocity of the current flight
+	public int getVelocity()
+	{
+		return m_velocity;
+	}
+
+	// Public property exposing tan(theta) of the current flight
+	public double getTan()
+	{
+		return m_tan;
+	}
+
+	// Public property exposing the g / 2v^2cos^2(theta) term of the current flight
+	public double getDrop()
+	{
+		return m_drop;
+	}
+
+	// Public property exposing the screen y coordinate of the launch point
+	public float getGroundY()
+	{
+		return m_groundY;
+	}
+
+	// Public property exposing the screen density
+	public float getUnit()
+	{
+		return m_unit;
+	}
+
+	// Acceleration due to gravity
+	public static final double GRAVITY = 9.8;
+
+	// Speed (pixels per second) of the rocket along the x axis. 5 pixels every 50 ms
+	public static final float HORIZONTAL_SPEED = 100;
+
+	private int m_angle = 0;
+	private int m_velocity = 0;
+
+	// Represents tan(theta)
+	private double m_tan = 0;
+
+	// Represents g / 2v^2cos^2(theta)
+	private double m_drop = 0;
+
+	private float m_groundY = 0;
+	private float m_unit = 1;
+}
@@ -0,0 +1,197 @@
+package atul.android.finalproject;
+
+/**
+* Class TriggerArea
+* 
+* Brief This class represents the trigger area which governs the collision of rocket and pumpkin
+*       The trigger area is set by specifying a rectangular box around the pumpkin. If the rocket
+*       enters the trigger area, it is counted as a hit
+* 
+*/
+public class TriggerArea
+{
+	/**
+	* Default public constructor.
+	* 
+	* @param left   - Represents the upper left x coordinate of the rectangle
+	* @param top    - Represents the upper left y coordinate of the rectangle
+	* @param right  - Represents the lower right x coordinate of the rectangle
+	* @param bottom - Represents the lower right y coordinate of the rectangle
+	* 
+	*/
+	public TriggerArea(float left, float top, float right, float bottom)
+	{
+		m_left = left;
+		m_top = top;
+		m_right = right;
+		m_bottom = bottom;
+	}
+
+	/**
+	* Builds the trigger area the game uses around a target. It reaches further to the left (the side
+	* the rocket comes from) than to the right
+	* 
+	* @param x      - x coordinate of the target image
+	* @param y      - y coordinate of the target image
+	* @param width  - Width of the target image
+	* @param height - Height of the target image
+	* 
+	* @return The trigger area
+	*/
+	public static TriggerArea aroundTarget(float x, float y, float width, float height)
+	{
+		return new TriggerArea(x - width - 5, y - height, x + width / 2, y + height);
+	}
+	
+	/**
+	* This methods checks whether the specified co-ordinates lies inside the trigger area or not
+	* 
+	* @param x - X coordinate to be checked
+	* @param y - Y coordinate to be checked
+	* 
+	* @return True if the specified coordinate lies inside the trigger area. Otherwise false
+	*/
+	public boolean collider(float x, float y)
+	{
+		if(m_bottom < y || m_top > y || m_left > x  || m_right < x)
+			return false;
+		else
+			return true;
+	}
+	
+	/**
+	* This method checks whether the segment from (x0, y0) to (x1, y1) passes through the trigger 
+	* area. It is used to test the whole path moved by the rocket in one step, so a fast rocket 
+	* can not jump over the trigger area between two steps.
+	* 
+	* The segment is clipped against the two pairs of edges (slabs) of the rectangle. The segment
+	* hits the rectangle if the part of it which lies between both pairs is not empty.
+	* 
+	* @param x0 - X coordinate of the start of the segment
+	* @param y0 - Y coordinate of the start of the segment
+	* @param x1 - X coordinate of the end of the segment
+	* @param y1 - Y coordinate of the end of the segment
+	* 
+	* @return Time of impact. It is the fraction (0 to 1) of the segment travelled before entering
+	* 		  the trigger area. 0 if the segment starts inside. NO_HIT if the segment misses
+	*/
+	public float sweep(float x0, float y0, float x1, float y1)
+	{
+		return sweep(m_left, m_top, m_right, m_bottom, x0, y0, x1, y1);
+	}
+	
+	/**
+	* Same as sweep() for a trigger area given by its edges. Loops over many rockets call this
+	* directly with the edges they have read once
+	* 
+	* @param left   - Left edge of the trigger area
+	* @param top    - Top edge of the trigger area
+	* @param right  - Right edge of the trigger area
+	* @param bottom - Bottom edge of the trigger area
+	* 
+	* @return Time of impact (0 to 1), or NO_HIT if the segment misses
+	*/
+	public static float sweep(float left, float top, float right, float bottom, 
+							  float x0, float y0, float x1, float y1)
+	{
+		float enter = 0;
+		float leave = 1;
+		
+		float dx = x1 - x0;
+		
+		if(dx == 0)
+		{
+			// Moving vertically. It has to be between the left and right edges all the way
+			if(x0 < left || x0 > right)
+				return NO_HIT;
+		}
+		else
+		{
+			float t0 = (left - x0) / dx;
+			float t1 = (right - x0) / dx;
+			
+			if(t0 > t1)
+			{
+				float swap = t0;
+				t0 = t1;
+				t1 = swap;
+			}
+			
+			if(t0 > enter)
+				enter = t0;
+			
+			if(t1 < leave)
+				leave = t1;
+			
+			if(enter > leave)
+				return NO_HIT;
+		}
+		
+		float dy = y1 - y0;
+		
+		if(dy == 0)
+		{
+			// Moving horizontally. It has to be between the top and bottom edges all the way
+			if(y0 < top || y0 > bottom)
+				return NO_HIT;
+		}
+		else
+		{
+			float t0 = (top - y0) / dy;
+			float t1 = (bottom - y0) / dy;
+			
+			if(t0 > t1)
+			{
+				float swap = t0;
+				t0 = t1;
+				t1 = swap;
+			}
+			
+			if(t0 > enter)
+				enter = t0;
+			
+			if(t1 < leave)
+				leave = t1;
+			
+			if(enter > leave)
+				return NO_HIT;
+		}
+		
+		return enter;
+	}
+	
+	// Public property exposing the left edge of the trigger area
+	public float getLeft()
+	{
+		return m_left;
+	}
+	
+	// Public property exposing the top edge of the trigger area
+	public float getTop()
+	{
+		return m_top;
+	}
+	
+	// Public property exposing the right edge of the trigger area
+	public float getRight()
+	{
+		return m_right;
+	}
+	
+	// Public property exposing the bottom edge of the trigger area
+	public float getBottom()
+	{
+		return m_bottom;
+	}
+	
+	// Returned by sweep() when the segment does not pass through the trigger area
+	public static final float NO_HIT = -1;
+	
+	// Represents the upper left co-ordinate of the trigger area(rectangle)
+	private float m_left;
+	private float m_top;
+	
+	// Represents the lower right co-ordinate of the trigger area(rectangle)
+	private float m_right;
+	private float m_bottom;
+}
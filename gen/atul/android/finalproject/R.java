@@ -1,54 +1,88 @@
-/* AUTO-GENERATED FILE.  DO NOT MODIFY.
- *
- * This class was automatically generated by the
- * aapt tool from the resource data it found.  It
- * should not be modified by hand.
- */
-
-package atul.android.finalproject;
-
-public final class R {
-    public static final class attr {
-    }
-    public static final class drawable {
-        public static final int background=0x7f020000;
-        public static final int icon=0x7f020001;
-        public static final int rocket=0x7f020002;
-        public static final int target=0x7f020003;
-    }
-    public static final class id {
-        public static final int current_score=0x7f060001;
-        public static final int high_score=0x7f060002;
-        public static final int reading=0x7f060000;
-        public static final int seekbar=0x7f060003;
-    }
-    public static final class layout {
-        public static final int main=0x7f030000;
-        public static final int setup_layout=0x7f030001;
-    }
-    public static final class raw {
-        public static final int explosion_sound=0x7f040000;
-        public static final int rocket_sound=0x7f040001;
-    }
-    public static final class string {
-        public static final int app_name=0x7f050001;
-        public static final int current_score_text=0x7f050011;
-        public static final int decrease_angle_text=0x7f05000b;
-        public static final int decrease_velocity_text=0x7f05000e;
-        public static final int hello=0x7f050000;
-        public static final int increase_angle_text=0x7f05000c;
-        public static final int increase_velocity_text=0x7f05000d;
-        public static final int launch_angle_text=0x7f050005;
-        public static final int launch_rocket_text=0x7f05000a;
-        public static final int launch_velocity_text=0x7f050006;
-        public static final int maximum_score_text=0x7f050012;
-        public static final int reset_text=0x7f050010;
-        public static final int select_value_text=0x7f050009;
-        public static final int set_angle_text=0x7f050007;
-        public static final int set_velocity_text=0x7f050008;
-        public static final int target_distance_text=0x7f050003;
-        public static final int target_height_text=0x7f050004;
-        public static final int target_successfully_hit_text=0x7f05000f;
-        public static final int welcome_text=0x7f050002;
-    }
-}
+/* AUTO-GENERATED FILE.  DO NOT MODIFY.
+ *
+ * This class was automatically generated by the
+ * aapt tool from the resource data it found.  It
+ * should not be modified by hand.
+ */
+
+package atul.android.finalproject;
+
+public final class R {
+    public static final class attr {
+    }
+    public static final class drawable {
+        public static final int background=0x7f020000;
+        public static final int icon=0x7f020001;
+        public static final int rocket=0x7f020002;
+        public static final int target=0x7f020003;
+    }
+    public static final class id {
+        public static final int current_score=0x7f060001;
+        public static final int embedded_game=0x7f060006;
+        public static final int field=0x7f06000b;
+        public static final int frame_stats=0x7f060007;
+        public static final int game=0x7f060005;
+        public static final int high_score=0x7f060002;
+        public static final int instant_result=0x7f060004;
+        public static final int reading=0x7f060000;
+        public static final int salvo=0x7f06000a;
+        public static final int save_frame_stats=0x7f060008;
+        public static final int seekbar=0x7f060003;
+        public static final int statistics=0x7f060009;
+    }
+    public static final class layout {
+        public static final int main=0x7f030000;
+        public static final int setup_layout=0x7f030001;
+    }
+    public static final class menu {
+        public static final int game_menu=0x7f070000;
+    }
+    public static final class raw {
+        public static final int explosion_sound=0x7f040000;
+        public static final int rocket_sound=0x7f040001;
+    }
+    public static final class string {
+        public static final int add_angle_text=0x7f05001f;
+        public static final int add_velocity_text=0x7f05001d;
+        public static final int app_name=0x7f050001;
+        public static final int best_angle_text=0x7f050022;
+        public static final int burst_text=0x7f050029;
+        public static final int current_score_text=0x7f050011;
+        public static final int decrease_angle_text=0x7f05000b;
+        public static final int decrease_velocity_text=0x7f05000e;
+        public static final int embedded_game_off_text=0x7f050018;
+        public static final int embedded_game_on_text=0x7f050017;
+        public static final int embedded_game_text=0x7f050016;
+        public static final int field_off_text=0x7f050028;
+        public static final int field_on_text=0x7f050027;
+        public static final int field_text=0x7f050026;
+        public static final int frame_stats_failed_text=0x7f05001c;
+        public static final int frame_stats_saved_text=0x7f05001b;
+        public static final int frame_stats_text=0x7f050019;
+        public static final int hello=0x7f050000;
+        public static final int increase_angle_text=0x7f05000c;
+        public static final int increase_velocity_text=0x7f05000d;
+        public static final int instant_result_off_text=0x7f050015;
+        public static final int instant_result_on_text=0x7f050014;
+        public static final int instant_result_text=0x7f050013;
+        public static final int launch_angle_text=0x7f050005;
+        public static final int launch_rocket_text=0x7f05000a;
+        public static final int launch_velocity_text=0x7f050006;
+        public static final int maximum_score_text=0x7f050012;
+        public static final int reduce_angle_text=0x7f050020;
+        public static final int reduce_velocity_text=0x7f05001e;
+        public static final int reset_text=0x7f050010;
+        public static final int salvo_off_text=0x7f050025;
+        public static final int salvo_on_text=0x7f050024;
+        public static final int salvo_text=0x7f050023;
+        public static final int save_frame_stats_text=0x7f05001a;
+        public static final int select_value_text=0x7f050009;
+        public static final int set_angle_text=0x7f050007;
+        public static final int set_velocity_text=0x7f050008;
+        public static final int statistics_text=0x7f050021;
+        public static final int target_distance_text=0x7f050003;
+        public static final int target_height_text=0x7f050004;
+        public static final int target_successfully_hit_text=0x7f05000f;
+        public static final int welcome_text=0x7f050002;
+    }
+}
@@ -0,0 +1,245 @@
+package atul.android.finalproject;
+
+import android.content.Context;
+import android.database.ContentObserver;
+import android.media.AudioManager;
+import android.media.SoundPool;
+import android.media.ToneGenerator;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.Settings;
+
+/**
+* Class AudioEngine
+*
+* Brief This is a Singleton class. It plays the sound effects of the game. It lives as long as the
+* 		process, so the sounds are loaded once and only the application context is kept.
+*
+* 		- Several sounds can play at the same time (the blast does not cut off the rocket)
+* 		- A sound is known by the int handle returned by load(). Keep the handle and play with it
+* 		- Loading is asynchronous. A sound played before it is loaded is played as soon as it is
+* 		  loaded instead of being silent
+* 		- The volume is read once and read again only when the system volume settings change
+* 		- tick() plays a short beep from a ToneGenerator, no sound file is needed for it
+*
+*@note	play() and stop() can be called from any thread
+*/
+public class AudioEngine implements SoundPool.OnLoadCompleteListener
+{
+	/**
+	* Represents the static method which returns the object of AudioEngine class. If no object exists
+	* then it creates a new object otherwise the existing object is returned.
+	*
+	* @param context - Any context. Only the application context is kept
+	*
+	* @return AudioEngine object
+	*/
+	public static synchronized AudioEngine getInstance(Context context)
+	{
+		if(ms_instance == null)
+			ms_instance = new AudioEngine(context.getApplicationContext());
+
+		return ms_instance;
+	}
+
+	/**
+	* Represents the private constructor of the AudioEngine.
+	*
+	* @param context - Application context
+	*/
+	private AudioEngine(Context context)
+	{
+		m_context = context;
+
+		m_soundPool = new SoundPool(MAX_STREAMS, AudioManager.STREAM_MUSIC, 0);
+		m_soundPool.setOnLoadCompleteListener(this);
+
+		m_audioManager = (AudioManager) context.getSystemService(Context.AUDIO_SERVICE);
+		updateVolume();
+
+		// The volume settings are written to Settings.System when the volume keys are pressed
+		context.getContentResolver().registerContentObserver(Settings.System.CONTENT_URI, true,
+			new ContentObserver(new Handler(Looper.getMainLooper()))
+			{
+				@Override
+				public void onChange(boolean selfChange)
+				{
+					updateVolume();
+				}
+			});
+	}
+
+	/**
+	* Loads a sound. Loading the same resource again returns the same handle
+	*
+	* @param resId - Resource id of the raw sound file
+	*
+	* @return Handle of the sound, or NO_SOUND if there is no room for another sound
+	*/
+	public synchronized int load(int resId)
+	{
+		for(int handle = 0; handle < m_count; handle++)
+		{
+			if(m_resIds[handle] == resId)
+				return handle;
+		}
+
+		if(m_count == MAX_SOUNDS)
+			return NO_SOUND;
+
+		int handle = m_count++;
+
+		m_resIds[handle] = resId;
+		m_ready[handle] = false;
+		m_soundIds[handle] = m_soundPool.load(m_context, resId, 1);
+
+		return handle;
+	}
+
+	/**
+	* Plays a sound once. If it is not loaded yet it is played when the load completes
+	*
+	* @param handle - Handle returned by load()
+	*/
+	public synchronized void play(int handle)
+	{
+		if(handle < 0 || handle >= m_count)
+			return;
+
+		if(! m_ready[handle])
+		{
+			m_pending[handle] = true;
+			return;
+		}
+
+		m_streams[handle] = m_soundPool.play(m_soundIds[handle], m_volume, m_volume, 1, 0, 1);
+	}
+
+	/**
+	* Stops the last stream of a sound
+	*
+	* @param handle - Handle returned by load()
+	*/
+	public synchronized void stop(int handle)
+	{
+		if(handle < 0 || handle >= m_count)
+			return;
+
+		m_pending[handle] = false;
+
+		if(m_streams[handle] != 0)
+		{
+			m_soundPool.stop(m_streams[handle]);
+			m_streams[handle] = 0;
+		}
+	}
+
+	// Plays a short tick, for example when the value of the seek bar moves into another step
+	public synchronized void tick()
+	{
+		if(m_tick == null)
+		{
+			try
+			{
+				m_tick = new ToneGenerator(AudioManager.STREAM_MUSIC, TICK_VOLUME);
+			}
+			catch(RuntimeException e)
+			{
+				// No tone generator on this device. The tick is only a hint, so go on without it
+				return;
+			}
+		}
+
+		m_tick.startTone(ToneGenerator.TONE_PROP_BEEP, TICK_MILLIS);
+	}
+
+	// Stops all the sounds
+	public synchronized void stopAll()
+	{
+		for(int handle = 0; handle < m_count; handle++)
+			stop(handle);
+	}
+
+	// Public property telling whether all the loaded sounds are ready to play
+	public synchronized boolean isReady()
+	{
+		for(int handle = 0; handle < m_count; handle++)
+		{
+			if(! m_ready[handle])
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	* Called by the sound pool (on the main thread) when a sound has been loaded
+	*/
+	@Override
+	public synchronized void onLoadComplete(SoundPool soundPool, int sampleId, int status)
+	{
+		for(int handle = 0; handle < m_count; handle++)
+		{
+			if(m_soundIds[handle] != sampleId)
+				continue;
+
+			m_ready[handle] = status == 0;
+
+			// Play the sound which was asked for while it was loading
+			if(m_ready[handle] && m_pending[handle])
+			{
+				m_pending[handle] = false;
+				play(handle);
+			}
+
+			return;
+		}
+	}
+
+	// Reads the volume of the music stream as a fraction of its maximum
+	private void updateVolume()
+	{
+		int max = m_audioManager.getStreamMaxVolume(AudioManager.STREAM_MUSIC);
+
+		if(max > 0)
+			m_volume = (float) m_audioManager.getStreamVolume(AudioManager.STREAM_MUSIC) / max;
+	}
+
+	// Handle returned by load() when the sound could not be added
+	public static final int NO_SOUND = -1;
+
+	// Number of sounds which can play at the same time
+	private static final int MAX_STREAMS = 4;
+
+	// Number of sounds which can be loaded
+	private static final int MAX_SOUNDS = 8;
+
+	// Volume of the tick, 0 to ToneGenerator.MAX_VOLUME
+	private static final int TICK_VOLUME = 40;
+
+	// Length of the tick in milliseconds
+	private static final int TICK_MILLIS = 20;
+
+	// Represents the AudioEngine singleton instance
+	private static AudioEngine ms_instance;
+
+	private final Context m_context;
+	private final SoundPool m_soundPool;
+	private final AudioManager m_audioManager;
+
+	// Volume of every sound, 0 to 1
+	private volatile float m_volume = 1;
+
+	// Per sound values, indexed by the handle
+	private final int[] m_resIds = new int[MAX_SOUNDS];
+	private final int[] m_soundIds = new int[MAX_SOUNDS];
+	private final int[] m_streams = new int[MAX_SOUNDS];
+	private final boolean[] m_ready = new boolean[MAX_SOUNDS];
+	private final boolean[] m_pending = new boolean[MAX_SOUNDS];
+
+	// Number of loaded sounds
+	private int m_count = 0;
+
+	// Plays the tick. Created by the first tick
+	private ToneGenerator m_tick = null;
+}
@@ -0,0 +1,166 @@
+package atul.android.finalproject;
+
+import android.media.AudioFormat;
+import android.media.AudioManager;
+import android.media.AudioTrack;
+import android.os.Process;
+
+/**
+* Class FlightSonifier
+*
+* Brief This class plays the sound of the ToneSynth while the rocket is in the air, so a player who
+* 		can not see the flight can hear it. The synthesizer is rendered into a stream AudioTrack
+* 		by a thread of its own. The game only sets the parameters of the synthesizer, so it never
+* 		waits for the audio.
+*
+* 		Between flights the track is paused and the thread waits, so it does not use the CPU.
+*
+*@note	The buffer is allocated once. Call release() when the game is destroyed
+*/
+public class FlightSonifier extends Thread
+{
+	// Represents the constructor. The thread is started by the constructor
+	public FlightSonifier()
+	{
+		super("FlightSonifier");
+
+		m_sampleRate = AudioTrack.getNativeOutputSampleRate(AudioManager.STREAM_MUSIC);
+		m_synth = new ToneSynth(m_sampleRate);
+
+		m_buffer = new short[2 * BUFFER_FRAMES];
+
+		start();
+	}
+
+	/**
+	* Starts the sound of a flight
+	*
+	* @param targetHeight - Height of the target as a fraction of the screen height
+	* @param targetX      - x coordinate of the target as a fraction of the screen width
+	*/
+	public void startFlight(float targetHeight, float targetX)
+	{
+		m_synth.setTarget(ToneSynth.pitchOf(targetHeight), ToneSynth.panOf(targetX), TARGET_VOLUME);
+		m_synth.setRocket(ToneSynth.pitchOf(0), ToneSynth.panOf(0), ROCKET_VOLUME);
+
+		synchronized(m_lock)
+		{
+			m_playing = true;
+			m_lock.notifyAll();
+		}
+	}
+
+	/**
+	* Moves the rocket tone. Called by the game every frame, it only sets three values
+	*
+	* @param height - Height of the rocket as a fraction of the screen height
+	* @param x      - x coordinate of the rocket as a fraction of the screen width
+	*/
+	public void setRocket(float height, float x)
+	{
+		m_synth.setRocket(ToneSynth.pitchOf(height), ToneSynth.panOf(x), ROCKET_VOLUME);
+	}
+
+	// Fades the sound out at the end of a flight
+	public void stopFlight()
+	{
+		m_synth.silence();
+		m_playing = false;
+	}
+
+	// Stops the thread and releases the track
+	public void release()
+	{
+		synchronized(m_lock)
+		{
+			m_running = false;
+			m_lock.notifyAll();
+		}
+	}
+
+	@Override
+	public void run()
+	{
+		Process.setThreadPriority(Process.THREAD_PRIORITY_URGENT_AUDIO);
+
+		int minBytes = AudioTrack.getMinBufferSize(m_sampleRate, AudioFormat.CHANNEL_OUT_STEREO,
+												   AudioFormat.ENCODING_PCM_16BIT);
+
+		// Two of our buffers (2 bytes per sample) so one can be written while the other plays
+		int bytes = Math.max(minBytes, 2 * m_buffer.length * 2);
+
+		AudioTrack track = new AudioTrack(AudioManager.STREAM_MUSIC, m_sampleRate,
+										  AudioFormat.CHANNEL_OUT_STEREO, AudioFormat.ENCODING_PCM_16BIT,
+										  bytes, AudioTrack.MODE_STREAM);
+
+		if(track.getState() != AudioTrack.STATE_INITIALIZED)
+		{
+			track.release();
+			return;
+		}
+
+		try
+		{
+			while(waitForFlight())
+			{
+				track.play();
+
+				// Keep playing until the flight is over and the tones have faded out
+				while(m_running && (m_playing || ! m_synth.isSilent()))
+				{
+					m_synth.render(m_buffer, BUFFER_FRAMES);
+
+					// Blocks until the track has room. Only this thread waits for it
+					track.write(m_buffer, 0, m_buffer.length);
+				}
+
+				track.pause();
+				track.flush();
+			}
+		}
+		finally
+		{
+			track.release();
+		}
+	}
+
+	/**
+	* Waits until a flight starts
+	*
+	* @return False if the sonifier has been released
+	*/
+	private boolean waitForFlight()
+	{
+		synchronized(m_lock)
+		{
+			while(m_running && ! m_playing)
+			{
+				try
+				{
+					m_lock.wait();
+				}
+				catch(InterruptedException e)
+				{
+					return false;
+				}
+			}
+
+			return m_running;
+		}
+	}
+
+	// Stereo frames rendered at a time. About 10 ms at 44.1 kHz
+	private static final int BUFFER_FRAMES = 441;
+
+	private static final float ROCKET_VOLUME = 0.8f;
+	private static final float TARGET_VOLUME = 0.4f;
+
+	private final int m_sampleRate;
+	private final ToneSynth m_synth;
+	private final short[] m_buffer;
+
+	private final Object m_lock = new Object();
+
+	private volatile boolean m_running = true;
+	private volatile boolean m_playing = false;
+}
@@ -1,442 +1,1881 @@
-package atul.android.finalproject;
-
-import android.content.Context;
-import android.graphics.BitmapFactory;
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.PointF;
-import android.util.Log;
-import android.view.SurfaceHolder;
-import android.view.SurfaceView;
-
-/**
-* Class Game
-* 
-* Brief This is the class that handles the game logic. It extends SurfaceView which provides
-* 		a dedicated drawing surface. Surface is accessed via getHolder(). 
-* 		It also implements SurfaceHolder.callBack interface. By using this the surface being held is 
-* 		available only between calls to surfaceCreated and surfaceDestroyed.
-* 
-* 		Main purpose of this class is to provide a surface which can be rendered by a separate thread.
-* 		This way we can update the rendering quickly and user gets a good look and feel
-* 		
-* 		The Surface held is destroyed when the rocket hits the target or crosses the boundaries
-* 
-*@note	This class also contains a private class AnimationThread, which handles the game engine 
-* 
-*/
-public class Game extends SurfaceView implements SurfaceHolder.Callback
-{
-	/**
-	 * Represent the default constructor. This constructor is called by the StartGame activity which receives
-	 * game parameters set by the player. These parameters are passed here to set the positions of various
-	 * game objects
-	 * 
-	 * @param context - Context is required by the SurfaceView super(context)
-	 * @param angle - Launch angle
-	 * @param velocity - Launch velocity
-	 * @param targetX - X coordinate of the target location
-	 * @param targetY - Y coordinate of the target location
-	 */
-	public Game(Context context, int angle, int velocity, int targetX, int targetY)
-	{
-		super(context);
-		
-		// This initializes the sound effects
-		initializePlaylist();
-		
-		// set the value of angle
-		m_angle = angle;
-		
-		// set the value of velocity
-		m_velocity = velocity;
-		
-		// set the value of x co-ordinate
-		m_targetX = targetX;
-		
-		// set the value of y co-ordinate
-		m_targetY = targetY;
-		
-		/*
-		* This is rather an important line. This line sets the Game class as a handler for events
-		* happening on the actual surface  
-		*/
-		getHolder().addCallback(this);
-		
-		/*
-		* Create the instance of the thread (game engine) and provide the holder object to it
-		* so that it can access the canvas
-		*/
-		m_thread = new AnimationThread(getHolder(), this);		
-	}
-
-	@Override
-	public void surfaceChanged(SurfaceHolder holder, int format, int width,
-			int height) 
-	{
-		
-	}
-
-	/**
-	* This is called immediately after the surface is first created. This sets up all the rendering
-	* start up needs.
-	* 
-	* @param holder - Provides access to the surface
-	* 
-	*/
-	@Override
-	public void surfaceCreated(SurfaceHolder holder) 
-	{
-		// Set the rocket position
-		setRocket(getHeight());
-		
-		// Set the target position 
-		setTarget();
-		
-		//to be called after setTarget(). Sets the trigger area
-		setTriggerArea();
-		
-		// Make the thread run condition true
-		m_thread.setKeepWorking(true);
-		
-		// Start the thread
-		m_thread.start();
-	}
-
-	/**
-	*  
-	*  This is called immediately before a surface is being destroyed. After returning 
-	*  from this call, you should no longer try to access this surface. If you have a rendering thread 
-	*  that directly accesses the surface, you must ensure that thread is no longer touching the Surface 
-	*  before returning from this function.
-	*  
-	*  @param holder - Provides access to the surface
-	*/
-	@Override
-	public void surfaceDestroyed(SurfaceHolder holder) 
-	{
-		boolean retry = true;
-		
-		// Stops the currently playing sound
-		m_musicPlayer.stop(null);
-		
-		m_thread.setKeepWorking(false);
-		
-		// Make sure that the rendering thread 
-		while(retry)
-		{
-			try 
-			{
-				// join the thread so that m_thread join this thread. m_thread dies when this thread dies
-				m_thread.join();
-				retry = false;
-				
-			} 
-			catch (Exception e) 
-			{
-				//System.out.println("ERROR IN DESTROY");
-			}
-		}
-	}
-	
-	/**
-	* This method updates the coordinates of the rocket (x, y) of rocket in each frame. Values 
-	* depends on the projectile equation  
-	*/
-	public void update()
-	{
-			if(m_projectile == null)
-				return;
-			
-			// Get the x coordinate of the projectile
-			float x = m_projectile.getX();
-			
-			// Get the y coordinate of the projectile
-			float y = m_projectile.getY();
-			
-			/*
-			* keep track of the maximum height reached by the rocket. Calculations are
-			* reversed because rocket starts from  the bottom of the screen where as android
-			* calculates the height starting from the top of the screen
-			*/
-			if(y < m_maxHeight)
-				m_maxHeight = y;
-			
-			/*
-			* If condition - 	Check if the rocket has crossed the boundaries. If yes then set the 
-			*					result and return
-			* 
-			* Else condition -  Check if the rocket has enter the trigger area. If yes then set the
-			* 					result and return
-			* 
-			* Trigger area	 -	It is a rectangle surrounding the target. If the rocket enters the
-			* 					rectangle, it is counted as a hit	
-			*/
-			if(outOfBound(x, y))
-			{
-				// Make the projectile game object null
-				m_projectile = null;
-				
-				// Set the threads run condition to false
-				m_thread.setKeepWorking(false);
-				
-				// Set the results in the parent activity
-				((StartGameAct)getContext()).returnResult(x, y, m_maxHeight, false);
-				return;
-			} 
-			else if(m_triggerArea.collider(x, y))
-			{
-				// Make the projectile game object null
-				m_projectile = null;
-				
-				// Play the sound of blast
-				playBlastSound();
-				
-				// Set the thread run condition to false
-				m_thread.setKeepWorking(false);
-				
-				// Set the results in the parent activity
-				((StartGameAct)getContext()).returnResult(x, y, m_maxHeight, true);
-				return;
-			}
-			
-			// Calculate the angle in radian
-			double o = (Math.PI / 180) * m_angle;
-	        
-			/*
-			* Here the y coordinate is calculates based on the projectile motion equation
-			* 
-			* Reference - http://en.wikipedia.org/wiki/Projectile_motion
-			* 
-			* Equation --> y = ( xtan(theta) ) - ( (x^2g) / 2v^2cos^2(theta) )
-			* 
-			*/
-	        m_currentHeight = (float) ((x * Math.tan(o)) - 
-	        							( (x * x * 9.8) / 
-	        							(2 * m_velocity * m_velocity * Math.pow(Math.cos(o), 2))));
-	        
-	        // Increase the x co-ordinate
-	        m_projectile.setX(x + 5);
-	        
-	        /*
-	        *  Set the y coordinate. Multiplying the m_currentHeight by UNIT (density) so that the
-	        *  the m_currentHeight scales properly on other devices.
-	        *  
-	        *  note - This calculation is not working properly on tablets
-	        */
-	        m_projectile.setY((getHeight() - (m_currentHeight * UNIT)));	        
-	}
-	
-	/**
-	* Here all the drawing is done. The rocket and target (pumpkin) are draw on the canvas by this
-	* method
-	* 
-	* @param canvas - canvas on which we draw
-	*/
-	@Override
-	protected void onDraw(Canvas canvas) 
-	{
-		canvas.drawColor(Color.BLACK);
-		
-		if(m_target != null)
-			canvas.drawBitmap(m_target.getProjectile(), 
-							  m_target.getX(), 
-							  m_target.getY(), 
-							  null);
-				
-		if(m_projectile != null)
-			canvas.drawBitmap(m_projectile.getProjectile(), 
-							  m_projectile.getX(), 
-							  m_projectile.getY(), 
-							  null);
-				
-		
-	}
-	
-	// Plays the blast sound
-	private void playBlastSound() 
-	{
-		m_musicPlayer.play(BLAST);
-		
-		try {
-			 Thread.sleep(50);
-			
-		} catch (Exception e) {
-			// TODO: handle exception
-		}
-	}
-
-	/**
-	* Check if the rocket is out of screen
-	* @param x - x coordinate of rocket
-	* @param y - y coordinate of rocket
-	* 
-	* @return - True if the rocket is out of screen otherwise false
-	*/
-	private boolean outOfBound(float x, float y) 
-	{
-		if(x < 0 || x > getWidth() || y < 0 || y > getHeight())
-			return true;
-		
-		return false;
-	}
-	
-	/**
-	 * Sets a rectangular trigger area around the target. If the rocket enters that trigger area
-	 * it is counted as a hit
-	 */
-	private void setTriggerArea() 
-	{
-		// Set upper left x of rectangle
-		float ulx = m_target.getX() - m_target.getImageWidth() - 5;
-		
-		// Set upper left y of rectangle
-		float uly = m_target.getY() - (m_target.getImageHeight());
-		
-		// Set lower right x of rectangle
-		float lrx = m_target.getX() + (m_target.getImageWidth() / 2);
-		
-		// Set lower right y of rectangle
-		float lry = m_target.getY() + (m_target.getImageHeight());
-		
-		m_triggerArea = new TriggerArea(new PointF(ulx, uly), new PointF(lrx, lry));
-	}
-	
-	/**
-	 * sets the initial position of the rocket
-	 * 
-	 * @param height - height of the screen. This is the lowest point in the screen( e.g lower left corner)
-	 */
-	private void setRocket(float height)
-	{
-		// Create a new instance of Projectile class and set the image and other params
-		m_projectile = new Projectile(BitmapFactory.decodeResource(getResources(), R.drawable.rocket));
-		m_projectile.setX(0);
-		m_projectile.setY(height);
-		
-		// set initial height to the lowest point in the screen
-		m_maxHeight = height;
-	}
-	
-	/**
-	 * sets the initial position of the taget
-	 */
-	private void setTarget() 
-	{
-		// Create a new instance of Projectile class and set the image and other params
-		if(m_target == null)
-			m_target = new Projectile(BitmapFactory.decodeResource(getResources(), R.drawable.target));
-		m_target.setX(m_targetX);
-		m_target.setY(m_targetY);	
-	}
-	
-	/**
-	* Initialize the play list so that sound effects can be played
-	*  
-	*/
-	private void initializePlaylist() 
-    {
-		// Get the instance of the music player.
-		m_musicPlayer = MusicPlayer.getInstance();
-		
-		// Play the sound of rocket because immediately after this object 
-		// is created, the rockets starts moving
-		m_musicPlayer.play(ROCKET);
-	}
-	
-	private final float UNIT = getResources().getDisplayMetrics().density;
-		
-	private final String ROCKET = "rocket";
-	private final String BLAST = "blast";
-	
-	private AnimationThread m_thread = null;
-	
-	private Projectile m_projectile = null;
-	private Projectile m_target = null;
-	private MusicPlayer m_musicPlayer;
-		
-	private int m_velocity;
-	private int m_angle;
-	private int m_targetX;
-	private int m_targetY;
-	
-	private float m_currentHeight = 0;
-	private float m_maxHeight = 0;
-	
-	private TriggerArea m_triggerArea = null;	
-		
-}
-
-/**
- * Class AnimationThread
- * 
- * Brief This class acts as the engine of the game. It extends the Thread class and it is resposible
- * 		 for updating and rendering game objects
- *
- */
-class AnimationThread extends Thread
-{
-	/**
-	* Default constructor
-	* 
-	* @param surfaceHolder - The surfaceholder object to access the surface view 
-	* 						 to lock the canvas while updating it
-	* 
-	* @param game - Represents the Game class object
-	*/
-	public AnimationThread(SurfaceHolder surfaceHolder, Game game) 
-	{
-		m_surfaceHolder = surfaceHolder;
-		m_game = game;
-	}
-	
-	public void setKeepWorking(boolean work)
-	{
-		m_keepWorking = work;
-	}
-	
-
-	@Override
-	public void run() 
-	{
-		Canvas c;
-		Log.v("inside run","m_kepworking" + m_keepWorking);
-		while(m_keepWorking)
-		{
-			c = null;
-			
-			try 
-			{
-				Thread.sleep(50);
-				
-				c = m_surfaceHolder.lockCanvas(null);
-		
-				synchronized (m_surfaceHolder) 
-				{
-					// Update the position of the rocket
-					m_game.update();
-					
-					// Draw the rocket at updated position 
-					m_game.onDraw(c);
-				}
-			}
-			catch(Exception e) 
-			{
-				//System.out.println("ERROR IN RUN");
-			}
-			
-			finally
-			{
-				if(c != null)
-					m_surfaceHolder.unlockCanvasAndPost(c);
-			}		
-			
-		}
-	}
-	
-	private SurfaceHolder m_surfaceHolder;
-	
-	private Game m_game;
-	
-	private boolean m_keepWorking = false;
+package atul.android.finalproject;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+
+/**
+* Class Game
+* 
+* Brief This is the class that handles the game logic. It extends SurfaceView which provides
+* 		a dedicated drawing surface. Surface is accessed via getHolder(). 
+* 		It also implements SurfaceHolder.callBack interface. By using this the surface being held is 
+* 		available only between calls to surfaceCreated and surfaceDestroyed.
+* 
+* 		Main purpose of this class is to provide a surface which can be rendered by a separate thread.
+* 		This way we can update the rendering quickly and user gets a good look and feel
+* 		
+* 		The game stays alive between launches. It can be placed in a layout next to the setup 
+* 		controls and a launch is just a command (launch()) sent to the running engine. The result
+* 		of a flight is sent to the OnFlightFinishedListener on the UI thread. The engine thread 
+* 		sleeps while there is nothing to animate
+* 		
+* 		A launch can fire a salvo of rockets at spread angles (setSalvo()). All the rockets are moved
+* 		by a ProjectilePool, so the update and the drawing do not allocate however many there are
+* 		
+* 		A round can have a field of pumpkins around the target (setField()), some of them moving. 
+* 		They are kept in a TargetGrid, so a rocket only tests the pumpkins near it
+* 		
+* 		The rockets leave a trail of exhaust and a hit blows up in sparks. The sparks are moved by a
+* 		ParticleSystem which does not allocate either. Its budget drops when the sparks make the 
+* 		frames slow
+* 
+*@note	This class also contains a private class AnimationThread, which handles the game engine 
+* 
+*/
+public class Game extends SurfaceView implements SurfaceHolder.Callback
+{
+	/**
+	 * Represent the default constructor. This constructor is called by the StartGame activity which receives
+	 * game parameters set by the player. These parameters are passed here to set the positions of various
+	 * game objects
+	 * 
+	 * @param context - Context is required by the SurfaceView super(context)
+	 * @param angle - Launch angle
+	 * @param velocity - Launch velocity
+	 * @param targetX - X coordinate of the target location
+	 * @param targetY - Y coordinate of the target location
+	 */
+	public Game(Context context, int angle, int velocity, int targetX, int targetY)
+	{
+		this(context, angle, velocity, targetX, targetY, false);
+	}
+	
+	/**
+	 * Represents the constructor used when the result can be returned without animating the flight.
+	 * 
+	 * @param context - Context is required by the SurfaceView super(context)
+	 * @param angle - Launch angle
+	 * @param velocity - Launch velocity
+	 * @param targetX - X coordinate of the target location
+	 * @param targetY - Y coordinate of the target location
+	 * @param instantResult - If true the result is predicted as soon as the surface is created and 
+	 * 						  returned straight away. The flight is not animated
+	 */
+	public Game(Context context, int angle, int velocity, int targetX, int targetY, boolean instantResult)
+	{
+		super(context);
+		
+		initialize();
+		
+		// The rocket is launched as soon as the engine starts
+		launch(angle, velocity, targetX, targetY, instantResult);
+	}
+	
+	/**
+	 * This is called to initialize the view from the layout file. The game waits for launch() 
+	 * 
+	 * @param context - Context is required by the SurfaceView super(context)
+	 * @param attrs   - A collection of properties specified in an xml resource file.
+	 */
+	public Game(Context context, AttributeSet attrs)
+	{
+		super(context, attrs);
+		
+		initialize();
+	}
+	
+	/**
+	* Represents the interface which receives the result of a flight
+	*/
+	public interface OnFlightFinishedListener
+	{
+		/**
+		 * Called on the UI thread when the rocket hits the target or crosses the boundaries
+		 * 
+		 * @param x         - x coordinate where the flight stopped
+		 * @param y         - y coordinate where the flight stopped
+		 * @param maxHeight - max height travelled by the rocket
+		 * @param targetHit - True if the target was hit
+		 * @param burst     - Number of other pumpkins of the field burst by the rockets
+		 */
+		void onFlightFinished(float x, float y, float maxHeight, boolean targetHit, int burst);
+	}
+	
+	// Sets the listener which receives the result of each flight
+	public void setOnFlightFinishedListener(OnFlightFinishedListener listener)
+	{
+		m_listener = listener;
+	}
+	
+	/**
+	* Sends a launch command to the engine. The rocket starts in the next frame, or as soon as 
+	* the surface is created
+	* 
+	* @param angle - Launch angle
+	* @param velocity - Launch velocity
+	* @param targetX - X coordinate of the target location
+	* @param targetY - Y coordinate of the target location
+	* @param instantResult - If true the result is predicted and returned straight away. 
+	* 						 The flight is not animated
+	*/
+	public void launch(int angle, int velocity, int targetX, int targetY, boolean instantResult)
+	{
+		synchronized (m_commandLock) 
+		{
+			m_pendingAngle = angle;
+			m_pendingVelocity = velocity;
+			m_pendingTargetX = targetX;
+			m_pendingTargetY = targetY;
+			m_pendingInstant = instantResult;
+			m_pendingTarget = true;
+			m_pendingLaunch = true;
+			
+			m_flying = true;
+			
+			// Wake up the engine if it is waiting for work
+			m_commandLock.notifyAll();
+		}
+	}
+	
+	/**
+	* Sends a command to the engine to show the target at a new location
+	* 
+	* @param targetX - X coordinate of the target location
+	* @param targetY - Y coordinate of the target location
+	*/
+	public void showTarget(int targetX, int targetY)
+	{
+		synchronized (m_commandLock) 
+		{
+			m_pendingTargetX = targetX;
+			m_pendingTargetY = targetY;
+			m_pendingTarget = true;
+			
+			m_commandLock.notifyAll();
+		}
+	}
+	
+	/**
+	* Sets the seed of the target generator of the round. It is recorded with every launch, so that
+	* the round can be generated again
+	* 
+	* @param seed - Seed of the round
+	*/
+	public void setSeed(long seed)
+	{
+		m_seed = seed;
+	}
+	
+	// Public property exposing the frame time statistics of the engine
+	public FrameStats getFrameStats()
+	{
+		return m_frameStats;
+	}
+	
+	/**
+	* Shows or hides the frame time statistics on top of the game
+	* 
+	* @param show - True to show the statistics
+	*/
+	public void setShowFrameStats(boolean show)
+	{
+		m_showFrameStats = show;
+		
+		synchronized (m_commandLock) 
+		{
+			// Erase the overlay if it is hidden
+			m_fullRedrawFrames = FULL_REDRAW_FRAMES;
+			m_commandLock.notifyAll();
+		}
+	}
+	
+	/**
+	* Writes the frame time statistics to a file
+	* 
+	* @param file - The file. It is overwritten
+	*/
+	public void dumpFrameStats(File file) throws IOException
+	{
+		Writer out = new BufferedWriter(new FileWriter(file));
+		
+		try 
+		{
+			m_frameStats.dump(out, Build.MANUFACTURER + " " + Build.MODEL);
+		} 
+		finally 
+		{
+			out.close();
+		}
+	}
+	
+	// Public property telling whether a launch has been sent and its result has not been returned yet
+	public boolean isFlying()
+	{
+		return m_flying;
+	}
+	
+	/**
+	* Sets the number of rockets fired by every launch. The first one flies at the launch angle, the 
+	* others at SALVO_SPREAD degree steps on alternate sides of it. The launch is a hit if any rocket
+	* hits the target. Takes effect from the next launch
+	* 
+	* @param rockets - Rockets in a salvo, 1 for a single rocket
+	*/
+	public void setSalvo(int rockets)
+	{
+		m_salvoSize = Math.max(1, Math.min(MAX_ROCKETS, rockets));
+	}
+	
+	/**
+	* Sets the field of pumpkins shown with every target. The pumpkins of the field are placed from
+	* the seed of the round. A rocket bursts any of them it runs into and flies on, only the target
+	* stops it. Takes effect from the next target
+	* 
+	* @param pumpkins - Pumpkins in the round together with the target, 1 for the target alone
+	* @param moving   - How many pumpkins of the field move to and fro
+	*/
+	public void setField(int pumpkins, int moving)
+	{
+		m_fieldSize = Math.max(1, Math.min(MAX_TARGETS, pumpkins));
+		m_fieldMoving = moving;
+	}
+	
+	/**
+	* Sets the pumpkins of the field burst by the earlier launches of the round, so that they are
+	* not shown again. Used when every launch has its own game (StartGameAct). Takes effect from
+	* the next target
+	* 
+	* @param burst - True for every pumpkin burst, by its index in getBurstPumpkins(). Null for none
+	*/
+	public void setBurstPumpkins(boolean[] burst)
+	{
+		synchronized (m_commandLock) 
+		{
+			m_keptBurstPumpkins = burst;
+		}
+	}
+	
+	/**
+	* Returns the pumpkins of the field burst in the round. Read it once the flight is over
+	* 
+	* @return True for every pumpkin burst. Index 0 is the target
+	*/
+	public boolean[] getBurstPumpkins()
+	{
+		return m_burstPumpkins.clone();
+	}
+	
+	// Initialization shared by the constructors
+	private void initialize()
+	{
+		// Every launch is appended to the launch log in the private files of the app
+		m_recorder = new LaunchRecorder(new File(getContext().getFilesDir(), LAUNCH_LOG));
+		
+		// This initializes the sound effects
+		initializePlaylist();
+		
+		/*
+		* This is rather an important line. This line sets the Game class as a handler for events
+		* happening on the actual surface  
+		*/
+		getHolder().addCallback(this);
+	}
+
+	@Override
+	public void surfaceChanged(SurfaceHolder holder, int format, int width,
+			int height) 
+	{
+		synchronized (holder) 
+		{
+			// The rocket is launched from the bottom of the surface
+			m_trajectory.setScreen(height, UNIT);
+			m_rockets.setBounds(width, height);
+			m_grid.setBounds(width, height);
+		}
+		
+		synchronized (m_commandLock) 
+		{
+			// The content of the surface is lost. Redraw all of it
+			m_fullRedrawFrames = FULL_REDRAW_FRAMES;
+			m_commandLock.notifyAll();
+		}
+	}
+
+	/**
+	* This is called immediately after the surface is first created. This sets up all the rendering
+	* start up needs.
+	* 
+	* @param holder - Provides access to the surface
+	* 
+	*/
+	@Override
+	public void surfaceCreated(SurfaceHolder holder) 
+	{
+		// The rocket is launched from the bottom of the surface
+		m_trajectory.setScreen(getHeight(), UNIT);
+		m_rockets.setBounds(getWidth(), getHeight());
+		m_grid.setBounds(getWidth(), getHeight());
+		
+		synchronized (m_commandLock) 
+		{
+			// The new surface is empty. Draw all of it for the first frames
+			m_fullRedrawFrames = FULL_REDRAW_FRAMES;
+		}
+		
+		/*
+		* Create the instance of the thread (game engine) and provide the holder object to it
+		* so that it can access the canvas. A thread can only be started once, so there is a new
+		* one for every surface
+		*/
+		// The flight is heard as well as seen. The sonifier has its own audio thread
+		m_sonifier = new FlightSonifier();
+		
+		m_thread = new AnimationThread(getHolder(), this);
+		
+		// Make the thread run condition true
+		m_thread.setKeepWorking(true);
+		
+		// Start the thread
+		m_thread.start();
+	}
+
+	/**
+	*  
+	*  This is called immediately before a surface is being destroyed. After returning 
+	*  from this call, you should no longer try to access this surface. If you have a rendering thread 
+	*  that directly accesses the surface, you must ensure that thread is no longer touching the Surface 
+	*  before returning from this function.
+	*  
+	*  @param holder - Provides access to the surface
+	*/
+	@Override
+	public void surfaceDestroyed(SurfaceHolder holder) 
+	{
+		boolean retry = true;
+		
+		// Stops the currently playing sound
+		m_audio.stopAll();
+		
+		m_sonifier.release();
+		
+		synchronized (m_commandLock) 
+		{
+			m_thread.setKeepWorking(false);
+			
+			// Wake up the engine if it is waiting for work so that it can stop
+			m_commandLock.notifyAll();
+		}
+		
+		// Make sure that the rendering thread 
+		while(retry)
+		{
+			try 
+			{
+				// join the thread so that m_thread join this thread. m_thread dies when this thread dies
+				m_thread.join();
+				retry = false;
+				
+			} 
+			catch (Exception e) 
+			{
+				//System.out.println("ERROR IN DESTROY");
+			}
+		}
+		
+		// The engine has stopped, nothing else is written to the launch log. It is closed after
+		// the records which are still waiting to be written
+		final LaunchRecorder recorder = m_recorder;
+		
+		getLogHandler().post(new Runnable() 
+		{
+			@Override
+			public void run() 
+			{
+				recorder.close();
+			}
+		});
+	}
+	
+	/**
+	* Blocks the engine thread while there is nothing to animate or draw. It returns when a 
+	* command is sent or the engine is stopped
+	* 
+	* @return True if the thread has waited. The time spent waiting must not be simulated
+	*/
+	public boolean waitForWork() throws InterruptedException
+	{
+		boolean waited = false;
+		
+		synchronized (m_commandLock) 
+		{
+			while(m_thread.isKeepWorking() 
+					&& ! m_pendingTarget 
+					&& ! m_pendingLaunch 
+					&& m_rockets.getCount() == 0 
+					&& ! m_grid.hasMoving()
+					&& m_fullRedrawFrames == 0 
+					&& m_drawnRocket.isEmpty()
+					&& m_particles.getCount() == 0
+					&& m_drawnParticles.isEmpty()
+					&& m_targetMoved.isEmpty())
+			{
+				m_commandLock.wait();
+				waited = true;
+			}
+		}
+		
+		return waited;
+	}
+	
+	/**
+	* Applies the commands sent to the engine since the last frame. Called on the engine thread 
+	*/
+	public void applyCommands()
+	{
+		boolean launch;
+		
+		synchronized (m_commandLock) 
+		{
+			launch = m_pendingLaunch;
+			
+			if(m_pendingTarget)
+			{
+				// Every launch sends the target again. The same target keeps its field, so the 
+				// pumpkins burst so far stay burst for the rest of the round
+				boolean newTarget = m_target == null || m_pendingTargetX != m_targetX || m_pendingTargetY != m_targetY;
+				boolean newRound = newTarget || m_seed != m_fieldSeed;
+				
+				m_targetX = m_pendingTargetX;
+				m_targetY = m_pendingTargetY;
+				
+				if(newTarget)
+				{
+					// Set the target position 
+					setTarget();
+					
+					//to be called after setTarget(). Sets the trigger area
+					setTriggerArea();
+				}
+				
+				if(newRound)
+					buildField();
+			}
+			
+			if(launch)
+			{
+				m_angle = m_pendingAngle;
+				m_velocity = m_pendingVelocity;
+				m_instantResult = m_pendingInstant;
+			}
+			
+			m_pendingTarget = false;
+			m_pendingLaunch = false;
+		}
+		
+		if(launch)
+			startFlight();
+	}
+	
+	/**
+	* Starts the flight of the rocket with the launch values sent by the last launch command
+	*/
+	private void startFlight()
+	{
+		// Compute the launch constants once for the whole flight
+		m_trajectory.launch(m_angle, m_velocity);
+		
+		// Record the launch, so that it can be replayed from the launch log. Only the first rocket of
+		// a salvo is recorded, it flies with the launch values
+		m_record.begin(System.currentTimeMillis(), m_seed, getWidth(), getHeight(), UNIT);
+		m_record.setTarget(m_targetX, m_targetY, m_triggerArea);
+		m_record.setLaunch(m_angle, m_velocity, m_instantResult);
+		
+		m_burst = 0;
+		
+		// The result can be worked out without the animation
+		if(m_instantResult)
+		{
+			finishPredictedFlight();
+			return;
+		}
+		
+		// Set the rocket positions
+		setRockets();
+		
+		// Play the sound of rocket because the rocket starts moving now
+		m_audio.play(m_rocketSound);
+		
+		// Start the tones which follow the rocket and mark the target
+		float ground = m_trajectory.getGroundY();
+		m_sonifier.startFlight((ground - m_targetY) / ground, (float) m_targetX / getWidth());
+	}
+	
+	/**
+	* This method updates the coordinates of the rockets (x, y) in each frame. Values 
+	* depends on the projectile equation  
+	*/
+	public void update()
+	{
+		// The pumpkins of the field move whether a rocket is flying or not
+		m_grid.advance();
+		
+		// The sparks too
+		long particleStart = System.nanoTime();
+		m_particles.step();
+		m_particleUpdateNanos = System.nanoTime() - particleStart;
+		
+		updateRockets();
+		
+		if(m_particles.getCount() > 0)
+			m_frameStats.recordParticleUpdate(m_particleUpdateNanos);
+		
+		m_particleNanos += m_particleUpdateNanos;
+	}
+	
+	// Moves the rockets by one physics step and handles the ones which have finished
+	private void updateRockets()
+	{
+		if(m_rockets.getCount() == 0)
+			return;
+		
+		/*
+		* The pool moves every rocket by one physics step. It tests the whole segment travelled
+		* since the last step against the trigger area, not only its end point, so a fast rocket
+		* can not jump over the trigger area between two steps
+		* 
+		* Trigger area	 -	It is a rectangle surrounding the target. If a rocket enters the
+		* 					rectangle, it is counted as a hit	
+		*/
+		int done = m_rockets.step();
+		
+		int burst = m_rockets.getBurstCount();
+		
+		// One blast is heard for the step however many things blow up in it, so the explosions of 
+		// a step take one stream of the sound pool
+		boolean blast = burst > 0;
+		
+		m_burst += burst;
+		
+		for(int i = 0; i < burst; i++)
+			blowUpPumpkin(m_rockets.getBurstTarget(i));
+		
+		for(int i = 0; i < done; i++)
+		{
+			boolean hit = m_rockets.isDoneHit(i);
+			boolean lead = m_rockets.getDoneId(i) == m_leadId;
+			
+			if(lead)
+				m_record.setResult(m_rockets.getDoneX(i), m_rockets.getDoneY(i), 
+								   m_rockets.getDoneMaxHeight(i), hit);
+			
+			// The result of the salvo is the first rocket which hits, otherwise the first rocket
+			if((hit && ! m_salvoHit) || (lead && ! m_salvoHit))
+			{
+				m_endX = m_rockets.getDoneX(i);
+				m_endY = m_rockets.getDoneY(i);
+				m_endMaxHeight = m_rockets.getDoneMaxHeight(i);
+			}
+			
+			if(hit && ! m_salvoHit)
+			{
+				m_salvoHit = true;
+				blast = true;
+				
+				// Blow up the target where the rocket hit
+				emitBlast(m_rockets.getDoneX(i) + m_rocketImage.getWidth() / 2f, 
+						  m_rockets.getDoneY(i) + m_rocketImage.getHeight() / 2f);
+			}
+		}
+		
+		if(blast)
+			m_audio.play(m_blastSound);
+		
+		emitExhaust();
+		
+		if(m_rockets.getCount() == 0)
+		{
+			// Send the result to the listener
+			finishFlight(m_endX, m_endY, m_endMaxHeight, m_salvoHit);
+			return;
+		}
+		
+		int lead = m_rockets.indexOf(m_leadId);
+		
+		if(lead == ProjectilePool.NO_PROJECTILE)
+			return;
+		
+		// Move the tone of the first rocket. This only sets values read by the audio thread
+		float ground = m_trajectory.getGroundY();
+		m_sonifier.setRocket((ground - m_rockets.getPrevY(lead)) / ground, m_rockets.getPrevX(lead) / getWidth());
+		
+		m_record.addFrame(m_rockets.getX(lead), m_rockets.getY(lead));
+	}
+	
+	/**
+	* Here all the drawing is done. The rocket and target (pumpkin) are draw on the canvas by this
+	* method
+	* 
+	* @param canvas - canvas on which we draw
+	*/
+	@Override
+	protected void onDraw(Canvas canvas) 
+	{
+		render(canvas, 1);
+	}
+	
+	/**
+	* Draws the rocket and target (pumpkin) on the canvas. The rocket is drawn between its previous
+	* and current physics state so that the motion looks smooth even though the physics runs at a 
+	* fixed (and slower) rate than the screen refresh
+	* 
+	* @param canvas - canvas on which we draw
+	* @param alpha  - How far (0 to 1) the render time is between the previous and current physics state
+	*/
+	public void render(Canvas canvas, float alpha)
+	{
+		// getDirtyRect() has already placed the rockets and sparks of this frame, unless the view draws itself
+		if(! m_interpolated || m_frameAlpha != alpha)
+			interpolate(alpha);
+		
+		m_interpolated = false;
+		
+		// Only the locked (dirty) region of the canvas is cleared and drawn
+		canvas.drawColor(Color.BLACK);
+		
+		// The target and the pumpkins of the field
+		if(m_target != null)
+		{
+			Bitmap image = m_target.getProjectile();
+			
+			for(int i = 0; i < m_grid.getCount(); i++)
+			{
+				if(! m_grid.isAlive(i))
+					continue;
+				
+				float x = m_grid.getPrevX(i) + (m_grid.getX(i) - m_grid.getPrevX(i)) * alpha;
+				
+				canvas.drawBitmap(image, x, m_grid.getY(i), null);
+			}
+		}
+		
+		// Remember where the moving pumpkins are on the screen so that the next frame can erase them
+		setMovingBounds(m_drawnTargets, alpha);
+		
+		drawParticles(canvas);
+		
+		for(int i = 0; i < m_frameRockets; i++)
+			canvas.drawBitmap(m_rocketImage, m_rocketPositions[2 * i], m_rocketPositions[2 * i + 1], null);
+		
+		// Remember where the rockets are on the screen so that the next frame can erase them
+		setRocketBounds(m_drawnRocket, m_frameRockets);
+		
+		if(m_showFrameStats)
+			drawFrameStats(canvas);
+	}
+	
+	/**
+	* Uses up one of the frames which have to be drawn in full. The UI thread asks for them at any
+	* time, so the count only changes under the command lock
+	* 
+	* @return False if there are none left
+	*/
+	private boolean takeFullRedraw()
+	{
+		synchronized (m_commandLock) 
+		{
+			if(m_fullRedrawFrames == 0)
+				return false;
+			
+			m_fullRedrawFrames--;
+			return true;
+		}
+	}
+	
+	/**
+	* Works out where the rockets and the sparks are drawn between the last two physics states.
+	* Done once a frame, the time of the sparks is added to what they cost in the frame
+	* 
+	* @param alpha - How far (0 to 1) the render time is between the previous and current physics state
+	*/
+	private void interpolate(float alpha)
+	{
+		m_frameRockets = m_rockets.interpolate(alpha, m_rocketPositions);
+		
+		long start = System.nanoTime();
+		m_frameParticles = m_particles.interpolate(alpha, m_particlePoints, m_particleStarts);
+		m_particleNanos += System.nanoTime() - start;
+		
+		m_frameAlpha = alpha;
+		m_interpolated = true;
+	}
+	
+	/**
+	* Draws the sparks placed by interpolate(), one call for every bucket of the same kind and age. 
+	* The budget of the particles follows what they cost in this frame
+	* 
+	* @param canvas - canvas on which we draw
+	*/
+	private void drawParticles(Canvas canvas)
+	{
+		long start = System.nanoTime();
+		
+		int count = m_frameParticles;
+		
+		for(int b = 0; b < ParticleSystem.BUCKETS; b++)
+		{
+			int first = m_particleStarts[b];
+			int points = m_particleStarts[b + 1] - first;
+			
+			if(points > 0)
+				canvas.drawPoints(m_particlePoints, 2 * first, 2 * points, m_particlePaints[b]);
+		}
+		
+		// Remember where the sparks are on the screen so that the next frame can erase them
+		setParticleBounds(m_drawnParticles, count);
+		
+		long nanos = System.nanoTime() - start;
+		
+		if(count > 0)
+			m_frameStats.recordParticleDraw(nanos);
+		
+		m_particles.adapt(m_particleNanos + nanos, PARTICLE_FRAME_NANOS);
+		m_particleNanos = 0;
+	}
+	
+	/**
+	* Draws the frame time statistics in the top left corner. The text is built once a second, so
+	* the overlay itself does not allocate every frame
+	* 
+	* @param canvas - canvas on which we draw
+	*/
+	private void drawFrameStats(Canvas canvas)
+	{
+		long now = System.nanoTime();
+		
+		if(m_overlayText == null || now - m_overlayTime > OVERLAY_REFRESH_NANOS)
+		{
+			m_overlayBuilder.setLength(0);
+			m_frameStats.summarize(m_overlayBuilder);
+			m_overlayText = m_overlayBuilder.toString();
+			
+			m_overlayBuilder.setLength(0);
+			m_frameStats.summarizeParticles(m_overlayBuilder);
+			m_overlayBuilder.append("  budget ").append(m_particles.getBudget())
+							.append("  dropped ").append(m_particles.getDropped());
+			m_particleText = m_overlayBuilder.toString();
+			
+			m_overlayTime = now;
+		}
+		
+		canvas.drawText(m_overlayText, OVERLAY_MARGIN, OVERLAY_MARGIN + m_overlayPaint.getTextSize(), 
+						m_overlayPaint);
+		canvas.drawText(m_particleText, OVERLAY_MARGIN, OVERLAY_MARGIN + 2 * m_overlayPaint.getTextSize(), 
+						m_overlayPaint);
+	}
+	
+	/**
+	* Works out which part of the surface has to be drawn in the next frame. Only the rockets and the 
+	* moving pumpkins move, so it is the area where they were drawn last time together with the area 
+	* where they will be drawn now (and the area of the target if it has moved or been burst).
+	* 
+	* @param dirty - Set to the region which has to be drawn. Only valid for REDRAW_DIRTY
+	* @param alpha - How far (0 to 1) the render time is between the previous and current physics state
+	* 
+	* @return REDRAW_NONE if nothing has changed, REDRAW_DIRTY if only the dirty region has to be 
+	* 		  drawn or REDRAW_FULL if the whole surface has to be drawn
+	*/
+	public int getDirtyRect(Rect dirty, float alpha)
+	{
+		// render() draws what is found here
+		interpolate(alpha);
+		
+		// Both the front and back buffers of a new surface have to be filled
+		if(m_fullRedrawFrames > 0 && takeFullRedraw())
+		{
+			m_targetMoved.setEmpty();
+			return REDRAW_FULL;
+		}
+		
+		dirty.set(m_drawnRocket);
+		
+		if(m_frameRockets > 0)
+		{
+			setRocketBounds(m_rocketBounds, m_frameRockets);
+			dirty.union(m_rocketBounds);
+		}
+		
+		if(! m_targetMoved.isEmpty())
+		{
+			dirty.union(m_targetMoved);
+			m_targetMoved.setEmpty();
+		}
+		
+		// The sparks are erased where they were and drawn where they are now
+		dirty.union(m_drawnParticles);
+		
+		if(m_frameParticles > 0)
+		{
+			setParticleBounds(m_particleBounds, m_frameParticles);
+			dirty.union(m_particleBounds);
+		}
+		
+		// The moving pumpkins are erased where they were and drawn where they are now
+		dirty.union(m_drawnTargets);
+		
+		if(m_grid.hasMoving())
+		{
+			setMovingBounds(m_movingBounds, alpha);
+			dirty.union(m_movingBounds);
+		}
+		
+		// The overlay changes while something else is drawn
+		if(m_showFrameStats && ! dirty.isEmpty())
+			dirty.union(0, 0, getWidth(), (int) (2 * OVERLAY_MARGIN + 3 * m_overlayPaint.getTextSize()));
+		
+		if(dirty.isEmpty())
+			return REDRAW_NONE;
+		
+		// Locking a big region costs as much as locking the whole surface
+		if(dirty.width() * dirty.height() > getWidth() * getHeight() / 2)
+			return REDRAW_FULL;
+		
+		return REDRAW_DIRTY;
+	}
+	
+	/**
+	* Sets the bounds of the image of the game object drawn at (x, y). The bounds are rounded outwards
+	* so that no pixel of the image is left out
+	*/
+	private void setBounds(Rect bounds, Projectile object, float x, float y)
+	{
+		setBounds(bounds, x, y, object.getImageWidth(), object.getImageHeight());
+	}
+	
+	/**
+	* Sets the bounds of an image of the given size drawn at (x, y), rounded outwards
+	*/
+	private void setBounds(Rect bounds, float x, float y, float width, float height)
+	{
+		bounds.set((int) Math.floor(x), 
+				   (int) Math.floor(y), 
+				   (int) Math.ceil(x + width), 
+				   (int) Math.ceil(y + height));
+	}
+	
+	/**
+	* Sets the bounds of the sparks found by the last ParticleSystem.interpolate(), with the size of
+	* a point around them
+	* 
+	* @param bounds - Set to the area covered by the sparks
+	* @param count  - Number of sparks. The bounds are empty if it is 0
+	*/
+	private void setParticleBounds(Rect bounds, int count)
+	{
+		if(count == 0)
+		{
+			bounds.setEmpty();
+			return;
+		}
+		
+		float size = PARTICLE_SIZE * UNIT;
+		
+		bounds.set((int) Math.floor(m_particles.getLeft() - size), 
+				   (int) Math.floor(m_particles.getTop() - size), 
+				   (int) Math.ceil(m_particles.getRight() + size), 
+				   (int) Math.ceil(m_particles.getBottom() + size));
+	}
+	
+	/**
+	* Emits the sparks of an explosion
+	* 
+	* @param x - x coordinate of the centre of the explosion
+	* @param y - y coordinate of the centre of the explosion
+	*/
+	private void emitBlast(float x, float y)
+	{
+		long start = System.nanoTime();
+		
+		m_particles.emit(ParticleSystem.BLAST, x, y, 0, -BLAST_LIFT * UNIT, BLAST_SPREAD * UNIT, 
+						 BLAST_LIFE, BLAST_PARTICLES);
+		
+		m_particleUpdateNanos += System.nanoTime() - start;
+	}
+	
+	/**
+	* Emits the exhaust of every rocket in flight, behind it and against its motion. When the budget
+	* can not give EXHAUST_PARTICLES to every rocket, each gets the same share of what is left, so 
+	* the trails thin out evenly instead of some of them stopping
+	*/
+	private void emitExhaust()
+	{
+		int count = m_rockets.getCount();
+		
+		if(count == 0)
+			return;
+		
+		long start = System.nanoTime();
+		
+		float share = Math.min(EXHAUST_PARTICLES, (float) m_particles.getRemaining() / count);
+		float halfWidth = m_rocketImage.getWidth() / 2f;
+		float halfHeight = m_rocketImage.getHeight() / 2f;
+		
+		for(int i = 0; i < count; i++)
+		{
+			m_exhaustCarry += share;
+			
+			int particles = (int) m_exhaustCarry;
+			
+			if(particles == 0)
+				continue;
+			
+			m_exhaustCarry -= particles;
+			
+			float prevX = m_rockets.getPrevX(i);
+			float prevY = m_rockets.getPrevY(i);
+			
+			m_particles.emit(ParticleSystem.EXHAUST, prevX + halfWidth, prevY + halfHeight, 
+							 (prevX - m_rockets.getX(i)) * EXHAUST_BLOWBACK, 
+							 (prevY - m_rockets.getY(i)) * EXHAUST_BLOWBACK, 
+							 EXHAUST_SPREAD * UNIT, EXHAUST_LIFE, particles);
+		}
+		
+		m_particleUpdateNanos += System.nanoTime() - start;
+	}
+	
+	/**
+	* Sets the bounds of the moving pumpkins of the field, between their last two physics states
+	* 
+	* @param bounds - Set to the area covered by the moving pumpkins. Empty if there are none
+	* @param alpha  - How far (0 to 1) the render time is between the previous and current physics state
+	*/
+	private void setMovingBounds(Rect bounds, float alpha)
+	{
+		bounds.setEmpty();
+		
+		if(! m_grid.hasMoving())
+			return;
+		
+		for(int i = 0; i < m_grid.getCount(); i++)
+		{
+			if(! m_grid.isAlive(i) || ! m_grid.isMoving(i))
+				continue;
+			
+			float x = m_grid.getPrevX(i) + (m_grid.getX(i) - m_grid.getPrevX(i)) * alpha;
+			
+			setBounds(m_fieldBounds, x, m_grid.getY(i), m_grid.getWidth(i), m_grid.getHeight(i));
+			bounds.union(m_fieldBounds);
+		}
+	}
+	
+	/**
+	* Sets the bounds of the images of the first rockets at the positions worked out by 
+	* ProjectilePool.interpolate(). The bounds are rounded outwards so that no pixel is left out
+	* 
+	* @param bounds - Set to the area covered by the rockets. Empty if there are none
+	* @param count  - Number of rockets
+	*/
+	private void setRocketBounds(Rect bounds, int count)
+	{
+		if(count == 0)
+		{
+			bounds.setEmpty();
+			return;
+		}
+		
+		float left = m_rocketPositions[0];
+		float top = m_rocketPositions[1];
+		float right = left;
+		float bottom = top;
+		
+		for(int i = 1; i < count; i++)
+		{
+			float x = m_rocketPositions[2 * i];
+			float y = m_rocketPositions[2 * i + 1];
+			
+			if(x < left)
+				left = x;
+			else if(x > right)
+				right = x;
+			
+			if(y < top)
+				top = y;
+			else if(y > bottom)
+				bottom = y;
+		}
+		
+		bounds.set((int) Math.floor(left), 
+				   (int) Math.floor(top), 
+				   (int) Math.ceil(right + m_rocketImage.getWidth()), 
+				   (int) Math.ceil(bottom + m_rocketImage.getHeight()));
+	}
+	
+	/**
+	* Predicts the result of the flight in closed form and sends it to the listener. 
+	* This is used when the player does not want to watch the flight. The pumpkins of the field 
+	* on the way of every rocket are burst, as in the flight
+	*/
+	private void finishPredictedFlight()
+	{
+		boolean hit = predict(m_angle);
+		
+		m_record.setResult(m_predictor.getEndX(), m_predictor.getEndY(), m_predictor.getMaxHeight(), hit);
+		
+		float x = m_predictor.getEndX();
+		float y = m_predictor.getEndY();
+		float maxHeight = m_predictor.getMaxHeight();
+		
+		m_burst += burstField();
+		
+		for(int i = 1; i < m_salvoSize; i++)
+		{
+			boolean rocketHit = predict(getSalvoAngle(i));
+			
+			m_burst += burstField();
+			
+			// The other rockets of a salvo only change the result if one of them hits
+			if(rocketHit && ! hit)
+			{
+				hit = true;
+				x = m_predictor.getEndX();
+				y = m_predictor.getEndY();
+				maxHeight = m_predictor.getMaxHeight();
+			}
+		}
+		
+		if(hit || m_burst > 0)
+			m_audio.play(m_blastSound);
+		
+		if(hit)
+		{
+			// The sparks are shown on the target even without the flight
+			emitBlast(m_target.getX() + m_target.getImageWidth() / 2f, 
+					  m_target.getY() + m_target.getImageHeight() / 2f);
+		}
+		
+		finishFlight(x, y, maxHeight, hit);
+	}
+	
+	/**
+	* Bursts the pumpkins of the field on the path of the rocket of the last predict(). The path is
+	* walked in physics steps up to where the predictor stopped the rocket, and every step is swept
+	* against the grid as the ProjectilePool does. The pumpkins are taken where they are at the launch
+	* 
+	* @return Number of pumpkins burst
+	*/
+	private int burstField()
+	{
+		if(m_fieldSize <= 1)
+			return 0;
+		
+		int burst = 0;
+		
+		float endX = m_predictor.getEndX();
+		float x0 = 0;
+		float y0 = m_trajectory.getGroundY();
+		
+		while(x0 < endX)
+		{
+			float x1 = Math.min(x0 + FlightSimulator.X_STEP, endX);
+			float y1 = m_trajectory.screenYAt(x1);
+			
+			float impact = m_grid.sweep(x0, y0, x1, y1);
+			
+			while(impact != TriggerArea.NO_HIT && ! m_grid.stops(m_grid.getHit()))
+			{
+				int target = m_grid.getHit();
+				
+				m_grid.remove(target);
+				blowUpPumpkin(target);
+				burst++;
+				
+				// Look again for a target further along the step
+				impact = m_grid.sweep(x0, y0, x1, y1);
+			}
+			
+			// The rocket stops at the target
+			if(impact != TriggerArea.NO_HIT)
+				break;
+			
+			x0 = x1;
+			y0 = y1;
+		}
+		
+		return burst;
+	}
+	
+	/**
+	* Erases a pumpkin of the field which has been burst, and blows it up
+	* 
+	* @param target - Index of the pumpkin in the grid
+	*/
+	private void blowUpPumpkin(int target)
+	{
+		m_burstPumpkins[target] = true;
+		
+		float width = m_grid.getWidth(target);
+		float height = m_grid.getHeight(target);
+		
+		setBounds(m_targetBounds, m_grid.getX(target), m_grid.getY(target), width, height);
+		m_targetMoved.union(m_targetBounds);
+		
+		emitBlast(m_grid.getX(target) + width / 2, m_grid.getY(target) + height / 2);
+	}
+	
+	/**
+	* Predicts whether a rocket fired at the launch velocity hits the target
+	* 
+	* @param angle - Launch angle of the rocket
+	* 
+	* @return True if it hits. The predictor holds where it stopped
+	*/
+	private boolean predict(int angle)
+	{
+		m_trajectory.launch(angle, m_velocity);
+		
+		return m_predictor.predict(m_trajectory, 
+								   m_triggerArea.getLeft(), 
+								   m_triggerArea.getTop(), 
+								   m_triggerArea.getRight(), 
+								   m_triggerArea.getBottom(), 
+								   getWidth());
+	}
+	
+	/**
+	* Returns the launch angle of a rocket of the salvo. Rocket 0 flies at the launch angle and the 
+	* others one SALVO_SPREAD step further out each, on alternate sides
+	* 
+	* @param rocket - Number of the rocket in the salvo
+	*/
+	private int getSalvoAngle(int rocket)
+	{
+		int step = (rocket + 1) / 2;
+		int angle = m_angle + (rocket % 2 == 1 ? -step : step) * SALVO_SPREAD;
+		
+		return Math.max(0, Math.min(90, angle));
+	}
+	
+	/**
+	* Ends the flight and sends the result to the listener on the UI thread
+	* 
+	* @param x         - x coordinate where the flight stopped
+	* @param y         - y coordinate where the flight stopped
+	* @param maxHeight - max height travelled by the rocket
+	* @param targetHit - True if the target was hit
+	*/
+	private void finishFlight(float x, float y, float maxHeight, boolean targetHit)
+	{
+		m_sonifier.stopFlight();
+		
+		m_resultX = x;
+		m_resultY = y;
+		m_resultMaxHeight = maxHeight;
+		m_resultHit = targetHit;
+		m_resultBurst = m_burst;
+		
+		post(m_resultNotifier);
+		
+		// The result of the recorded rocket has been set already
+		saveRecord();
+	}
+	
+	/**
+	* Hands the record of the launch to the log thread and records the next launch in the other 
+	* buffer. The engine thread never touches the launch log
+	*/
+	private void saveRecord()
+	{
+		RecordWriter writer = m_recordWriters[m_recordBuffer];
+		writer.setBusy();
+		getLogHandler().post(writer);
+		
+		m_recordBuffer = 1 - m_recordBuffer;
+		
+		// The other record is still being written. Only happens if the file is very slow
+		if(m_recordWriters[m_recordBuffer].isBusy())
+			m_recordWriters[m_recordBuffer] = new RecordWriter();
+		
+		m_record = m_recordWriters[m_recordBuffer].getRecord();
+	}
+	
+	/*
+	* Appends a launch record to the launch log on the log thread. The record is not touched by the
+	* engine until it has been written
+	*/
+	private class RecordWriter implements Runnable
+	{
+		@Override
+		public void run() 
+		{
+			try 
+			{
+				m_recorder.append(m_writerRecord);
+			} 
+			catch (IOException e) 
+			{
+				// The game goes on without the record
+				Log.w(TAG, "Failed to record the launch", e);
+			}
+			
+			m_busy = false;
+		}
+		
+		// Public property exposing the record written by this writer
+		public LaunchRecord getRecord()
+		{
+			return m_writerRecord;
+		}
+		
+		// Public property telling whether the record is waiting to be written
+		public boolean isBusy()
+		{
+			return m_busy;
+		}
+		
+		public void setBusy()
+		{
+			m_busy = true;
+		}
+		
+		private final LaunchRecord m_writerRecord = new LaunchRecord();
+		private volatile boolean m_busy = false;
+	}
+	
+	// Returns the handler of the thread which writes the launch log. It is shared by every game
+	private static synchronized Handler getLogHandler()
+	{
+		if(ms_logHandler == null)
+		{
+			HandlerThread thread = new HandlerThread("LaunchLog", Process.THREAD_PRIORITY_BACKGROUND);
+			thread.start();
+			
+			ms_logHandler = new Handler(thread.getLooper());
+		}
+		
+		return ms_logHandler;
+	}
+	
+	/*
+	* Sends the result of the last flight to the listener. It is created once and posted to the UI
+	* thread at the end of every flight
+	*/
+	private final Runnable m_resultNotifier = new Runnable() 
+	{
+		@Override
+		public void run() 
+		{
+			m_flying = false;
+			
+			if(m_listener != null)
+				m_listener.onFlightFinished(m_resultX, m_resultY, m_resultMaxHeight, m_resultHit, m_resultBurst);
+		}
+	};
+	
+	
+	/**
+	 * Sets a rectangular trigger area around the target. If the rocket enters that trigger area
+	 * it is counted as a hit
+	 */
+	private void setTriggerArea() 
+	{
+		m_triggerArea = TriggerArea.aroundTarget(m_target.getX(), m_target.getY(), 
+												 m_target.getImageWidth(), m_target.getImageHeight());
+	}
+	
+	/**
+	 * Puts the target and the pumpkins of the field of the round in the grid. Called after 
+	 * setTarget() when the target or the seed of the round changes
+	 */
+	private void buildField()
+	{
+		float width = m_target.getImageWidth();
+		float height = m_target.getImageHeight();
+		
+		// The target stops the rockets. It gets the same trigger area as setTriggerArea()
+		m_grid.clear();
+		m_grid.add(m_target.getX(), m_target.getY(), width, height, true);
+		
+		m_fieldSeed = m_seed;
+		
+		// A new round starts with every pumpkin, unless the round goes on from another game
+		for(int i = 0; i < m_burstPumpkins.length; i++)
+			m_burstPumpkins[i] = m_keptBurstPumpkins != null && i < m_keptBurstPumpkins.length && m_keptBurstPumpkins[i];
+		
+		m_keptBurstPumpkins = null;
+		
+		if(m_fieldSize > 1)
+		{
+			// The field is the same every time the round is played
+			m_fieldGenerator.setSeed(m_seed + 1);
+			
+			for(int i = 1; i < m_fieldSize; i++)
+			{
+				if(! m_fieldGenerator.generate(getWidth(), getHeight()))
+					break;
+				
+				float x = m_fieldGenerator.getX();
+				int pumpkin = m_grid.add(x, m_fieldGenerator.getY(), width, height, false);
+				
+				if(i <= m_fieldMoving)
+					m_grid.setMotion(pumpkin, i % 2 == 0 ? FIELD_SPEED : -FIELD_SPEED, 
+									 Math.max(0, x - FIELD_SWING), Math.min(getWidth() - width, x + FIELD_SWING));
+				
+				if(m_burstPumpkins[pumpkin])
+					m_grid.remove(pumpkin);
+			}
+		}
+		
+		// The old field is erased
+		m_fullRedrawFrames = FULL_REDRAW_FRAMES;
+	}
+	
+	/**
+	 * sets the initial position of the rockets of the salvo at the launch point (the lower left 
+	 * corner of the screen)
+	 */
+	private void setRockets()
+	{
+		m_rocketImage = SpriteCache.getInstance(getContext()).get(R.drawable.rocket);
+		
+		// Put the rockets of the pool at the launch point. The first one is the one the player aimed
+		m_rockets.clear();
+		m_leadId = m_rockets.fire(m_angle, m_velocity);
+		
+		for(int i = 1; i < m_salvoSize; i++)
+			m_rockets.fire(getSalvoAngle(i), m_velocity);
+		
+		// The pool has left the trajectory with the values of the last rocket
+		m_trajectory.launch(m_angle, m_velocity);
+		
+		m_salvoHit = false;
+	}
+	
+	/**
+	 * sets the initial position of the taget
+	 */
+	private void setTarget() 
+	{
+		// Create a new instance of Projectile class and set the image and other params
+		if(m_target == null)
+			m_target = new Projectile(SpriteCache.getInstance(getContext()).get(R.drawable.target));
+		
+		// Erase the target from its old position and draw it at the new one
+		setBounds(m_targetMoved, m_target, m_target.getX(), m_target.getY());
+		setBounds(m_targetBounds, m_target, m_targetX, m_targetY);
+		m_targetMoved.union(m_targetBounds);
+		
+		m_target.setX(m_targetX);
+		m_target.setY(m_targetY);	
+	}
+	
+	// Creates the pool of the rockets. They fly into the pumpkins of the grid
+	private ProjectilePool createRockets()
+	{
+		ProjectilePool rockets = new ProjectilePool(MAX_ROCKETS, m_trajectory);
+		rockets.setTargets(m_grid);
+		return rockets;
+	}
+	
+	// Creates the generator of the pumpkins of the field
+	private TargetGenerator createFieldGenerator()
+	{
+		TargetGenerator generator = new TargetGenerator();
+		generator.setRange(0.25f, 0.1f, 0.7f, 0.5f);
+		return generator;
+	}
+	
+	// Creates the sparks, with gravity and drag working in the units of the screen
+	private ParticleSystem createParticles()
+	{
+		ParticleSystem particles = new ParticleSystem(MAX_PARTICLES, PARTICLE_BUDGET);
+		particles.setForces(PARTICLE_GRAVITY * UNIT, PARTICLE_DRAG);
+		return particles;
+	}
+	
+	/*
+	* Creates the paints of the buckets of the sparks. The exhaust goes from orange to grey and the 
+	* explosion from yellow to red, and both fade as they get older
+	*/
+	private Paint[] createParticlePaints()
+	{
+		int[][] colors = { { 0xFFC040, 0xE08030, 0x906040, 0x605050 },
+						   { 0xFFFFA0, 0xFFD040, 0xFF8020, 0xC03010 } };
+		
+		Paint[] paints = new Paint[ParticleSystem.BUCKETS];
+		
+		for(int kind = 0; kind < ParticleSystem.KINDS; kind++)
+		{
+			for(int level = 0; level < ParticleSystem.LEVELS; level++)
+			{
+				int alpha = 255 * (ParticleSystem.LEVELS - level) / ParticleSystem.LEVELS;
+				
+				Paint paint = new Paint();
+				paint.setColor((alpha << 24) | colors[kind][level]);
+				paint.setStrokeWidth(PARTICLE_SIZE * UNIT);
+				paints[kind * ParticleSystem.LEVELS + level] = paint;
+			}
+		}
+		
+		return paints;
+	}
+	
+	// Creates the paint used to draw the frame statistics overlay
+	private Paint createOverlayPaint()
+	{
+		Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+		paint.setColor(Color.YELLOW);
+		paint.setTextSize(12 * UNIT);
+		return paint;
+	}
+	
+	/**
+	* Initialize the play list so that sound effects can be played
+	*  
+	*/
+	private void initializePlaylist() 
+    {
+		m_audio = AudioEngine.getInstance(getContext());
+		
+		// The sounds are loaded by the application. This only looks up their handles
+		m_rocketSound = m_audio.load(R.raw.rocket_sound);
+		m_blastSound = m_audio.load(R.raw.explosion_sound);
+	}
+	
+	private final float UNIT = getResources().getDisplayMetrics().density;
+		
+	// Name of the launch log in the private files of the app
+	public static final String LAUNCH_LOG = "launches.bin";
+	
+	private static final String TAG = "Game";
+	
+	// Values returned by getDirtyRect()
+	public static final int REDRAW_NONE = 0;
+	public static final int REDRAW_DIRTY = 1;
+	public static final int REDRAW_FULL = 2;
+	
+	// The text of the frame statistics overlay is rebuilt once a second
+	private final long OVERLAY_REFRESH_NANOS = 1000000000L;
+	
+	private final float OVERLAY_MARGIN = 4;
+	
+	// Number of frames drawn in full after the surface is created (front and back buffer, plus one spare)
+	private final int FULL_REDRAW_FRAMES = 3;
+	
+	private AnimationThread m_thread = null;
+	
+	// Computes the flight path of the rocket
+	private final TrajectoryEngine m_trajectory = new TrajectoryEngine();
+	
+	// Largest number of rockets in flight at the same time
+	public static final int MAX_ROCKETS = 256;
+	
+	// Degrees between the launch angles of two neighbouring rockets of a salvo
+	public static final int SALVO_SPREAD = 3;
+	
+	// Largest number of pumpkins in a round, the target included
+	public static final int MAX_TARGETS = 256;
+	
+	// Size of a cell of the grid of the pumpkins. About a pumpkin and its trigger area
+	private final float GRID_CELL = 64;
+	
+	// Pixels a moving pumpkin moves in a physics step, and how far it moves on each side of its place
+	private final float FIELD_SPEED = 2;
+	private final float FIELD_SWING = 60;
+	
+	// The target and the pumpkins of the field
+	private final TargetGrid m_grid = new TargetGrid(MAX_TARGETS, GRID_CELL);
+	
+	// Pumpkins in a round together with the target, and how many of them move
+	private volatile int m_fieldSize = 1;
+	private volatile int m_fieldMoving = 0;
+	
+	// Places the pumpkins of the field. Only the upper part of the screen away from the launch point
+	private final TargetGenerator m_fieldGenerator = createFieldGenerator();
+	
+	// Pumpkins of the field burst by the current launch
+	private int m_burst = 0;
+	
+	// Moves the rockets one physics step at a time
+	private final ProjectilePool m_rockets = createRockets();
+	
+	// Rockets fired by every launch
+	private volatile int m_salvoSize = 1;
+	
+	// Id of the rocket fired at the launch angle. It is the one which is heard and recorded
+	private int m_leadId = ProjectilePool.NO_PROJECTILE;
+	
+	// True once a rocket of the salvo has hit the target, and the result sent to the listener
+	private boolean m_salvoHit = false;
+	private float m_endX;
+	private float m_endY;
+	private float m_endMaxHeight;
+	
+	// Where every rocket is drawn in this frame, x and y one after the other
+	private final float[] m_rocketPositions = new float[2 * MAX_ROCKETS];
+	
+	// Largest number of sparks alive, and emitted in one physics step
+	private static final int MAX_PARTICLES = 1024;
+	private static final int PARTICLE_BUDGET = 128;
+	
+	// Time the sparks may cost in a frame (2 ms) before their budget drops
+	private static final long PARTICLE_FRAME_NANOS = 2000000L;
+	
+	// Size of a spark, gravity on it and the part of its velocity kept in a physics step
+	private final float PARTICLE_SIZE = 3;
+	private final float PARTICLE_GRAVITY = 1;
+	private final float PARTICLE_DRAG = 0.85f;
+	
+	// Sparks of an explosion, their speed, how fast they rise and their life in physics steps
+	private final int BLAST_PARTICLES = 48;
+	private final float BLAST_SPREAD = 12;
+	private final float BLAST_LIFT = 4;
+	private final int BLAST_LIFE = 16;
+	
+	// Sparks of the exhaust of a rocket in a physics step, their speed against the rocket, the 
+	// speed added to it and their life in physics steps
+	private final int EXHAUST_PARTICLES = 3;
+	private final float EXHAUST_BLOWBACK = 0.3f;
+	private final float EXHAUST_SPREAD = 2;
+	private final int EXHAUST_LIFE = 8;
+	
+	// Moves the sparks of the explosions and of the exhaust
+	private final ParticleSystem m_particles = createParticles();
+	
+	// Where every spark is drawn in this frame, sorted into the buckets of the ParticleSystem
+	private final float[] m_particlePoints = new float[2 * MAX_PARTICLES];
+	private final int[] m_particleStarts = new int[ParticleSystem.BUCKETS + 1];
+	private final Paint[] m_particlePaints = createParticlePaints();
+	
+	// Rockets and sparks placed by interpolate(), and whether render() may still draw them
+	private int m_frameRockets = 0;
+	private int m_frameParticles = 0;
+	private float m_frameAlpha = 0;
+	private boolean m_interpolated = false;
+	
+	// Part of the exhaust of the last rocket which did not make a whole spark
+	private float m_exhaustCarry = 0;
+	
+	// Time spent on the sparks in the current update, and since the last frame was drawn
+	private long m_particleUpdateNanos = 0;
+	private long m_particleNanos = 0;
+	
+	private Bitmap m_rocketImage = null;
+	
+	// Launch being recorded, and the log it is appended to when the flight is over
+	private volatile LaunchRecorder m_recorder = null;
+	
+	// The record is swapped between two buffers, one is written while the other records
+	private final RecordWriter[] m_recordWriters = { new RecordWriter(), new RecordWriter() };
+	private int m_recordBuffer = 0;
+	private LaunchRecord m_record = m_recordWriters[0].getRecord();
+	
+	// Writes the launch log of every game, so the engine thread never waits for the file
+	private static Handler ms_logHandler = null;
+	
+	// Seed of the target generator of the round. It is recorded with every launch
+	private volatile long m_seed = 0;
+	
+	// Seed of the round the field in the grid was built for. Engine thread only
+	private long m_fieldSeed = 0;
+	
+	// Pumpkins of the field burst in the round, and the ones burst before this game was created
+	private final boolean[] m_burstPumpkins = new boolean[MAX_TARGETS];
+	private boolean[] m_keptBurstPumpkins = null;
+	
+	private Projectile m_target = null;
+	private AudioEngine m_audio;
+	
+	// Plays the tones of the flight. There is a new one for every surface, like m_thread
+	private FlightSonifier m_sonifier;
+	
+	// Handles of the sound effects in m_audio
+	private int m_rocketSound = AudioEngine.NO_SOUND;
+	private int m_blastSound = AudioEngine.NO_SOUND;
+		
+	// If true the result is returned without animating the flight
+	private boolean m_instantResult = false;
+	
+	// Receives the result of each flight
+	private OnFlightFinishedListener m_listener = null;
+	
+	// Frame time statistics of the engine
+	private final FrameStats m_frameStats = new FrameStats();
+	
+	// If true the frame time statistics are drawn on top of the game
+	private volatile boolean m_showFrameStats = false;
+	
+	// Represents the text of the frame statistics overlay and when it was built
+	private final StringBuilder m_overlayBuilder = new StringBuilder();
+	private String m_overlayText = null;
+	private String m_particleText = null;
+	private long m_overlayTime = 0;
+	
+	private final Paint m_overlayPaint = createOverlayPaint();
+	
+	// Works out the result of the flight when it is not animated
+	private final HitPredictor m_predictor = new HitPredictor();
+	
+	// Guards the commands sent to the engine. The engine waits on it when there is nothing to do
+	private final Object m_commandLock = new Object();
+	
+	// Commands sent to the engine which have not been applied yet
+	private boolean m_pendingTarget = false;
+	private boolean m_pendingLaunch = false;
+	private boolean m_pendingInstant = false;
+	private int m_pendingAngle;
+	private int m_pendingVelocity;
+	private int m_pendingTargetX;
+	private int m_pendingTargetY;
+	
+	// True from the launch command until the result is sent to the listener
+	private volatile boolean m_flying = false;
+	
+	// Result of the last flight
+	private float m_resultX;
+	private float m_resultY;
+	private float m_resultMaxHeight;
+	private boolean m_resultHit;
+	private int m_resultBurst;
+	
+	private int m_velocity;
+	private int m_angle;
+	private int m_targetX;
+	private int m_targetY;
+	
+	// Number of frames which still have to be drawn in full. Set by the UI thread and the engine 
+	// thread under the command lock, and read by the engine thread without it
+	private volatile int m_fullRedrawFrames = 0;
+	
+	// Area where the rockets were drawn in the last frame
+	private final Rect m_drawnRocket = new Rect();
+	
+	// Area where the rockets will be drawn in the next frame
+	private final Rect m_rocketBounds = new Rect();
+	
+	// Area covered by the old and new position of the target since the last frame
+	private final Rect m_targetMoved = new Rect();
+	private final Rect m_targetBounds = new Rect();
+	
+	// Area where the moving pumpkins were drawn in the last frame, and where they will be drawn next
+	private final Rect m_drawnTargets = new Rect();
+	private final Rect m_movingBounds = new Rect();
+	private final Rect m_fieldBounds = new Rect();
+	
+	// Area where the sparks were drawn in the last frame, and where they will be drawn next
+	private final Rect m_drawnParticles = new Rect();
+	private final Rect m_particleBounds = new Rect();
+	
+	private TriggerArea m_triggerArea = null;	
+		
+}
+
+/**
+ * Class AnimationThread
+ * 
+ * Brief This class acts as the engine of the game. It extends the Thread class and it is resposible
+ * 		 for updating and rendering game objects
+ * 
+ * 		 The physics is advanced in fixed time steps (STEP_NANOS) taken from an accumulator of the 
+ * 		 real time that has passed. This keeps the flight time the same on every device no matter how
+ * 		 fast it can draw. Frames are rendered as fast as the surface allows and the rocket is 
+ * 		 interpolated between the last two physics states
+ *
+ */
+class AnimationThread extends Thread
+{
+	/**
+	* Default constructor
+	* 
+	* @param surfaceHolder - The surfaceholder object to access the surface view 
+	* 						 to lock the canvas while updating it
+	* 
+	* @param game - Represents the Game class object
+	*/
+	public AnimationThread(SurfaceHolder surfaceHolder, Game game) 
+	{
+		m_surfaceHolder = surfaceHolder;
+		m_game = game;
+		m_stats = game.getFrameStats();
+	}
+	
+	public void setKeepWorking(boolean work)
+	{
+		m_keepWorking = work;
+	}
+	
+	public boolean isKeepWorking()
+	{
+		return m_keepWorking;
+	}
+	
+
+	@Override
+	public void run() 
+	{
+		Canvas c;
+		Log.v("inside run","m_kepworking" + m_keepWorking);
+		
+		long previousTime = System.nanoTime();
+		
+		// Real time which has passed but has not been simulated yet
+		long accumulator = 0;
+		
+		// Start of the last frame which was drawn. 0 if the engine has been idle since
+		long lastFrameStart = 0;
+		
+		while(m_keepWorking)
+		{
+			c = null;
+			
+			try 
+			{
+				// Sleep while there is nothing to animate. The idle time is not simulated
+				if(m_game.waitForWork())
+				{
+					previousTime = System.nanoTime();
+					accumulator = 0;
+					lastFrameStart = 0;
+				}
+			}
+			catch(InterruptedException e) 
+			{
+				break;
+			}
+			
+			long currentTime = System.nanoTime();
+			long frameTime = currentTime - previousTime;
+			previousTime = currentTime;
+			
+			/*
+			* Clamp long stalls (e.g. the process was paused). Otherwise we would try to catch up
+			* with a burst of updates and fall further behind
+			*/
+			if(frameTime > MAX_FRAME_NANOS)
+				frameTime = MAX_FRAME_NANOS;
+			
+			accumulator += frameTime;
+			
+			try 
+			{
+				float alpha;
+				int redraw;
+				
+				synchronized (m_surfaceHolder) 
+				{
+					// Apply the launch and target commands sent by the UI
+					m_game.applyCommands();
+					
+					// Update the position of the rocket in fixed steps
+					while(accumulator >= STEP_NANOS && m_keepWorking)
+					{
+						long start = System.nanoTime();
+						m_game.update();
+						m_stats.recordUpdate(System.nanoTime() - start);
+						
+						accumulator -= STEP_NANOS;
+					}
+					
+					alpha = (float) accumulator / STEP_NANOS;
+					
+					// Find the part of the surface which has changed
+					redraw = m_game.getDirtyRect(m_dirty, alpha);
+				}
+				
+				// Nothing has moved. Wait instead of drawing the same frame again
+				if(redraw == Game.REDRAW_NONE)
+				{
+					lastFrameStart = 0;
+					Thread.sleep(IDLE_SLEEP_MS);
+					continue;
+				}
+				
+				long lockStart = System.nanoTime();
+				
+				// Lock only the dirty region. The system may grow m_dirty, and clips the canvas to it
+				if(redraw == Game.REDRAW_FULL)
+					c = m_surfaceHolder.lockCanvas(null);
+				else
+					c = m_surfaceHolder.lockCanvas(m_dirty);
+				
+				m_stats.recordLock(System.nanoTime() - lockStart);
+				
+				// The surface is not ready. Give it some time instead of spinning
+				if(c == null)
+				{
+					lastFrameStart = 0;
+					Thread.sleep(IDLE_SLEEP_MS);
+					continue;
+				}
+				
+				// Time between two drawn frames
+				if(lastFrameStart != 0)
+					m_stats.recordFrame(lockStart - lastFrameStart);
+				
+				lastFrameStart = lockStart;
+		
+				synchronized (m_surfaceHolder) 
+				{
+					long drawStart = System.nanoTime();
+					
+					// Draw the rocket between the last two physics states
+					m_game.render(c, alpha);
+					
+					m_stats.recordDraw(System.nanoTime() - drawStart);
+				}
+			}
+			catch(Exception e) 
+			{
+				// Keep the engine running, but count the error so that it shows in the statistics
+				m_stats.countException(e);
+			}
+			
+			finally
+			{
+				if(c != null)
+				{
+					long postStart = System.nanoTime();
+					m_surfaceHolder.unlockCanvasAndPost(c);
+					m_stats.recordPost(System.nanoTime() - postStart);
+				}
+			}		
+			
+		}
+	}
+	
+	// Length of one physics step (50 ms). The game was tuned for this pace
+	static final long STEP_NANOS = 50000000L;
+	
+	// Longest frame time which will be simulated. Anything longer is treated as a stall
+	private static final long MAX_FRAME_NANOS = 5 * STEP_NANOS;
+	
+	private static final long IDLE_SLEEP_MS = 5;
+	
+	private SurfaceHolder m_surfaceHolder;
+	
+	private Game m_game;
+	
+	// Region of the surface drawn in the current frame. Reused every frame
+	private final Rect m_dirty = new Rect();
+	
+	// Frame time statistics of the game
+	private FrameStats m_stats;
+	
+	private volatile boolean m_keepWorking = false;
 }
\ No newline at end of file
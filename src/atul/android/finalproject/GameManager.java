@@ -1,658 +1,1548 @@
-package atul.android.finalproject;
-
-import android.app.Activity;
-import android.content.Context;
-import android.content.Intent;
-import android.content.SharedPreferences;
-import android.hardware.Sensor;
-import android.hardware.SensorEvent;
-import android.hardware.SensorEventListener;
-import android.hardware.SensorManager;
-import android.os.Bundle;
-import android.preference.PreferenceManager;
-import android.speech.tts.TextToSpeech;
-//import android.util.Log;
-import android.view.Display;
-import android.view.GestureDetector;
-import android.view.MotionEvent;
-import android.view.View;
-import android.view.GestureDetector.OnDoubleTapListener;
-import android.view.View.OnClickListener;
-import android.widget.SeekBar;
-import android.widget.TextView;
-//import android.widget.Toast;
-import android.widget.SeekBar.OnSeekBarChangeListener;
-
-
-/**
-* Class GameManager 
-* 
-* Brief This is the main activity of the application. This activity interacts with the player
-* 		 by giving details(in audio) about the target. 
-* 
-*       Player can set the velocity or launch angle by scrolling up and down the screen.
-*       To set the value double tap event is used. Once a value is setted by the double tap,
-*       Activity communicates it to the player (using audio).
-* 		
-*       Player can reset the values by shaking the phone.
-*       
-*       Once the velocity and launch angle are setted, the rocket is launched by double tapping the
-*       screen. Results are communicated back to the player.* 		  	 
-* 
-*
-*/
-public class GameManager extends Activity implements TextToSpeech.OnInitListener, 
-														OnSeekBarChangeListener
-{
-    /** Called when the activity is first created. */
-    @Override
-    public void onCreate(Bundle savedInstanceState) 
-    {
-        super.onCreate(savedInstanceState);
-        
-        // set the content layout
-        setContentView(R.layout.setup_layout);
-        
-        // should be called before generateTargetXY()
-        getScreenHeightWidth();
-        
-        // Initialize the music player with all the sounds so that they can be played quickly
-        setBackgroundMusic();
-        
-        // Generate the target location
-		if(! generateTargetXY())
-			return;
-        
-		
-		// check for tts availability. If its unavailable then install it
-        checkTts();
-		
-        // Get the tts object
-        m_droid = new TextToSpeech(this, this);
-        
-        // Get the seekbar widget object
-        m_seekbar = (SeekBar)findViewById(R.id.seekbar);
-        
-        // Get the text view which displays value of the seekbar
-        m_reading = (TextView)findViewById(R.id.reading);
-        
-        // Get the current high score of the game
-        m_currentScoreTv = (TextView)findViewById(R.id.current_score);
-        
-        // Get the shared prefs
-        m_sharedPref = PreferenceManager.getDefaultSharedPreferences(this);
-                
-        m_highScoreTv = (TextView)findViewById(R.id.high_score);
-        
-        m_highScoreTv.setText(getString(R.string.maximum_score_text) + 
-				String.valueOf(m_sharedPref.getInt(HIGH_SCORE, 0)));
-        
-        // Shows the scores in the screen
-        loadScores();
-        
-        // Initializes all the listeners used by this activity. onSeekBarChange, GestureDetector, onTouch
-        // doubleTap
-        initializeListeners();
-    }
-	
-    /**
-    * Notifies if the progress leval is changed
-    * 
-    * @param seekBar  - The SeekBar whose progress has changed
-    * @param progress - The current progress level
-    * @param fromUser - True if the progress change was initiated by a user 
-    */
-	@Override
-	public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) 
-	{
-		m_prevProgress = m_progress;
-		
-		m_progress = progress;
-		
-		// count == 0 represent that value of angle will be set
-		// count == 1 represent that value of velocity will be set
-		if(m_count == 0)
-			m_reading.setText("Angle = " + String.valueOf(m_progress));
-		else if(m_count == 1)
-			m_reading.setText("Velocity = " + String.valueOf(m_progress));
-	}
-
-	@Override
-	public void onStartTrackingTouch(SeekBar seekBar)
-	{
-		//stopReadingText();
-	}
-
-	@Override
-	public void onStopTrackingTouch(SeekBar seekBar) 
-	{
-		//speakText(getString(R.string.select_value_text));
-	}
-    
-	/**
-	* Called to signal the completion of the TextToSpeech engine initialization.
-	* 
-	* @param status 0 represents SUCCESS, -1 represents ERROR
-	*/
-    @Override
-	public void onInit(int status)
-	{
-		if(status == TextToSpeech.SUCCESS)
-		{
-			// If tts is successfully initialized, set the params as required
-			m_droid.setSpeechRate(.8f);
-			
-			// Welcome the user
-			speakText(getString(R.string.welcome_text));
-			
-			// Speak the target details
-			speakTargetDetails();
-			
-			// Speak the instrucitons
-			speakInstructions();			
-		}
-	}
-    
-    // Represent the key for high score in shared pref
-    public static final String HIGH_SCORE = "high_score";
-    
-    
-	@Override
-	protected void onResume() 
-	{
-		super.onResume();
-		
-		// Register the sensor listener
-		m_sensorManager.registerListener(m_sensorListener, 
-				 m_sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER), 
-				 SensorManager.SENSOR_DELAY_NORMAL);
-		
-		// load the scores
-		loadScores();
-	}
-    
-	@Override
-	protected void onPause() 
-	{
-		// TODO Auto-generated method stub
-		super.onPause();
-		
-		// Pause the tts engine
-		if(m_droid != null)
-			m_droid.stop();
-		
-		// Save the high score
-		saveHighScore();
-	}
-	
-	@Override
-	protected void onDestroy() 
-	{
-		// TODO Auto-generated method stub
-		super.onDestroy();
-		
-		// Stop the tts engine when the activity is destroyed
-		if(m_droid != null)
-			m_droid.shutdown();
-		
-		// Release all the resources used by music player
-		MusicPlayer.getInstance(this).closeMusicPlayer();
-	}
-	
-	@Override
-	protected void onStop() 
-	{
-		// Unregister the sensor listener used for detecting shake event
-		m_sensorManager.unregisterListener(m_sensorListener);
-		
-		super.onStop();
-		
-		// save the high score
-		saveHighScore();
-	}
-	
-	/**
-	* This method is called when a launched activity exist. This is called before onResume().
-	* 
-	* The activity must have been launced as startActivityForResult
-	*/
-	@Override
-	protected void onActivityResult(int requestCode, int resultCode, Intent data) 
-	{
-		super.onActivityResult(requestCode, resultCode, data);
-		
-		m_count = 0;
-		
-		if(data == null)
-		{
-			//Log.v("onActivityResult", "data is null");
-			return;
-		}
-		
-		switch (requestCode) 
-		{
-			// Represent the return of StartGame activity
-			case LAUNCH_ROCKET:
-				// check if the target is hit. If yes then update the data otherwise analyze the result
-				if(data.getBooleanExtra("targetHit", false))
-				{
-					// increase the current score
-					++m_currentScore;
-					
-					// Speak target hit text
-					speakText(getString(R.string.target_successfully_hit_text));
-					
-					// update the scores
-					updateScores();
-					
-					// Generate new target locations
-					generateTargetXY();
-					
-					// Speak the target details
-					speakTargetDetails();
-					
-					// Speak instructions
-					speakInstructions();
-				}
-				else
-					analyzeAndGiveFeedback(data.getFloatExtra("distanceX", 0), 
-										   data.getFloatExtra("distanceY", 0),
-										   data.getFloatExtra("maxHeight", 0));
-						
-				break;
-			
-			// Represents the return of TTS availability check activity 
-			case TTS_CHECK:				
-				if(resultCode == TextToSpeech.Engine.CHECK_VOICE_DATA_PASS)
-				{
-					// tts is already installed
-					//Log.v("GameManager", "TTS engine found");
-				}
-				else
-				{
-					// No tts found. Install tts
-					//Log.v("GameManager", "No TTS engine. Installing");
-					
-					// Install the TTS if not found
-					Intent installTts = new Intent();
-					installTts.setAction(TextToSpeech.Engine.ACTION_INSTALL_TTS_DATA);
-					startActivity(installTts);
-				}
-				
-				break;
-
-			default:
-				break;
-		}	
-		
-	}
-	
-	// Loads the current score
-	private void loadScores()
-	{
-		m_currentScoreTv.setText(getString(R.string.current_score_text) +
-				String.valueOf(m_currentScore));
-				
-	}
-	
-	// Saves the high score in the shared prefs
-	private void saveHighScore() 
-	{
-		SharedPreferences.Editor editor = m_sharedPref.edit();
-		editor.putInt(HIGH_SCORE, m_highScore);
-		editor.commit();
-	}
-	
-	// Updates the current and high scores
-	private void updateScores()
-	{
-		if(m_currentScore > m_highScore)
-		{
-			m_highScore = m_currentScore;
-			speakText("And You made a new high score of " + String.valueOf(m_highScore));
-		}
-		
-		m_highScoreTv.setText(getString(R.string.maximum_score_text) + m_highScore);
-		m_currentScoreTv.setText(getString(R.string.current_score_text) + m_currentScore);
-		
-	}
-
-	// Initializes all the listeners used by this activity
-	private void initializeListeners() 
-	{
-		// set the listener to get the updated values from the seek bar
-        m_seekbar.setOnSeekBarChangeListener(this);
-        
-        // get the gesture detector object
-        m_gestureDetector = new DetectGesture().getGestureDetector();
-        
-        // create a new touch listener which we will attach to the seek bar
-        m_gestureListener = new View.OnTouchListener() 
-        {
-			
-			@Override
-			public boolean onTouch(View v, MotionEvent event) {
-				// TODO Auto-generated method stub
-				
-				return m_gestureDetector.onTouchEvent(event);
-			}
-		};
-		
-		// set a double tap listener to record double tap event by the user
-		m_gestureDetector.setOnDoubleTapListener(new OnDoubleTapListener() 
-        {
-			
-			@Override
-			public boolean onSingleTapConfirmed(MotionEvent e) 
-			{
-				return false;
-			}
-			
-			@Override
-			public boolean onDoubleTapEvent(MotionEvent e) {
-				// TODO Auto-generated method stub
-				return false;
-			}
-			
-			@Override
-			public boolean onDoubleTap(MotionEvent e) 
-			{
-				// If TTS is active, then stops tts from reading what ever id being read
-				stopReadingText();
-				
-				/**
-				* Keep track of the number of taps made by the player. m_count can have only 0, 1, 2 values
-				* 
-				* 0 - angle has been set
-				* 1 - velocity has been set
-				* 2 - angle has been launched
-				*/
-				m_count = m_count % TAPS;
-				
-				switch (m_count) 
-				{
-					// Represents angle has been set
-					case 0:
-						//m_angle = m_progress;
-						m_angle = m_prevProgress;
-						speakText(getString(R.string.launch_angle_text) + String.valueOf(m_angle));
-						speakText(getString(R.string.set_velocity_text));
-						speakText(getString(R.string.select_value_text));
-						break;
-					
-					// Represents velocity has been set
-					case 1:
-						//m_velocity = m_progress;
-						m_velocity = m_prevProgress;
-						speakText(getString(R.string.launch_velocity_text) + String.valueOf(m_velocity));
-						speakText(getString(R.string.launch_rocket_text));
-						break;
-						
-					// Represents rocket has been launched
-					case 2:
-						launchRocket();
-						break;
-						
-					default:
-						break;
-				}
-				
-				m_count++;
-				
-				return false;
-			}
-		});
-		
-		// set the on click listener
-		m_seekbar.setOnClickListener(new OnClickListener() 
-		{
-			
-			@Override
-			public void onClick(View v) 
-			{
-				//Log.v("Main act", "View clicked");		
-			}
-		});
-		
-		// attach the gesture listener to the seek bar
-		m_seekbar.setOnTouchListener(m_gestureListener);
-		
-		// Attach the sensor event listener to detect the motion sensor. This detects the shake event
-		m_sensorListener = new SensorEventListener() 
-		{			
-			@Override
-			public void onSensorChanged(SensorEvent event)
-			{
-				if(event == null)
-					return;
-							
-				float x = event.values[X_AXIS];
-				float y = event.values[Y_AXIS];
-				float z = event.values[Z_AXIS];
-				
-				double acceleration = Math.sqrt((x*x + y*y + z*z));
-				
-				// If the motion event is strong enough to be said as a shake, refresh game
-				if(acceleration > 25)
-					refresh();
-			}		
-
-			@Override
-			public void onAccuracyChanged(Sensor sensor, int accuracy) 
-			{
-				// TODO Auto-generated method stub			
-			}
-		};
-		
-		
-		// set listeners for shake motion detection
-		m_sensorManager = (SensorManager)getSystemService(Context.SENSOR_SERVICE);
-        
-        if(m_sensorManager != null)
-        {
-        	// Check if shake will be supported or not
-        	boolean shakeSupported = m_sensorManager.registerListener(
-        									 m_sensorListener, 
-        									 m_sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER), 
-        									 SensorManager.SENSOR_DELAY_NORMAL);
-        	
-        	if(! shakeSupported)
-        		;//Toast.makeText(this, "Shake not supported", Toast.LENGTH_LONG).show();
-        }
-		
-	}
-	
-	/**
-	 * The analysis is divided into four parts
-	 * 1. Rocket falls short of distance in x direction but not in y 
-	 * 2. Rocket falls short of distance in x direction and also in y
-	 * 3. Rocket falls short of distance in y direction but not in x
-	 * 4. Rocket exceeds distance in y direction and also in x
-	 * 
-	 * @param x - distance travelled by rocket in x direction
-	 * @param y - distance travelled by rocket in y direction
-	 * @param maxHeight - maximum height achieved by the rocket
-	 */
-	private void analyzeAndGiveFeedback(float x, float y, float heightFromTop)
-	{
-		float maxHeight = m_height - heightFromTop;
-		
-		if(x < m_targetX)
-		{
-			if(maxHeight > m_targetY)
-				speakText(getString(R.string.decrease_angle_text));
-			else
-				speakText(getString(R.string.increase_velocity_text));
-		}
-		else
-		{
-			if(maxHeight > m_targetY)
-				speakText(getString(R.string.decrease_velocity_text));
-			else
-				speakText(getString(R.string.increase_angle_text));
-		}
-		
-		speakInstructions();		
-		//Log.v("Target details", "Tx = " + m_targetX + " Ty = " + m_targetY);
-		//Log.v("RESULTS", "x = " + x + " y = " + y + " Max height = " + maxHeight);
-	}
-	
-	/**
-	* Launches an activity which checks the availability of TTS engine. Results of
-	* this activity are handled by onActivityResult method
-	*/
-	private void checkTts() 
-	{
-		// Check if a TTS engine is installed
-        Intent checkIntent = new Intent();
-        checkIntent.setAction(TextToSpeech.Engine.ACTION_CHECK_TTS_DATA);
-        startActivityForResult(checkIntent, TTS_CHECK);		
-	}
-	
-	// Initializes the music player will all the background music required by the game
-	private void setBackgroundMusic() 
-    {
-    	MusicPlayer player = MusicPlayer.getInstance(this);
-        
-        player.addSound("rocket", R.raw.rocket_sound);
-        player.addSound("blast", R.raw.explosion_sound);
-		
-	}
-
-	// Get the details of the screen height and width
-	private void getScreenHeightWidth() 
-	{
-		Display d = getWindowManager().getDefaultDisplay();
-        m_height = d.getHeight();
-        m_width = d.getWidth();        
-	}
-	
-	// Generates the target coordinates based on the screen height and width
-	private boolean generateTargetXY()
-	{
-		if(m_height == 0 || m_width == 0)
-			return false;
-		
-		m_targetX = m_width/2 + (int) (Math.random() * (m_width / 2 - (m_width / 4)));
-		m_targetY = m_height / 3 + (int) (Math.random() * (m_height / 2 - (m_height / 4)));
-		
-		return true;
-	}
-	
-	/**
-	* This method launches the rocket with all the details provided by the player 
-	*/
-	private void launchRocket()
-	{
-		Intent intent = new Intent(this, StartGameAct.class);
-		
-		intent.putExtra("velocity", m_velocity);
-		intent.putExtra("angle", m_angle);
-		intent.putExtra("targetX", m_targetX);
-		intent.putExtra("targetY", m_targetY);
-		
-		startActivityForResult(intent, LAUNCH_ROCKET);
-	}
-	
-	/**
-	* This activity speaks the instruction about the game
-	*/
-	private void speakInstructions() 
-    {
-    	speakText(getString(R.string.set_angle_text));
-		speakText(getString(R.string.select_value_text));	
-	}
-	
-	// Speak the target details as height of the target and distance from rocket
-	private void speakTargetDetails()
-	{
-		speakText(getString(R.string.target_distance_text) + 
-								String.valueOf(m_targetX) + "meters");
-		speakText(getString(R.string.target_height_text) + 
-								String.valueOf(m_height - m_targetY) + "meters");		
-	}
-	
-	/**
-	* This methods used tts engine to speak text
-	* 
-	* @param text - Text to speak
-	*/
-	private void speakText(String text)
-	{
-		if(text == null)
-			return;
-		
-		m_droid.speak(text, TextToSpeech.QUEUE_ADD, null);
-	}
-	
-	// Stops the tts engine from reading whatever text is being read
-	private void stopReadingText()
-	{
-		//if(m_droid.isSpeaking())
-		m_droid.stop();
-	}
-	
-	/**
-	* This method is called when a shake event is detected. It resets the velocity and launch angle
-	* and target location.
-	*/
-	private void refresh() 
-	{
-		m_count = 0;
-		stopReadingText();
-		speakText(getString(R.string.reset_text));
-		generateTargetXY();
-		speakTargetDetails();
-		speakInstructions();
-	}
-	
-	private SensorEventListener m_sensorListener;
-	
-	private final int LAUNCH_ROCKET = 101;
-	private final int TTS_CHECK = 102;
-	
-	private final int TAPS = 3;
-		
-	//variables for detecting shake motion
-	private final int X_AXIS = 0;
-	private final int Y_AXIS = 1;
-	private final int Z_AXIS = 2;
-	
-	// Sensor manager for detecting shake event
-	private SensorManager m_sensorManager;
-	
-	// represent the text view which displays the information
-	private TextView m_reading = null;
-	
-	private SharedPreferences m_sharedPref;
-	
-	private TextView m_currentScoreTv = null;
-	
-	private TextView m_highScoreTv = null;
-	
-	// represent the vertical seek bar
-	private SeekBar m_seekbar = null;
-	
-	// represent the tts object
-	private TextToSpeech m_droid;
-	
-	// gesture listener for touch events
-	private View.OnTouchListener m_gestureListener;
-	
-	// gesture detector for detecting touch events
-	private GestureDetector m_gestureDetector;
-	
-	private int m_count = 0;
-	private int m_progress = 0;
-	private int m_prevProgress = 0;
-	private int m_angle = 0;
-	private int m_velocity = 0;
-	private int m_currentScore = 0;
-	private int m_highScore;
-	private int m_height = 0;
-	private int m_width = 0;
-		
-	private int m_targetX = 0;
-	private int m_targetY = 0;
-	
+package atul.android.finalproject;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.util.Random;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.preference.PreferenceManager;
+import android.speech.tts.TextToSpeech;
+//import android.util.Log;
+import android.view.Display;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.View.OnClickListener;
+import android.widget.SeekBar;
+import android.widget.TextView;
+//import android.widget.Toast;
+import android.widget.SeekBar.OnSeekBarChangeListener;
+
+
+/**
+* Class GameManager 
+* 
+* Brief This is the main activity of the application. This activity interacts with the player
+* 		 by giving details(in audio) about the target. 
+* 
+*       Player can set the velocity or launch angle by scrolling up and down the screen.
+*       To set the value double tap event is used. Once a value is setted by the double tap,
+*       Activity communicates it to the player (using audio).
+* 		
+*       Player can reset the values by shaking the phone.
+*       
+*       Once the velocity and launch angle are setted, the rocket is launched by double tapping the
+*       screen. Results are communicated back to the player.* 		  	 
+* 
+*
+*/
+public class GameManager extends Activity implements TextToSpeech.OnInitListener, 
+														OnSeekBarChangeListener,
+														Game.OnFlightFinishedListener
+{
+    /** Called when the activity is first created. */
+    @Override
+    public void onCreate(Bundle savedInstanceState) 
+    {
+        super.onCreate(savedInstanceState);
+        
+        // set the content layout
+        setContentView(R.layout.setup_layout);
+        
+        // Get the shared prefs
+        m_sharedPref = PreferenceManager.getDefaultSharedPreferences(this);
+        
+        // Get the game which stays alive behind the setup controls
+        m_game = (Game)findViewById(R.id.game);
+        m_game.setOnFlightFinishedListener(this);
+        
+        // Check if the flight is shown on this screen or in a separate activity
+        m_embeddedGame = m_sharedPref.getBoolean(EMBEDDED_GAME, true);
+        showEmbeddedGame();
+        
+        // Check if every launch fires a salvo of rockets
+        m_salvo = m_sharedPref.getBoolean(SALVO, false);
+        m_game.setSalvo(getSalvoSize());
+        
+        // Check if the target comes with a field of pumpkins
+        m_field = m_sharedPref.getBoolean(FIELD, false);
+        m_game.setField(getFieldSize(), getFieldMoving());
+        
+        // Debug overlay with the frame time statistics of the game
+        m_game.setShowFrameStats(m_sharedPref.getBoolean(FRAME_STATS, false));
+        
+        // should be called before generateTargetXY()
+        getScreenHeightWidth();
+        
+        // The difficulty of every new target is checked on this thread
+        HandlerThread targetThread = new HandlerThread("TargetGenerator", Process.THREAD_PRIORITY_BACKGROUND);
+        targetThread.start();
+        m_targetHandler = new Handler(targetThread.getLooper());
+        
+        // Generate the target location
+		if(! generateTargetXY(false))
+			return;
+        
+		
+		// check for tts availability. If its unavailable then install it
+        checkTts();
+		
+        // Get the tts object
+        m_droid = new TextToSpeech(this, this);
+        
+        // Get the seekbar widget object
+        m_seekbar = (VerticalSeekBar)findViewById(R.id.seekbar);
+        
+        // Get the text view which displays value of the seekbar
+        m_reading = (TextView)findViewById(R.id.reading);
+        
+        // Get the current high score of the game
+        m_currentScoreTv = (TextView)findViewById(R.id.current_score);
+        
+        m_highScoreTv = (TextView)findViewById(R.id.high_score);
+        
+        // Get the text view which shows the statistics of all the shots
+        m_statsTv = (TextView)findViewById(R.id.statistics);
+        
+        // Read the high score in the background. It is shown when it has been read
+        loadHighScore();
+        
+        // Check if the player wants the results without watching the flight
+        m_instantResult = m_sharedPref.getBoolean(INSTANT_RESULT, false);
+        
+        // Shows the scores in the screen
+        loadScores();
+        
+        // Initializes all the listeners used by this activity. onSeekBarChange, TapRecognizer, onTouch
+        // doubleTap
+        initializeListeners();
+    }
+	
+    /**
+    * Notifies if the progress leval is changed
+    * 
+    * @param seekBar  - The SeekBar whose progress has changed
+    * @param progress - The current progress level
+    * @param fromUser - True if the progress change was initiated by a user 
+    */
+	@Override
+	public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) 
+	{
+		m_prevProgress = m_progress;
+		
+		m_progress = progress;
+		
+		// count == 0 represent that value of angle will be set
+		// count == 1 represent that value of velocity will be set
+		if(m_count == 0)
+			showReading(ANGLE_LABEL, m_progress);
+		else if(m_count == 1)
+			showReading(VELOCITY_LABEL, m_progress);
+	}
+	
+	/**
+	* This method shows a value of the seek bar. The text is written into a char array which is 
+	* reused, so dragging the seek bar does not make any garbage
+	* 
+	* @param label - Text before the value
+	* @param value - Value of the seek bar, not negative
+	*/
+	private void showReading(char[] label, int value)
+	{
+		if(label == m_readingLabel && value == m_readingValue)
+			return;
+		
+		m_readingLabel = label;
+		m_readingValue = value;
+		
+		System.arraycopy(label, 0, m_readingText, 0, label.length);
+		
+		// Count the digits, then write them from the last one
+		int length = label.length + 1;
+		
+		for(int rest = value / 10; rest > 0; rest /= 10)
+			length++;
+		
+		int index = length;
+		
+		do
+		{
+			m_readingText[--index] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+		while(value > 0);
+		
+		m_reading.setText(m_readingText, 0, length);
+	}
+
+	@Override
+	public void onStartTrackingTouch(SeekBar seekBar)
+	{
+		//stopReadingText();
+	}
+
+	@Override
+	public void onStopTrackingTouch(SeekBar seekBar) 
+	{
+		//speakText(getString(R.string.select_value_text));
+	}
+    
+	/**
+	* Called to signal the completion of the TextToSpeech engine initialization.
+	* 
+	* @param status 0 represents SUCCESS, -1 represents ERROR
+	*/
+    @Override
+	public void onInit(int status)
+	{
+		if(status == TextToSpeech.SUCCESS)
+		{
+			// If tts is successfully initialized, set the params as required
+			m_droid.setSpeechRate(.8f);
+			
+			// Record the prompts which are spoken every round, so they start without delay
+			m_speaker = new Speaker(this, m_droid);
+			prepareSpeech();
+			m_speaker.open();
+			
+			// Welcome the user
+			speakText(getString(R.string.welcome_text));
+			
+			// Speak the target details
+			if(m_targetPending)
+			{
+				// They are spoken once the target has been picked
+				m_announceTarget = true;
+				return;
+			}
+			
+			speakTargetDetails();
+			
+			// Speak the instrucitons
+			speakInstructions();			
+		}
+	}
+    
+    // Represent the key for high score in shared pref. Only read, to carry over the score of older versions
+    public static final String HIGH_SCORE = "high_score";
+    
+    // Represent the key for the instant result setting in shared pref
+    public static final String INSTANT_RESULT = "instant_result";
+    
+    // Represent the key for the embedded game setting in shared pref
+    public static final String EMBEDDED_GAME = "embedded_game";
+    
+    // Represent the key for the frame statistics overlay setting in shared pref
+    public static final String FRAME_STATS = "frame_stats";
+    
+    // Represent the key for the salvo setting in shared pref
+    public static final String SALVO = "salvo";
+    
+    // Represent the key for the pumpkin field setting in shared pref
+    public static final String FIELD = "field";
+    
+    // Represent the name of the file to which the frame statistics are saved
+    public static final String FRAME_STATS_FILE = "frame_stats.txt";
+    
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) 
+    {
+    	getMenuInflater().inflate(R.menu.game_menu, menu);
+    	return true;
+    }
+    
+    @Override
+    public boolean onPrepareOptionsMenu(Menu menu) 
+    {
+    	menu.findItem(R.id.instant_result).setChecked(m_instantResult);
+    	menu.findItem(R.id.embedded_game).setChecked(m_embeddedGame);
+    	menu.findItem(R.id.frame_stats).setChecked(m_sharedPref.getBoolean(FRAME_STATS, false));
+    	menu.findItem(R.id.salvo).setChecked(m_salvo);
+    	menu.findItem(R.id.field).setChecked(m_field);
+    	return true;
+    }
+    
+    /**
+    * Called when a menu item is selected. The instant result item lets experienced players skip 
+    * the flight animation. The result is predicted and returned as soon as the rocket is launched
+    * 
+    * @param item - The menu item that was selected
+    */
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) 
+    {
+    	if(item.getItemId() == R.id.embedded_game)
+    	{
+    		toggleEmbeddedGame();
+    		return true;
+    	}
+    	
+    	if(item.getItemId() == R.id.frame_stats)
+    	{
+    		boolean show = ! item.isChecked();
+    		
+    		SharedPreferences.Editor editor = m_sharedPref.edit();
+    		editor.putBoolean(FRAME_STATS, show);
+    		editor.commit();
+    		
+    		m_game.setShowFrameStats(show);
+    		return true;
+    	}
+    	
+    	if(item.getItemId() == R.id.save_frame_stats)
+    	{
+    		saveFrameStats();
+    		return true;
+    	}
+    	
+    	if(item.getItemId() == R.id.salvo)
+    	{
+    		toggleSalvo();
+    		return true;
+    	}
+    	
+    	if(item.getItemId() == R.id.field)
+    	{
+    		toggleField();
+    		return true;
+    	}
+    	
+    	if(item.getItemId() != R.id.instant_result)
+    		return super.onOptionsItemSelected(item);
+    	
+    	m_instantResult = ! m_instantResult;
+    	
+    	SharedPreferences.Editor editor = m_sharedPref.edit();
+    	editor.putBoolean(INSTANT_RESULT, m_instantResult);
+    	editor.commit();
+    	
+    	stopReadingText();
+    	
+    	if(m_instantResult)
+    		speakText(getString(R.string.instant_result_on_text));
+    	else
+    		speakText(getString(R.string.instant_result_off_text));
+    	
+    	return true;
+    }
+    
+    /**
+    * Switches between showing the flight on this screen (the game stays alive and a launch is just
+    * a command to it) and showing it in a separate activity for every launch
+    */
+    private void toggleEmbeddedGame()
+    {
+    	// Hiding the game would stop the flight in the air
+    	if(m_game.isFlying())
+    		return;
+    	
+    	m_embeddedGame = ! m_embeddedGame;
+    	
+    	SharedPreferences.Editor editor = m_sharedPref.edit();
+    	editor.putBoolean(EMBEDDED_GAME, m_embeddedGame);
+    	editor.commit();
+    	
+    	showEmbeddedGame();
+    	
+    	stopReadingText();
+    	
+    	if(m_embeddedGame)
+    		speakText(getString(R.string.embedded_game_on_text));
+    	else
+    		speakText(getString(R.string.embedded_game_off_text));
+    }
+    
+    /**
+    * Switches between firing one rocket and a salvo of SALVO_ROCKETS rockets with every launch
+    */
+    private void toggleSalvo()
+    {
+    	m_salvo = ! m_salvo;
+    	
+    	SharedPreferences.Editor editor = m_sharedPref.edit();
+    	editor.putBoolean(SALVO, m_salvo);
+    	editor.commit();
+    	
+    	m_game.setSalvo(getSalvoSize());
+    	
+    	stopReadingText();
+    	
+    	if(m_salvo)
+    		speakText(getString(R.string.salvo_on_text));
+    	else
+    		speakText(getString(R.string.salvo_off_text));
+    }
+    
+    // Returns the number of rockets fired by every launch
+    private int getSalvoSize()
+    {
+    	return m_salvo ? SALVO_ROCKETS : 1;
+    }
+    
+    /**
+    * Switches between the target alone and the target in a field of FIELD_PUMPKINS pumpkins. The 
+    * target on the screen is shown again with the new field
+    */
+    private void toggleField()
+    {
+    	// The rockets in the air are flying through the field
+    	if(m_game.isFlying())
+    		return;
+    	
+    	m_field = ! m_field;
+    	
+    	SharedPreferences.Editor editor = m_sharedPref.edit();
+    	editor.putBoolean(FIELD, m_field);
+    	editor.commit();
+    	
+    	m_game.setField(getFieldSize(), getFieldMoving());
+    	m_game.showTarget(m_targetX, m_targetY);
+    	
+    	stopReadingText();
+    	
+    	if(m_field)
+    		speakText(getString(R.string.field_on_text));
+    	else
+    		speakText(getString(R.string.field_off_text));
+    }
+    
+    // Returns the number of pumpkins in a round, the target included
+    private int getFieldSize()
+    {
+    	return m_field ? FIELD_PUMPKINS : 1;
+    }
+    
+    // Returns the number of pumpkins of the field which move
+    private int getFieldMoving()
+    {
+    	return m_field ? FIELD_MOVING : 0;
+    }
+    
+    /**
+    * Writes the frame time statistics of the embedded game to a file. It is kept in the external
+    * files directory of the app if there is one, so that it can be pulled from the device
+    */
+    private void saveFrameStats()
+    {
+    	File dir = getExternalFilesDir(null);
+    	
+    	if(dir == null)
+    		dir = getFilesDir();
+    	
+    	stopReadingText();
+    	
+    	try 
+    	{
+    		File file = new File(dir, FRAME_STATS_FILE);
+    		m_game.dumpFrameStats(file);
+    		
+    		// Cue latency is part of the responsiveness of the game too
+    		if(m_speaker != null)
+    		{
+    			Writer out = new BufferedWriter(new FileWriter(file, true));
+    			
+    			try
+    			{
+    				m_speaker.dumpStats(out);
+    			}
+    			finally
+    			{
+    				out.close();
+    			}
+    		}
+    		speakText(getString(R.string.frame_stats_saved_text));
+    	} 
+    	catch (IOException e) 
+    	{
+    		speakText(getString(R.string.frame_stats_failed_text));
+    	}
+    }
+    
+    // Shows the game behind the setup controls only if it is used. A hidden game releases its surface
+    private void showEmbeddedGame()
+    {
+    	m_game.setVisibility(m_embeddedGame ? View.VISIBLE : View.GONE);
+    }
+    
+    
+	@Override
+	protected void onResume() 
+	{
+		super.onResume();
+		
+		// Listen for shakes only while the game is in front
+		registerShakeListener();
+		
+		// load the scores
+		loadScores();
+	}
+    
+	@Override
+	protected void onPause() 
+	{
+		// TODO Auto-generated method stub
+		super.onPause();
+		
+		// Stop the accelerometer so that it does not wake the CPU in the background
+		if(m_sensorManager != null)
+			m_sensorManager.unregisterListener(m_sensorListener);
+		
+		// Pause the tts engine
+		if(m_speaker != null)
+			m_speaker.stop();
+		else if(m_droid != null)
+			m_droid.stop();
+		
+		// Write the high score if it has changed. This does not wait for the write
+		if(m_scoreStore != null)
+			m_scoreStore.flush();
+	}
+	
+	@Override
+	protected void onDestroy() 
+	{
+		// TODO Auto-generated method stub
+		super.onDestroy();
+		
+		// Stop the tts engine when the activity is destroyed
+		if(m_speaker != null)
+			m_speaker.release();
+		
+		if(m_droid != null)
+			m_droid.shutdown();
+		
+		// The solver is shut down after the target being picked, if there is one
+		m_targetHandler.post(new Runnable() 
+		{
+			@Override
+			public void run() 
+			{
+				m_solver.shutdown();
+				Looper.myLooper().quit();
+			}
+		});
+	}
+	
+	/**
+	* This method is called when a launched activity exist. This is called before onResume().
+	* 
+	* The activity must have been launced as startActivityForResult
+	*/
+	@Override
+	protected void onActivityResult(int requestCode, int resultCode, Intent data) 
+	{
+		super.onActivityResult(requestCode, resultCode, data);
+		
+		m_count = 0;
+		
+		if(data == null)
+		{
+			//Log.v("onActivityResult", "data is null");
+			return;
+		}
+		
+		switch (requestCode) 
+		{
+			// Represent the return of StartGame activity
+			case LAUNCH_ROCKET:
+				m_burstPumpkins = data.getBooleanArrayExtra("burstPumpkins");
+				
+				onLaunchResult(data.getBooleanExtra("targetHit", false),
+							   data.getFloatExtra("distanceX", 0), 
+							   data.getFloatExtra("distanceY", 0),
+							   data.getFloatExtra("maxHeight", 0),
+							   data.getIntExtra("burst", 0));
+				break;
+			
+			// Represents the return of TTS availability check activity 
+			case TTS_CHECK:				
+				if(resultCode == TextToSpeech.Engine.CHECK_VOICE_DATA_PASS)
+				{
+					// tts is already installed
+					//Log.v("GameManager", "TTS engine found");
+				}
+				else
+				{
+					// No tts found. Install tts
+					//Log.v("GameManager", "No TTS engine. Installing");
+					
+					// Install the TTS if not found
+					Intent installTts = new Intent();
+					installTts.setAction(TextToSpeech.Engine.ACTION_INSTALL_TTS_DATA);
+					startActivity(installTts);
+				}
+				
+				break;
+
+			default:
+				break;
+		}	
+		
+	}
+	
+	/**
+	* Called on the UI thread when a flight of the embedded game is over
+	* 
+	* @param x         - x coordinate where the flight stopped
+	* @param y         - y coordinate where the flight stopped
+	* @param maxHeight - max height travelled by the rocket
+	* @param targetHit - True if the target was hit
+	* @param burst     - Number of other pumpkins of the field burst by the rockets
+	*/
+	@Override
+	public void onFlightFinished(float x, float y, float maxHeight, boolean targetHit, int burst) 
+	{
+		m_count = 0;
+		
+		onLaunchResult(targetHit, x, y, maxHeight, burst);
+	}
+	
+	/**
+	* Handles the result of a launch, whether it was shown on this screen or in StartGameAct
+	* 
+	* @param targetHit - True if the target was hit
+	* @param x         - x coordinate where the flight stopped
+	* @param y         - y coordinate where the flight stopped
+	* @param maxHeight - max height travelled by the rocket
+	* @param burst     - Number of other pumpkins of the field burst by the rockets
+	*/
+	private void onLaunchResult(boolean targetHit, float x, float y, float maxHeight, int burst)
+	{
+		// Advice about the last shot is out of date
+		supersede(TAG_FEEDBACK);
+		
+		// Keep the shot in the history before the target changes
+		addShot(targetHit, x, y);
+		
+		// Every pumpkin of the field burst on the way scores too
+		if(burst > 0)
+		{
+			m_currentScore += burst;
+			
+			speakFeedback(getString(R.string.burst_text, burst));
+			
+			updateScores();
+		}
+		
+		// check if the target is hit. If yes then update the data otherwise analyze the result
+		if(targetHit)
+		{
+			// increase the current score
+			++m_currentScore;
+			
+			// Speak target hit text
+			speakFeedback(getString(R.string.target_successfully_hit_text));
+			
+			// update the scores
+			updateScores();
+			
+			// Generate new target locations. The target details and the instructions are spoken 
+			// once it has been picked
+			generateTargetXY(true);
+		}
+		else
+			analyzeAndGiveFeedback(x, y, maxHeight);
+	}
+	
+	// Loads the current score and the statistics of the shots
+	private void loadScores()
+	{
+		m_currentScoreTv.setText(getString(R.string.current_score_text) +
+				String.valueOf(m_currentScore));
+		
+		showStats(m_stats);
+	}
+	
+	/**
+	* Adds the shot which has just finished to the shot history. The statistics are shown again 
+	* once it has been added
+	* 
+	* @param targetHit - True if the target was hit
+	* @param x         - x coordinate where the flight stopped
+	* @param y         - y coordinate where the flight stopped
+	*/
+	private void addShot(boolean targetHit, float x, float y)
+	{
+		ShotHistory.Shot shot = new ShotHistory.Shot();
+		shot.set(System.currentTimeMillis(), m_targetX, m_targetY, m_angle, m_velocity, targetHit,
+				 x - m_targetX, y - m_targetY, (int) (SystemClock.elapsedRealtime() - m_targetTime));
+		
+		m_scoreStore.addShot(shot, m_statsListener);
+	}
+	
+	/**
+	* Shows the statistics of all the shots
+	* 
+	* @param stats - Statistics from the score store. null until they have been read
+	*/
+	private void showStats(ShotStats stats)
+	{
+		m_stats = stats;
+		
+		if(stats == null || stats.getShots() == 0)
+		{
+			m_statsTv.setText("");
+			return;
+		}
+		
+		String text = getString(R.string.statistics_text, Math.round(100 * stats.getHitRate()), 
+								stats.getShots(), stats.getAttemptsPerTarget());
+		
+		int best = stats.getBestBucket();
+		
+		if(best != ShotStats.NO_BUCKET)
+		{
+			// 90 degrees goes in the last bucket
+			int from = best * ShotStats.ANGLE_BUCKET;
+			int to = best == ShotStats.ANGLE_BUCKETS - 1 ? 90 : from + ShotStats.ANGLE_BUCKET - 1;
+			text += getString(R.string.best_angle_text, from, to);
+		}
+		
+		m_statsTv.setText(text);
+	}
+	
+	// Reads the high score and the statistics from the score store and shows them
+	private void loadHighScore() 
+	{
+		m_scoreStore = ScoreStore.getInstance(this);
+		
+		// Older versions kept the high score in the shared prefs
+		m_scoreStore.setHighScore(m_sharedPref.getInt(HIGH_SCORE, 0));
+		
+		m_scoreStore.load(new ScoreStore.OnLoadListener() 
+		{
+			@Override
+			public void onScoresLoaded(int highScore, ShotStats stats) 
+			{
+				// A score made while the store was being read is higher already
+				m_highScore = Math.max(m_highScore, highScore);
+				m_highScoreTv.setText(getString(R.string.maximum_score_text) + m_highScore);
+				
+				showStats(stats);
+			}
+		});
+	}
+	
+	// Updates the current and high scores
+	private void updateScores()
+	{
+		if(m_currentScore > m_highScore)
+		{
+			m_highScore = m_currentScore;
+			m_scoreStore.setHighScore(m_highScore);
+			speakNumber("And You made a new high score of ", m_highScore, null, 
+						SpeechQueue.PRIORITY_HIGH, TAG_FEEDBACK);
+		}
+		
+		m_highScoreTv.setText(getString(R.string.maximum_score_text) + m_highScore);
+		m_currentScoreTv.setText(getString(R.string.current_score_text) + m_currentScore);
+		
+	}
+
+	// Initializes all the listeners used by this activity
+	private void initializeListeners() 
+	{
+		// set the listener to get the updated values from the seek bar
+        m_seekbar.setOnSeekBarChangeListener(this);
+        
+        // tick every few units while the angle or the velocity is being set
+        m_seekbar.setOnDetentListener(new VerticalSeekBar.OnDetentListener() 
+        {
+			@Override
+			public void onDetent(VerticalSeekBar seekBar, int detent) 
+			{
+				if(m_count < 2)
+					AudioEngine.getInstance(GameManager.this).tick();
+			}
+		}, DETENT_STEP);
+        
+        // create the tap recognizer. It answers a double tap as soon as the second tap is down
+        m_tapRecognizer = new TapRecognizer(this, new TapRecognizer.OnTapListener() 
+        {
+			@Override
+			public void onTap(int taps, long eventTime) 
+			{
+				if(taps == 2)
+					onDoubleTap(eventTime);
+			}
+		});
+        
+        // create a new touch listener which we will attach to the seek bar
+        m_gestureListener = new View.OnTouchListener() 
+        {
+			
+			@Override
+			public boolean onTouch(View v, MotionEvent event) {
+				
+				return m_tapRecognizer.onTouchEvent(event);
+			}
+		};
+		
+		// set the on click listener
+		m_seekbar.setOnClickListener(new OnClickListener() 
+		{
+			
+			@Override
+			public void onClick(View v) 
+			{
+				//Log.v("Main act", "View clicked");		
+			}
+		});
+		
+		// attach the gesture listener to the seek bar
+		m_seekbar.setOnTouchListener(m_gestureListener);
+		
+		// Attach the sensor event listener to detect the motion sensor. This detects the shake event
+		m_sensorListener = new SensorEventListener() 
+		{			
+			@Override
+			public void onSensorChanged(SensorEvent event)
+			{
+				if(event == null)
+					return;
+							
+				// The filter removes gravity and reports one shake once
+				if(m_shakeFilter.add(event.values[X_AXIS], event.values[Y_AXIS], event.values[Z_AXIS], 
+									 event.timestamp))
+					refresh();
+			}		
+
+			@Override
+			public void onAccuracyChanged(Sensor sensor, int accuracy) 
+			{
+				// TODO Auto-generated method stub			
+			}
+		};
+		
+		
+		// The listener for shake motion detection is registered in onResume()
+		m_sensorManager = (SensorManager)getSystemService(Context.SENSOR_SERVICE);
+        
+        if(m_sensorManager != null)
+        	m_accelerometer = m_sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
+	}
+	
+	/**
+	* Registers the shake listener. Where the device can batch sensor events (API level 19 and 
+	* above) they are delivered a few at a time, so the CPU is woken up less often. That method is
+	* not in the API level we build against, so it is looked up by reflection
+	*/
+	private void registerShakeListener()
+	{
+		if(m_sensorManager == null || m_accelerometer == null)
+			return;
+		
+		m_shakeFilter.reset();
+		
+		try 
+		{
+			Method batched = SensorManager.class.getMethod("registerListener", SensorEventListener.class, 
+														   Sensor.class, int.class, int.class);
+			
+			if((Boolean) batched.invoke(m_sensorManager, m_sensorListener, m_accelerometer, 
+										SHAKE_SAMPLING_US, SHAKE_LATENCY_US))
+				return;
+		} 
+		catch (Exception e) 
+		{
+			// Not supported. Register without batching
+		}
+		
+		boolean shakeSupported = m_sensorManager.registerListener(m_sensorListener, m_accelerometer, 
+																  SensorManager.SENSOR_DELAY_GAME);
+		
+		if(! shakeSupported)
+			;//Toast.makeText(this, "Shake not supported", Toast.LENGTH_LONG).show();
+	}
+	
+	/**
+	 * Tells the player how much to change the angle or the velocity to hit the target. If no
+	 * change of a single value hits, the analysis is divided into four parts
+	 * 1. Rocket falls short of distance in x direction but not in y 
+	 * 2. Rocket falls short of distance in x direction and also in y
+	 * 3. Rocket falls short of distance in y direction but not in x
+	 * 4. Rocket exceeds distance in y direction and also in x
+	 * 
+	 * @param x - distance travelled by rocket in x direction
+	 * @param y - distance travelled by rocket in y direction
+	 * @param maxHeight - maximum height achieved by the rocket
+	 */
+	private void analyzeAndGiveFeedback(float x, float y, float heightFromTop)
+	{
+		if(speakCorrection())
+		{
+			speakInstructions();
+			return;
+		}
+		
+		switch(ShotAnalyzer.analyze(x, heightFromTop, m_targetX, m_targetY, m_height))
+		{
+		case ShotAnalyzer.DECREASE_ANGLE:
+			speakFeedback(getString(R.string.decrease_angle_text));
+			break;
+		case ShotAnalyzer.INCREASE_VELOCITY:
+			speakFeedback(getString(R.string.increase_velocity_text));
+			break;
+		case ShotAnalyzer.DECREASE_VELOCITY:
+			speakFeedback(getString(R.string.decrease_velocity_text));
+			break;
+		default:
+			speakFeedback(getString(R.string.increase_angle_text));
+			break;
+		}
+		
+		speakInstructions();		
+		//Log.v("Target details", "Tx = " + m_targetX + " Ty = " + m_targetY);
+		//Log.v("RESULTS", "x = " + x + " y = " + y + " Max height = " + maxHeight);
+	}
+	
+	/**
+	* Launches an activity which checks the availability of TTS engine. Results of
+	* this activity are handled by onActivityResult method
+	*/
+	private void checkTts() 
+	{
+		// Check if a TTS engine is installed
+        Intent checkIntent = new Intent();
+        checkIntent.setAction(TextToSpeech.Engine.ACTION_CHECK_TTS_DATA);
+        startActivityForResult(checkIntent, TTS_CHECK);		
+	}
+	
+	// Get the details of the screen height and width
+	private void getScreenHeightWidth() 
+	{
+		Display d = getWindowManager().getDefaultDisplay();
+        m_height = d.getHeight();
+        m_width = d.getWidth();        
+	}
+	
+	/**
+	* Generates the target coordinates based on the screen height and width. A target which can be
+	* hit by fewer than MIN_SOLUTIONS shots is too hard to find without sight, so another one is
+	* picked (at most TARGET_ATTEMPTS times). Solving the shots takes a while on a phone, so it is
+	* done on the target thread and the target is shown once it has been picked. A launch made 
+	* meanwhile is kept and fired by showTarget(). Only the last target asked for is shown, so
+	* the target stays pending until every request before it is done with the solver
+	* 
+	* @param announce - True to speak the target details and the instructions once it is shown
+	* 
+	* @return False if the screen size is not known yet
+	*/
+	private boolean generateTargetXY(boolean announce)
+	{
+		if(m_width == 0 || m_height == 0)
+			return false;
+		
+		// Every round has its own seed, which is recorded with its launches so the round can be
+		// generated again
+		final long seed = m_seeds.nextLong();
+		
+		final int width = m_width;
+		final int height = m_height;
+		final float density = getResources().getDisplayMetrics().density;
+		
+		Bitmap target = SpriteCache.getInstance(this).get(R.drawable.target);
+		final int targetWidth = target.getWidth();
+		final int targetHeight = target.getHeight();
+		
+		final int generation = ++m_targetGeneration;
+		
+		m_targetPending = true;
+		m_announceTarget |= announce;
+		
+		m_targetHandler.post(new Runnable() 
+		{
+			@Override
+			public void run() 
+			{
+				// A newer target has been asked for. Leave the solver to it
+				if(generation != m_targetGeneration)
+					return;
+				
+				m_targetGenerator.setSeed(seed);
+				
+				TriggerArea triggerArea = null;
+				
+				for(int i = 0; i < TARGET_ATTEMPTS; i++)
+				{
+					m_targetGenerator.generate(width, height);
+					
+					triggerArea = TriggerArea.aroundTarget(m_targetGenerator.getX(), m_targetGenerator.getY(), 
+														   targetWidth, targetHeight);
+					
+					if(solveTarget(triggerArea, width, height, density) >= MIN_SOLUTIONS)
+						break;
+				}
+				
+				final int x = m_targetGenerator.getX();
+				final int y = m_targetGenerator.getY();
+				final TriggerArea area = triggerArea;
+				
+				runOnUiThread(new Runnable() 
+				{
+					@Override
+					public void run() 
+					{
+						showTarget(generation, seed, x, y, area);
+					}
+				});
+			}
+		});
+		
+		return true;
+	}
+	
+	/**
+	* Called on the UI thread once a new target has been picked. The solver holds its shots, unless
+	* a newer target has been asked for since. Such a target is not shown
+	* 
+	* @param generation  - Number of the request which picked the target
+	* @param seed        - Seed of the round
+	* @param x           - x coordinate of the target
+	* @param y           - y coordinate of the target
+	* @param triggerArea - Trigger area of the target
+	*/
+	private void showTarget(int generation, long seed, int x, int y, TriggerArea triggerArea)
+	{
+		if(isFinishing() || generation != m_targetGeneration)
+			return;
+		
+		m_seed = seed;
+		m_targetX = x;
+		m_targetY = y;
+		m_triggerArea = triggerArea;
+		m_targetPending = false;
+		
+		// The field of the new round starts with every pumpkin
+		m_burstPumpkins = null;
+		
+		// The time to hit of the shots at it is counted from now
+		m_targetTime = SystemClock.elapsedRealtime();
+		
+		// Show the new target in the embedded game
+		m_game.setSeed(m_seed);
+		m_game.showTarget(m_targetX, m_targetY);
+		
+		if(m_announceTarget && m_speaker != null)
+		{
+			m_announceTarget = false;
+			
+			speakTargetDetails();
+			speakInstructions();
+		}
+		
+		// The player launched while the target was being picked
+		if(m_launchPending)
+		{
+			m_launchPending = false;
+			launchRocket();
+		}
+	}
+	
+	/**
+	* Solves every shot for a target with the same trigger area the game uses. Called on the target
+	* thread
+	*
+	* @return Number of (angle, velocity) pairs which hit the target
+	*/
+	private int solveTarget(TriggerArea triggerArea, int width, int height, float density)
+	{
+		return m_solver.solve(triggerArea.getLeft(), triggerArea.getTop(), 
+							  triggerArea.getRight(), triggerArea.getBottom(),
+							  height, density, width);
+	}
+	
+	/**
+	* Works out the smallest change of the angle or of the velocity which hits the target after a
+	* miss, and speaks it
+	*
+	* @return False if changing only one of the values can not hit the target
+	*/
+	private boolean speakCorrection()
+	{
+		// The solver is working on the next target
+		if(m_triggerArea == null || m_targetPending)
+			return false;
+		
+		float centerX = (m_triggerArea.getLeft() + m_triggerArea.getRight()) / 2;
+		float centerY = (m_triggerArea.getTop() + m_triggerArea.getBottom()) / 2;
+		
+		if(! m_inverseSolver.solve(m_angle, m_velocity, centerX, centerY, m_height, 
+								   getResources().getDisplayMetrics().density))
+			return false;
+		
+		int velocity = nearestHit(m_inverseSolver.getVelocity(), true);
+		int angle = nearestHit(m_inverseSolver.getAngle(), false);
+		
+		int velocityChange = velocity < 0 ? Integer.MAX_VALUE : velocity - m_velocity;
+		int angleChange = angle < 0 ? Integer.MAX_VALUE : angle - m_angle;
+		
+		if(velocityChange == Integer.MAX_VALUE && angleChange == Integer.MAX_VALUE)
+			return false;
+		
+		// Ask for the change which moves the seekbar the least
+		if(Math.abs(velocityChange) <= Math.abs(angleChange))
+		{
+			if(velocityChange > 0)
+				speakFeedback(getString(R.string.add_velocity_text, velocityChange));
+			else
+				speakFeedback(getString(R.string.reduce_velocity_text, -velocityChange));
+		}
+		else
+		{
+			if(angleChange > 0)
+				speakFeedback(getString(R.string.add_angle_text, angleChange));
+			else
+				speakFeedback(getString(R.string.reduce_angle_text, -angleChange));
+		}
+		
+		return true;
+	}
+	
+	/**
+	* The solved value falls between two seekbar values and the target is wider than a point, so
+	* the whole numbers around it are looked up in the batch solver
+	*
+	* @param value    - Solved angle or velocity. NaN if there is none
+	* @param velocity - True if value is a velocity (the angle is kept), false if it is an angle
+	*
+	* @return The closest seekbar value which hits, or -1 if there is none nearby
+	*/
+	private int nearestHit(double value, boolean velocity)
+	{
+		if(Double.isNaN(value))
+			return -1;
+		
+		int center = (int) Math.round(value);
+		
+		for(int d = 0; d <= HINT_SEARCH; d++)
+		{
+			for(int sign = 1; sign >= -1; sign -= 2)
+			{
+				int candidate = center + sign * d;
+				
+				if(candidate < 0 || candidate > BatchSolver.MAX_INPUT)
+					continue;
+				
+				boolean hit = velocity ? m_solver.isHit(m_angle, candidate) : m_solver.isHit(candidate, m_velocity);
+				
+				if(hit)
+					return candidate;
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	* This method is called when the player double taps the seek bar. It sets the angle, then the
+	* velocity and then launches the rocket
+	* 
+	* @param eventTime - Time of the second tap, in SystemClock.uptimeMillis() milliseconds
+	*/
+	private void onDoubleTap(long eventTime)
+	{
+		// The values can not be changed while the rocket is in the air, or about to be launched
+		if(m_game.isFlying() || m_launchPending)
+			return;
+		
+		// If TTS is active, then stops tts from reading what ever id being read
+		stopReadingText();
+		
+		// The prompt which confirms the value is timed from the tap
+		if(m_speaker != null)
+			m_speaker.markInput(eventTime);
+		
+		/**
+		* Keep track of the number of taps made by the player. m_count can have only 0, 1, 2 values
+		* 
+		* 0 - angle has been set
+		* 1 - velocity has been set
+		* 2 - angle has been launched
+		*/
+		m_count = m_count % TAPS;
+		
+		switch (m_count) 
+		{
+			// Represents angle has been set
+			case 0:
+				//m_angle = m_progress;
+				m_angle = m_prevProgress;
+				speakNumber(getString(R.string.launch_angle_text), m_angle, null, 
+							SpeechQueue.PRIORITY_HIGH, SpeechQueue.TAG_NONE);
+				speakInstruction(getString(R.string.set_velocity_text));
+				speakInstruction(getString(R.string.select_value_text));
+				break;
+			
+			// Represents velocity has been set
+			case 1:
+				//m_velocity = m_progress;
+				m_velocity = m_prevProgress;
+				speakNumber(getString(R.string.launch_velocity_text), m_velocity, null, 
+							SpeechQueue.PRIORITY_HIGH, SpeechQueue.TAG_NONE);
+				speakInstruction(getString(R.string.launch_rocket_text));
+				break;
+				
+			// Represents rocket has been launched
+			case 2:
+				launchRocket();
+				break;
+				
+			default:
+				break;
+		}
+		
+		m_count++;
+	}
+	
+	/**
+	* This method launches the rocket with all the details provided by the player 
+	*/
+	private void launchRocket()
+	{
+		// The target is still being picked. The rocket is launched once it is shown
+		if(m_targetPending)
+		{
+			m_launchPending = true;
+			return;
+		}
+		
+		// The game is already running on this screen. Send it the launch command
+		if(m_embeddedGame)
+		{
+			m_game.launch(m_angle, m_velocity, m_targetX, m_targetY, m_instantResult);
+			return;
+		}
+		
+		Intent intent = new Intent(this, StartGameAct.class);
+		
+		intent.putExtra("velocity", m_velocity);
+		intent.putExtra("angle", m_angle);
+		intent.putExtra("targetX", m_targetX);
+		intent.putExtra("targetY", m_targetY);
+		intent.putExtra("instantResult", m_instantResult);
+		intent.putExtra("seed", m_seed);
+		intent.putExtra("salvo", getSalvoSize());
+		intent.putExtra("field", getFieldSize());
+		intent.putExtra("moving", getFieldMoving());
+		intent.putExtra("burstPumpkins", m_burstPumpkins);
+		
+		startActivityForResult(intent, LAUNCH_ROCKET);
+	}
+	
+	/**
+	* This activity speaks the instruction about the game
+	*/
+	private void speakInstructions() 
+    {
+		supersede(TAG_INSTRUCTIONS);
+		
+    	speakInstruction(getString(R.string.set_angle_text));
+		speakInstruction(getString(R.string.select_value_text));	
+	}
+	
+	// Speak the target details as height of the target and distance from rocket
+	private void speakTargetDetails()
+	{
+		// The details of the old target are out of date
+		supersede(TAG_TARGET);
+		
+		speakNumber(getString(R.string.target_distance_text), m_targetX, METERS, 
+					SpeechQueue.PRIORITY_NORMAL, TAG_TARGET);
+		speakNumber(getString(R.string.target_height_text), m_height - m_targetY, METERS, 
+					SpeechQueue.PRIORITY_NORMAL, TAG_TARGET);		
+	}
+	
+	// Prompts and numbers which are recorded once and played from the cache after that
+	private void prepareSpeech()
+	{
+		int[] prompts = { R.string.welcome_text, R.string.set_angle_text, R.string.set_velocity_text,
+						  R.string.select_value_text, R.string.launch_rocket_text, 
+						  R.string.launch_angle_text, R.string.launch_velocity_text,
+						  R.string.target_distance_text, R.string.target_height_text,
+						  R.string.decrease_angle_text, R.string.increase_angle_text,
+						  R.string.decrease_velocity_text, R.string.increase_velocity_text,
+						  R.string.target_successfully_hit_text, R.string.reset_text };
+		
+		for(int prompt : prompts)
+			m_speaker.prepare(getString(prompt));
+		
+		m_speaker.prepare(METERS);
+		
+		// Angles and velocities
+		m_speaker.prepareNumbers(0, BatchSolver.MAX_INPUT);
+	}
+	
+	/**
+	* This methods used tts engine to speak text
+	* 
+	* @param text - Text to speak
+	*/
+	private void speakText(String text)
+	{
+		speakText(text, SpeechQueue.PRIORITY_NORMAL, SpeechQueue.TAG_NONE);
+	}
+	
+	/**
+	* Speaks a text after the waiting texts with the same or a higher priority
+	* 
+	* @param text     - Text to speak
+	* @param priority - One of SpeechQueue.PRIORITY_LOW, PRIORITY_NORMAL and PRIORITY_HIGH
+	* @param tag      - Tag of the text, used by supersede()
+	*/
+	private void speakText(String text, int priority, int tag)
+	{
+		if(text == null || m_speaker == null)
+			return;
+		
+		m_speaker.speak(text, priority, tag);
+	}
+	
+	// Speaks the result of a launch or advice about it before anything else
+	private void speakFeedback(String text)
+	{
+		speakText(text, SpeechQueue.PRIORITY_HIGH, TAG_FEEDBACK);
+	}
+	
+	// Speaks an instruction after everything else
+	private void speakInstruction(String text)
+	{
+		speakText(text, SpeechQueue.PRIORITY_LOW, TAG_INSTRUCTIONS);
+	}
+	
+	/**
+	* Speaks a text with a number in it. The cached clips of the text and of the number are used
+	* 
+	* @param prefix   - Text before the number
+	* @param number   - Number to speak
+	* @param suffix   - Text after the number. May be null
+	* @param priority - One of SpeechQueue.PRIORITY_LOW, PRIORITY_NORMAL and PRIORITY_HIGH
+	* @param tag      - Tag of the text, used by supersede()
+	*/
+	private void speakNumber(String prefix, int number, String suffix, int priority, int tag)
+	{
+		if(m_speaker == null)
+			return;
+		
+		m_speaker.speak(prefix, number, suffix, priority, tag);
+	}
+	
+	/**
+	* Drops the waiting texts with a tag, because what they tell is out of date
+	* 
+	* @param tag - One of the TAG_ constants
+	*/
+	private void supersede(int tag)
+	{
+		if(m_speaker != null)
+			m_speaker.supersede(tag);
+	}
+	
+	// Stops the tts engine from reading whatever text is being read
+	private void stopReadingText()
+	{
+		if(m_speaker != null)
+			m_speaker.stop();
+	}
+	
+	/**
+	* This method is called when a shake event is detected. It resets the velocity and launch angle
+	* and target location.
+	*/
+	private void refresh() 
+	{
+		m_count = 0;
+		m_launchPending = false;
+		supersede(TAG_FEEDBACK);
+		supersede(TAG_TARGET);
+		supersede(TAG_INSTRUCTIONS);
+		
+		speakText(getString(R.string.reset_text), SpeechQueue.PRIORITY_HIGH, SpeechQueue.TAG_NONE);
+		generateTargetXY(true);
+	}
+	
+	private SensorEventListener m_sensorListener;
+	
+	private final int LAUNCH_ROCKET = 101;
+	private final int TTS_CHECK = 102;
+	
+	private final int TAPS = 3;
+	
+	private final String METERS = "meters";
+	
+	// Tags of the spoken texts. A new text of a kind makes the waiting ones of that kind out of date
+	private final int TAG_FEEDBACK = 1;
+	private final int TAG_TARGET = 2;
+	private final int TAG_INSTRUCTIONS = 3;
+	
+	// A target must be hit by at least this many shots
+	private final int MIN_SOLUTIONS = 20;
+	
+	// Number of targets tried before an easier one is given up on
+	private final int TARGET_ATTEMPTS = 5;
+	
+	// Seekbar values on each side of a solved value which are checked for a hit
+	private final int HINT_SEARCH = 3;
+		
+	//variables for detecting shake motion
+	private final int X_AXIS = 0;
+	private final int Y_AXIS = 1;
+	private final int Z_AXIS = 2;
+	
+	// Sensor manager for detecting shake event
+	private SensorManager m_sensorManager;
+	
+	private Sensor m_accelerometer = null;
+	
+	// Finds the shakes in the accelerometer samples
+	private ShakeFilter m_shakeFilter = new ShakeFilter();
+	
+	// Time between accelerometer samples, and how long the device may hold them back (batching)
+	private final int SHAKE_SAMPLING_US = 20000;
+	private final int SHAKE_LATENCY_US = 100000;
+	
+	// represent the text view which displays the information
+	private TextView m_reading = null;
+	
+	// Labels of the reading, and the text of the reading which is reused for every value
+	private static final char[] ANGLE_LABEL = "Angle = ".toCharArray();
+	private static final char[] VELOCITY_LABEL = "Velocity = ".toCharArray();
+	private final char[] m_readingText = new char[32];
+	
+	// Label and value shown by the reading
+	private char[] m_readingLabel = null;
+	private int m_readingValue = -1;
+	
+	// Units of the seek bar between two ticks
+	private final int DETENT_STEP = 5;
+	
+	private SharedPreferences m_sharedPref;
+	
+	// Keeps the high score without writing to the storage on this thread
+	private ScoreStore m_scoreStore = null;
+	
+	private TextView m_currentScoreTv = null;
+	
+	private TextView m_highScoreTv = null;
+	
+	private TextView m_statsTv = null;
+	
+	// Statistics of all the shots, null until they have been read
+	private ShotStats m_stats = null;
+	
+	// Shows the statistics every time a shot has been added to the history
+	private ScoreStore.OnStatsListener m_statsListener = new ScoreStore.OnStatsListener() 
+	{
+		@Override
+		public void onStatsChanged(ShotStats stats) 
+		{
+			showStats(stats);
+		}
+	};
+	
+	// Time the current target appeared, SystemClock.elapsedRealtime()
+	private long m_targetTime = 0;
+	
+	// represent the vertical seek bar
+	private VerticalSeekBar m_seekbar = null;
+	
+	// represent the tts object
+	private TextToSpeech m_droid;
+	
+	// Speaks the prompts, from the clip cache when it can
+	private Speaker m_speaker = null;
+	
+	// gesture listener for touch events
+	private View.OnTouchListener m_gestureListener;
+	
+	// finds the taps and double taps on the seek bar
+	private TapRecognizer m_tapRecognizer;
+	
+	private int m_count = 0;
+	private int m_progress = 0;
+	private int m_prevProgress = 0;
+	private int m_angle = 0;
+	private int m_velocity = 0;
+	private int m_currentScore = 0;
+	private int m_highScore = 0;
+	private int m_height = 0;
+	private int m_width = 0;
+		
+	private int m_targetX = 0;
+	private int m_targetY = 0;
+	
+	// Picks the location of every new target
+	private TargetGenerator m_targetGenerator = new TargetGenerator();
+	
+	// Picks the seed of every round, and the seed of the current round
+	private Random m_seeds = new Random();
+	private long m_seed = 0;
+	
+	// Results of every shot for the current target. Written on the target thread while a target
+	// is being picked, read on the UI thread after that
+	private BatchSolver m_solver = new BatchSolver();
+	
+	// Thread which picks the targets, and whether one is being picked
+	private Handler m_targetHandler = null;
+	private boolean m_targetPending = false;
+	
+	// Number of the last target asked for. Set on the UI thread, read on the target thread too
+	private volatile int m_targetGeneration = 0;
+	
+	// True to speak the target details and the instructions once the target being picked is shown
+	private boolean m_announceTarget = false;
+	
+	// True if the player launched while the target was being picked
+	private boolean m_launchPending = false;
+	
+	// Pumpkins of the field burst in the round when every launch has its own screen. Null for none
+	private boolean[] m_burstPumpkins = null;
+	
+	// Works out the launch values which hit the target after a miss
+	private InverseSolver m_inverseSolver = new InverseSolver();
+	
+	// Trigger area of the current target, the same as the one used by the game
+	private TriggerArea m_triggerArea = null;
+	
+	// If true the result of a launch is returned without animating the flight
+	private boolean m_instantResult = false;
+	
+	// If true every launch fires SALVO_ROCKETS rockets
+	private boolean m_salvo = false;
+	
+	// Rockets in a salvo
+	private final int SALVO_ROCKETS = 5;
+	
+	// If true the target comes with a field of FIELD_PUMPKINS pumpkins, FIELD_MOVING of them moving
+	private boolean m_field = false;
+	
+	// Pumpkins in a round with a field, the target included
+	private final int FIELD_PUMPKINS = 12;
+	private final int FIELD_MOVING = 4;
+	
+	// Represents the game which stays alive behind the setup controls
+	private Game m_game = null;
+	
+	// If true the flight is shown by m_game. Otherwise a StartGameAct is started for every launch
+	private boolean m_embeddedGame = true;
+	
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package atul.android.finalproject;
+
+import android.app.Application;
+
+/**
+* Class RocketsApplication
+*
+* Brief This class represents the application process. It sets up the resources which are shared
+* 		by all the activities and live as long as the process, and releases them when the system
+* 		runs low on memory.
+*/
+public class RocketsApplication extends Application
+{
+	@Override
+	public void onCreate()
+	{
+		super.onCreate();
+
+		// Decode the images once so that the first launch does not have to
+		SpriteCache.getInstance(this).preload(R.drawable.rocket, R.drawable.target);
+
+		// The sounds are loaded once for the process and played by every game
+		AudioEngine audio = AudioEngine.getInstance(this);
+		audio.load(R.raw.rocket_sound);
+		audio.load(R.raw.explosion_sound);
+	}
+
+	@Override
+	public void onLowMemory()
+	{
+		super.onLowMemory();
+
+		SpriteCache.getInstance(this).evictAll();
+	}
+
+	/**
+	* Called by the system (API level 14 and above) when it is a good time to release memory.
+	* There is no @Override because the API level we build against does not have this method
+	*
+	* @param level - How much memory should be released
+	*/
+	public void onTrimMemory(int level)
+	{
+		SpriteCache.getInstance(this).onTrimMemory(level);
+	}
+}
@@ -0,0 +1,340 @@
+package atul.android.finalproject;
+
+import java.io.File;
+import java.io.IOException;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+/**
+* Class ScoreStore
+*
+* Brief This is a Singleton class. It keeps the high score in a ScoreJournal and every shot in a
+* 		ShotHistory without ever touching the storage on the main thread. It lives as long as the
+* 		process.
+*
+* 		- The journal and the history are opened on a background thread when the store is created.
+* 		  load() hands the high score and the statistics to a listener on the main thread once
+* 		  they have been read
+* 		- setHighScore() only changes the score in memory and marks it dirty. It is written
+* 		  WRITE_DELAY_MILLIS later, so a burst of new high scores is written once
+* 		- flush() asks for the write to be done now, without waiting for it. Nothing is written
+* 		  if the score has not changed since the last write
+* 		- addShot() appends the shot to the history in the background and hands the new
+* 		  statistics to a listener on the main thread
+*
+*@note	All the methods can be called from any thread. The listener is called on the main thread
+*/
+public class ScoreStore
+{
+	/**
+	* Interface OnLoadListener
+	*
+	* Brief Interface definition for a callback to be invoked when the high score has been read
+	*/
+	public interface OnLoadListener
+	{
+		/**
+		* Called on the main thread with the high score in the journal
+		*
+		* @param highScore - The high score, 0 if none has been saved
+		* @param stats     - Statistics of all the shots in the history
+		*/
+		void onScoresLoaded(int highScore, ShotStats stats);
+	}
+	
+	/**
+	* Interface OnStatsListener
+	*
+	* Brief Interface definition for a callback to be invoked when a shot has been added to the history
+	*/
+	public interface OnStatsListener
+	{
+		/**
+		* Called on the main thread with the statistics which include the new shot
+		*
+		* @param stats - Statistics of all the shots in the history
+		*/
+		void onStatsChanged(ShotStats stats);
+	}
+
+	/**
+	* Represents the static method which returns the object of ScoreStore class. If no object exists
+	* then it creates a new object otherwise the existing object is returned.
+	*
+	* @param context - Any context. The journal is kept in the files directory of the application
+	*
+	* @return ScoreStore object
+	*/
+	public static synchronized ScoreStore getInstance(Context context)
+	{
+		if(ms_instance == null)
+		{
+			File dir = context.getApplicationContext().getFilesDir();
+			ms_instance = new ScoreStore(new File(dir, JOURNAL), new File(dir, HISTORY));
+		}
+
+		return ms_instance;
+	}
+
+	/**
+	* Represents the private constructor of the ScoreStore. Starts loading the journal and the history
+	*
+	* @param journal - The journal of the high score
+	* @param history - The history of the shots
+	*/
+	private ScoreStore(File journal, File history)
+	{
+		m_journal = new ScoreJournal(journal);
+		m_history = new ShotHistory(history);
+
+		HandlerThread thread = new HandlerThread(TAG, Process.THREAD_PRIORITY_BACKGROUND);
+		thread.start();
+
+		m_handler = new Handler(thread.getLooper());
+		m_mainHandler = new Handler(Looper.getMainLooper());
+
+		m_handler.post(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				openFiles();
+			}
+		});
+	}
+
+	/**
+	* Hands the high score and the statistics to a listener once the journal and the history have
+	* been read. If they have been read already the listener is still called later, never from
+	* inside this method
+	*
+	* @param listener - Called on the main thread
+	*/
+	public void load(final OnLoadListener listener)
+	{
+		// The journal is loaded by the first task of the thread, so this task runs after it
+		m_handler.post(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				final int highScore = getHighScore();
+				final ShotStats stats = getStats();
+
+				m_mainHandler.post(new Runnable()
+				{
+					@Override
+					public void run()
+					{
+						listener.onScoresLoaded(highScore, stats);
+					}
+				});
+			}
+		});
+	}
+
+	// Public property exposing the high score in memory. It may not have been written yet
+	public synchronized int getHighScore()
+	{
+		return m_highScore;
+	}
+
+	/**
+	* Sets the high score. It is written to the journal WRITE_DELAY_MILLIS later (or by flush()),
+	* together with any other score set before that. A score which is not higher is ignored
+	*
+	* @param score - The new high score
+	*/
+	public synchronized void setHighScore(int score)
+	{
+		if(score <= m_highScore)
+			return;
+
+		m_highScore = score;
+
+		// A write which is waiting already will write this score too
+		if(m_dirty)
+			return;
+
+		m_dirty = true;
+		m_handler.postDelayed(m_write, WRITE_DELAY_MILLIS);
+	}
+
+	// Writes the high score now if it has changed. Returns at once, the write is done in the background
+	public synchronized void flush()
+	{
+		if(! m_dirty)
+			return;
+
+		m_handler.removeCallbacks(m_write);
+		m_handler.post(m_write);
+	}
+
+	/**
+	* Adds a shot to the history. The shot is written in the background
+	*
+	* @param shot     - The shot. It must not be changed after this call
+	* @param listener - Called on the main thread with the new statistics. May be null
+	*/
+	public void addShot(final ShotHistory.Shot shot, final OnStatsListener listener)
+	{
+		m_handler.post(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				if(m_historyOpen)
+				{
+					try
+					{
+						m_history.add(shot);
+					}
+					catch(IOException e)
+					{
+						Log.w(TAG, "Cannot write the shot history", e);
+					}
+				}
+
+				if(listener == null)
+					return;
+
+				final ShotStats stats = getStats();
+
+				m_mainHandler.post(new Runnable()
+				{
+					@Override
+					public void run()
+					{
+						listener.onStatsChanged(stats);
+					}
+				});
+			}
+		});
+	}
+
+	// Returns a copy of the statistics of the history. Called on the thread of the store
+	private ShotStats getStats()
+	{
+		ShotStats stats = new ShotStats();
+
+		if(m_historyOpen)
+			m_history.getStats(stats);
+
+		return stats;
+	}
+
+	// Reads the journal and opens the history. Called on the thread of the store
+	private void openFiles()
+	{
+		try
+		{
+			m_history.open();
+			m_historyOpen = true;
+		}
+		catch(IOException e)
+		{
+			Log.w(TAG, "Cannot open the shot history", e);
+		}
+
+		int score = 0;
+
+		try
+		{
+			score = m_journal.load();
+		}
+		catch(IOException e)
+		{
+			Log.w(TAG, "Cannot read the score journal", e);
+		}
+
+		synchronized(this)
+		{
+			// A score set before the journal was read is kept if it is higher
+			m_highScore = Math.max(m_highScore, score);
+			m_savedScore = score;
+		}
+	}
+
+	// Appends the high score to the journal if it has changed. Called on the thread of the store
+	private void writeJournal()
+	{
+		int score;
+
+		synchronized(this)
+		{
+			m_dirty = false;
+			score = m_highScore;
+
+			if(score == m_savedScore)
+				return;
+		}
+
+		try
+		{
+			m_journal.append(score);
+
+			synchronized(this)
+			{
+				m_savedScore = score;
+			}
+		}
+		catch(IOException e)
+		{
+			// Keep the score dirty so that the next flush() tries again
+			synchronized(this)
+			{
+				m_dirty = true;
+			}
+
+			m_journal.close();
+			Log.w(TAG, "Cannot write the score journal", e);
+		}
+	}
+
+	private static final String TAG = "ScoreStore";
+
+	// Name of the journal in the files directory
+	private static final String JOURNAL = "scores.journal";
+
+	// Name of the shot history in the files directory
+	private static final String HISTORY = "shots.bin";
+
+	// Time a new high score waits in memory for more changes before it is written
+	private static final long WRITE_DELAY_MILLIS = 1000;
+
+	private static ScoreStore ms_instance = null;
+
+	// Used only on the thread of the store
+	private final ScoreJournal m_journal;
+	private final ShotHistory m_history;
+
+	// False if the history could not be opened. The shots are not kept then
+	private boolean m_historyOpen = false;
+
+	// Runs the tasks of the store one after the other
+	private final Handler m_handler;
+
+	// Calls the listeners
+	private final Handler m_mainHandler;
+
+	private final Runnable m_write = new Runnable()
+	{
+		@Override
+		public void run()
+		{
+			writeJournal();
+		}
+	};
+
+	// High score in memory, and the last one written to the journal
+	private int m_highScore = 0;
+	private int m_savedScore = 0;
+
+	// True while a write of the high score is waiting
+	private boolean m_dirty = false;
+}
@@ -0,0 +1,581 @@
+package atul.android.finalproject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+
+import android.content.Context;
+import android.media.AudioManager;
+import android.media.SoundPool;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.os.SystemClock;
+import android.speech.tts.TextToSpeech;
+
+/**
+* Class Speaker
+*
+* Brief This class speaks the prompts of the game. Every prompt is spoken the same way each round,
+* 		so instead of asking the TTS engine again and again it is recorded to a file once
+* 		(synthesizeToFile) and played from a SoundPool after that, which starts in a few
+* 		milliseconds. A prompt which has not been recorded yet is spoken by the TTS engine.
+*
+* 		Prompts are spoken one after the other in the order given by a SpeechQueue (priority, then
+* 		the order of speak()). SoundPool does not tell when a clip has finished, so the next prompt
+* 		is started after the duration of the clip (read from the WAV header). The TTS engine tells
+* 		through the utterance id.
+*
+* 		Recording uses the TTS engine too, so it is only done while nothing is being spoken. A
+* 		prompt which comes while a clip is being recorded stops the recording, which is started
+* 		again later.
+*
+* 		Opening the cache reads the header of every clip, and finding the clip of a prompt works
+* 		out its SHA-1, so open() does both on a background thread for all the prompts prepared
+* 		so far. Until it is done every prompt is spoken by the TTS engine.
+*
+*@note	All the methods must be called on the main thread. The TTS must be initialized
+*/
+public class Speaker implements TextToSpeech.OnUtteranceCompletedListener,
+								SoundPool.OnLoadCompleteListener, ClipCache.OnEvictListener, 
+								SpeechQueue.Merger
+{
+	/**
+	* Represents the constructor
+	*
+	* @param context - Context of the game. The clips are kept in its cache directory
+	* @param tts     - Initialized TTS engine
+	*/
+	public Speaker(Context context, TextToSpeech tts)
+	{
+		m_tts = tts;
+		m_tts.setOnUtteranceCompletedListener(this);
+
+		m_soundPool = new SoundPool(1, AudioManager.STREAM_MUSIC, 0);
+		m_soundPool.setOnLoadCompleteListener(this);
+
+		m_directory = new File(context.getCacheDir(), CACHE_DIRECTORY);
+		
+		m_queue.setMerger(this);
+	}
+
+	/**
+	* Prepares a prompt which is spoken often. It is loaded if it has been recorded already,
+	* otherwise it is recorded the next time nothing is being spoken. Before open() the prompt
+	* is only noted, it is looked up in the cache by open()
+	*
+	* @param text - Text of the prompt
+	*/
+	public void prepare(String text)
+	{
+		if(text == null)
+			return;
+
+		if(m_cache == null)
+		{
+			m_toPrepare.add(text);
+			return;
+		}
+
+		ClipCache.Clip clip = m_cache.get(text);
+
+		if(clip != null)
+			load(clip);
+		else if(! m_toRecord.contains(text))
+			m_toRecord.add(text);
+	}
+
+	/**
+	* Opens the cache of the clips and looks up the prompts prepared so far on a background
+	* thread. The clips found are loaded and the others recorded once it is done
+	*/
+	public void open()
+	{
+		if(m_opening)
+			return;
+
+		m_opening = true;
+
+		final ArrayList<String> texts = new ArrayList<String>(m_toPrepare);
+		m_toPrepare.clear();
+
+		final HandlerThread thread = new HandlerThread(TAG, Process.THREAD_PRIORITY_BACKGROUND);
+		thread.start();
+
+		new Handler(thread.getLooper()).post(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				final ClipCache cache = new ClipCache(m_directory, MAX_CACHE_BYTES);
+				final ArrayList<ClipCache.Clip> clips = new ArrayList<ClipCache.Clip>();
+				final ArrayList<String> missing = new ArrayList<String>();
+
+				for(String text : texts)
+				{
+					ClipCache.Clip clip = cache.get(text);
+
+					if(clip != null)
+						clips.add(clip);
+					else if(! missing.contains(text))
+						missing.add(text);
+				}
+
+				// The cache is only used on the main thread from now on
+				m_handler.post(new Runnable()
+				{
+					@Override
+					public void run()
+					{
+						opened(cache, clips, missing);
+					}
+				});
+
+				thread.quit();
+			}
+		});
+	}
+
+	/**
+	* Called on the main thread when the cache has been opened
+	*
+	* @param cache   - The open cache
+	* @param clips   - Clips of the prepared prompts which were found
+	* @param missing - Prepared prompts which have to be recorded
+	*/
+	private void opened(ClipCache cache, ArrayList<ClipCache.Clip> clips, ArrayList<String> missing)
+	{
+		if(m_released)
+			return;
+
+		m_cache = cache;
+		m_cache.setOnEvictListener(this);
+
+		for(ClipCache.Clip clip : clips)
+			load(clip);
+
+		m_toRecord.addAll(missing);
+
+		// Prompts prepared while the cache was being opened
+		for(String text : m_toPrepare)
+			prepare(text);
+
+		m_toPrepare.clear();
+
+		next();
+	}
+
+	/**
+	* Prepares the numbers from first to last (both included)
+	*/
+	public void prepareNumbers(int first, int last)
+	{
+		for(int i = first; i <= last; i++)
+			prepare(String.valueOf(i));
+	}
+
+	/**
+	* Speaks a prompt with normal priority after the prompts which are already waiting
+	*
+	* @param text - Text to speak
+	*/
+	public void speak(String text)
+	{
+		speak(text, SpeechQueue.PRIORITY_NORMAL, SpeechQueue.TAG_NONE);
+	}
+
+	/**
+	* Speaks a prompt after the waiting prompts with the same or a higher priority
+	*
+	* @param text     - Text to speak
+	* @param priority - One of SpeechQueue.PRIORITY_LOW, PRIORITY_NORMAL and PRIORITY_HIGH
+	* @param tag      - Tag used by supersede(). SpeechQueue.TAG_NONE if the prompt is never superseded
+	*/
+	public void speak(String text, int priority, int tag)
+	{
+		if(text == null)
+			return;
+
+		m_queue.add(text, priority, tag, System.nanoTime());
+
+		// The prompt does not wait for the recording, which is started again later
+		if(m_recording != null)
+			interrupt();
+
+		next();
+	}
+
+	/**
+	* Speaks a prompt with a number in it. The parts are spoken separately, so that the same clips
+	* can be used for any number
+	*
+	* @param prefix   - Text before the number
+	* @param number   - Number to speak
+	* @param suffix   - Text after the number. May be null
+	* @param priority - Priority of all the parts
+	* @param tag      - Tag of all the parts
+	*/
+	public void speak(String prefix, int number, String suffix, int priority, int tag)
+	{
+		speak(prefix, priority, tag);
+		speak(String.valueOf(number), priority, tag);
+		speak(suffix, priority, tag);
+	}
+
+	/**
+	* Drops the waiting prompts with a tag, and stops the current prompt if it has the tag. Call it
+	* before speaking the new state of something (for example a new target)
+	*
+	* @param tag - Tag of the prompts which are out of date
+	*/
+	public void supersede(int tag)
+	{
+		if(tag == SpeechQueue.TAG_NONE)
+			return;
+
+		m_queue.supersede(tag);
+
+		if(m_speaking && m_currentTag == tag)
+		{
+			interrupt();
+			next();
+		}
+	}
+
+	/**
+	* Marks the input event which the next prompt answers (for example the tap which set the angle).
+	* The time from the event to the start of the prompt is added to the statistics
+	*
+	* @param eventTime - Time of the input event, in SystemClock.uptimeMillis() milliseconds
+	*/
+	public void markInput(long eventTime)
+	{
+		m_inputTime = eventTime;
+	}
+
+	// Stops the current prompt and drops the waiting prompts
+	public void stop()
+	{
+		m_queue.clear();
+
+		interrupt();
+	}
+
+	/**
+	* Writes the statistics of the speech queue and the time from input to speech as text
+	*
+	* @param out - Where the statistics are written
+	*/
+	public void dumpStats(Writer out) throws IOException
+	{
+		m_queue.dump(out);
+
+		out.write("input to speech (ms): count " + m_cueLatency.getCount()
+				  + " p50 " + m_cueLatency.getPercentile(50) / 1000f
+				  + " p90 " + m_cueLatency.getPercentile(90) / 1000f
+				  + " max " + m_cueLatency.getMax() / 1000f + "\n");
+	}
+
+	/**
+	* Called by the queue to find out whether a prompt can be merged with others. Only the prompts
+	* spoken by the TTS engine can be
+	*/
+	@Override
+	public boolean canMerge(String text)
+	{
+		if(m_cache == null)
+			return true;
+
+		ClipCache.Clip clip = m_cache.peek(text);
+
+		return clip == null || ! clip.isReady();
+	}
+
+	// Stops the current prompt
+	private void interrupt()
+	{
+		m_handler.removeCallbacks(m_clipFinished);
+
+		if(m_stream != 0)
+		{
+			m_soundPool.stop(m_stream);
+			m_stream = 0;
+		}
+
+		m_speaking = false;
+		m_utteranceId = null;
+
+		m_tts.stop();
+
+		// Stopping the TTS engine also stops a recording. It is tried again later
+		if(m_recording != null)
+		{
+			m_cache.getTempFile(m_recording).delete();
+			m_toRecord.addFirst(m_recording);
+
+			m_recording = null;
+			m_recordingId = null;
+		}
+	}
+
+	// Releases the sound pool. The TTS engine is shut down by its owner
+	public void release()
+	{
+		stop();
+
+		m_released = true;
+
+		m_soundPool.release();
+		m_loading.clear();
+	}
+
+	/**
+	* Called by the TTS engine (on one of its threads) when an utterance or a recording is done
+	*/
+	@Override
+	public void onUtteranceCompleted(final String utteranceId)
+	{
+		m_handler.post(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				utteranceCompleted(utteranceId);
+			}
+		});
+	}
+
+	/**
+	* Called by the sound pool when a clip has been loaded
+	*/
+	@Override
+	public void onLoadComplete(SoundPool soundPool, int sampleId, int status)
+	{
+		ClipCache.Clip clip = m_loading.remove(sampleId);
+
+		if(clip != null && clip.getHandle() == sampleId)
+			clip.setReady(status == 0);
+	}
+
+	/**
+	* Called by the cache before the file of a clip is deleted
+	*/
+	@Override
+	public void onEvict(ClipCache.Clip clip)
+	{
+		if(clip.getHandle() != 0)
+		{
+			m_loading.remove(clip.getHandle());
+			m_soundPool.unload(clip.getHandle());
+		}
+
+		clip.setHandle(0);
+		clip.setReady(false);
+	}
+
+	// Starts the next prompt if nothing is being spoken, or records the next clip if there is no prompt
+	private void next()
+	{
+		if(m_speaking || m_recording != null)
+			return;
+
+		SpeechQueue.Item item = m_queue.poll(System.nanoTime(), m_text);
+
+		if(item == null)
+		{
+			record();
+			return;
+		}
+
+		m_speaking = true;
+		m_currentTag = item.getTag();
+
+		if(m_inputTime != NO_INPUT)
+		{
+			m_cueLatency.record((SystemClock.uptimeMillis() - m_inputTime) * 1000000L);
+			m_inputTime = NO_INPUT;
+		}
+
+		String text = m_text.toString();
+
+		ClipCache.Clip clip = m_cache != null ? m_cache.get(text) : null;
+
+		if(clip != null && clip.isReady())
+		{
+			m_stream = m_soundPool.play(clip.getHandle(), 1, 1, 1, 0, 1);
+
+			if(m_stream != 0)
+			{
+				m_handler.postDelayed(m_clipFinished, clip.getDurationMillis());
+				return;
+			}
+		}
+
+		// Not recorded (or not loaded) yet
+		if(clip != null)
+			load(clip);
+
+		m_utteranceId = UTTERANCE_PREFIX + m_nextId++;
+
+		m_params.clear();
+		m_params.put(TextToSpeech.Engine.KEY_PARAM_UTTERANCE_ID, m_utteranceId);
+
+		if(m_tts.speak(text, TextToSpeech.QUEUE_ADD, m_params) == TextToSpeech.ERROR)
+			finished();
+	}
+
+	// Records the next prepared prompt
+	private void record()
+	{
+		while(m_cache != null && ! m_toRecord.isEmpty())
+		{
+			String text = m_toRecord.removeFirst();
+
+			if(m_cache.contains(text))
+				continue;
+
+			m_recording = text;
+			m_recordingId = RECORDING_PREFIX + m_nextId++;
+
+			m_params.clear();
+			m_params.put(TextToSpeech.Engine.KEY_PARAM_UTTERANCE_ID, m_recordingId);
+
+			String path = m_cache.getTempFile(text).getAbsolutePath();
+
+			if(m_tts.synthesizeToFile(text, m_params, path) == TextToSpeech.SUCCESS)
+				return;
+
+			m_recording = null;
+			m_recordingId = null;
+		}
+	}
+
+	private void utteranceCompleted(String utteranceId)
+	{
+		if(utteranceId == null)
+			return;
+
+		if(utteranceId.equals(m_utteranceId))
+		{
+			finished();
+		}
+		else if(utteranceId.equals(m_recordingId))
+		{
+			ClipCache.Clip clip = m_cache.add(m_recording, m_cache.getTempFile(m_recording));
+
+			if(clip != null)
+				load(clip);
+
+			m_recording = null;
+			m_recordingId = null;
+
+			next();
+		}
+	}
+
+	// The current prompt has been spoken
+	private void finished()
+	{
+		m_speaking = false;
+		m_stream = 0;
+		m_utteranceId = null;
+
+		next();
+	}
+
+	// Loads a clip into the sound pool
+	private void load(ClipCache.Clip clip)
+	{
+		if(clip.getHandle() != 0)
+			return;
+
+		int handle = m_soundPool.load(clip.getFile().getAbsolutePath(), 1);
+
+		if(handle == 0)
+			return;
+
+		clip.setHandle(handle);
+		m_loading.put(handle, clip);
+	}
+
+	// Started when a clip should have finished playing
+	private final Runnable m_clipFinished = new Runnable()
+	{
+		@Override
+		public void run()
+		{
+			finished();
+		}
+	};
+
+	private static final String TAG = "Speaker";
+
+	// Directory of the clips inside the cache directory
+	private static final String CACHE_DIRECTORY = "speech";
+
+	// Largest total size of the clips on disk
+	private static final long MAX_CACHE_BYTES = 8 * 1024 * 1024;
+
+	private static final String UTTERANCE_PREFIX = "say";
+	private static final String RECORDING_PREFIX = "record";
+
+	private static final long NO_INPUT = -1;
+
+	private final TextToSpeech m_tts;
+	private final SoundPool m_soundPool;
+	private final File m_directory;
+
+	// Cache of the clips. null until open() has finished
+	private ClipCache m_cache = null;
+
+	// True once open() has been called, and once release() has been called
+	private boolean m_opening = false;
+	private boolean m_released = false;
+
+	// Prompts prepared before the cache was open
+	private final ArrayList<String> m_toPrepare = new ArrayList<String>();
+
+	private final Handler m_handler = new Handler();
+
+	// Prompts waiting to be spoken
+	private final SpeechQueue m_queue = new SpeechQueue();
+
+	// Text of the prompt being spoken. Longer than one prompt if prompts were merged
+	private final StringBuilder m_text = new StringBuilder();
+
+	// Tag of the prompt being spoken
+	private int m_currentTag = SpeechQueue.TAG_NONE;
+
+	// Prompts waiting to be recorded
+	private final LinkedList<String> m_toRecord = new LinkedList<String>();
+
+	// Clips being loaded by the sound pool, by handle
+	private final HashMap<Integer, ClipCache.Clip> m_loading = new HashMap<Integer, ClipCache.Clip>();
+
+	// Reused for every call to the TTS engine
+	private final HashMap<String, String> m_params = new HashMap<String, String>();
+
+	// True while a prompt is being spoken
+	private boolean m_speaking = false;
+
+	// Time of the input event which the next prompt answers. NO_INPUT if none
+	private long m_inputTime = NO_INPUT;
+
+	// Time from an input event to the start of the prompt which answers it
+	private final LatencyHistogram m_cueLatency = new LatencyHistogram();
+
+	// Stream of the clip being played. 0 if none
+	private int m_stream = 0;
+
+	// Utterance id of the prompt being spoken by the TTS engine. null if none
+	private String m_utteranceId = null;
+
+	// Text and utterance id of the clip being recorded. null if none
+	private String m_recording = null;
+	private String m_recordingId = null;
+
+	private int m_nextId = 0;
+}
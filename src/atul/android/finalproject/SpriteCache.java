@@ -0,0 +1,179 @@
+package atul.android.finalproject;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+/**
+* Class SpriteCache
+*
+* Brief This is a Singleton class. It keeps the decoded images (sprites) of the game objects so that
+* 		an image is decoded only once for the whole process instead of once per launch.
+*
+* 		The memory used by the cache is capped. When a new image does not fit, the least recently
+* 		used images are removed from the cache. The cache is emptied when the system runs low on
+* 		memory.
+*
+*@note	Evicted bitmaps are not recycled because a Game may still be drawing them. They are freed
+*		by the garbage collector once nobody uses them
+*/
+public class SpriteCache
+{
+	/**
+	* Represents the static method which returns the object of SpriteCache class. If no object exists
+	* then it creates a new object otherwise the existing object is returned.
+	*
+	* @param context - Context used to access the resources. Only the application context is kept
+	*
+	* @return SpriteCache object
+	*/
+	public static synchronized SpriteCache getInstance(Context context)
+	{
+		// Check if the object of SpriteCache exists. If it does not exist then create a new object
+		if(ms_instance == null)
+			ms_instance = new SpriteCache(context.getApplicationContext().getResources());
+
+		// return the object
+		return ms_instance;
+	}
+
+	/**
+	* Represents the private constructor of the SpriteCache.
+	*
+	* @param resources - Resources from which the images are decoded
+	*/
+	private SpriteCache(Resources resources)
+	{
+		m_resources = resources;
+
+		// Use a small part of the memory available to the process
+		m_maxBytes = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / MEMORY_FRACTION);
+
+		// true - order the entries by access so that the first entry is the least recently used
+		m_sprites = new LinkedHashMap<Integer, Bitmap>(8, 0.75f, true);
+	}
+
+	/**
+	* Decodes the given images so that they are ready before the first launch
+	*
+	* @param resIds - Resource ids of the drawables
+	*/
+	public void preload(int... resIds)
+	{
+		for(int resId : resIds)
+			get(resId);
+	}
+
+	/**
+	* Returns the decoded image of the drawable. It is decoded only if it is not in the cache
+	*
+	* @param resId - Resource id of the drawable
+	*
+	* @return The decoded image. Null if it could not be decoded
+	*/
+	public synchronized Bitmap get(int resId)
+	{
+		Bitmap bitmap = m_sprites.get(resId);
+
+		if(bitmap != null)
+			return bitmap;
+
+		bitmap = BitmapFactory.decodeResource(m_resources, resId);
+
+		if(bitmap == null)
+			return null;
+
+		m_sprites.put(resId, bitmap);
+		m_size += sizeOf(bitmap);
+
+		// Make room for the new image. The new image itself is kept even if it is bigger than the cache
+		trimToSize(m_maxBytes, bitmap);
+
+		return bitmap;
+	}
+
+	/**
+	* Removes the least recently used images until the cache uses at most maxBytes
+	*
+	* @param maxBytes - Memory (in bytes) the cache can use after the call
+	*/
+	public synchronized void trimToSize(int maxBytes)
+	{
+		trimToSize(maxBytes, null);
+	}
+
+	// Removes all the images from the cache
+	public synchronized void evictAll()
+	{
+		m_sprites.clear();
+		m_size = 0;
+	}
+
+	/**
+	* Releases memory when the system asks for it. Called by the application on memory callbacks
+	*
+	* @param level - How much memory should be released. One of the ComponentCallbacks2 levels
+	*/
+	public void onTrimMemory(int level)
+	{
+		if(level >= TRIM_MEMORY_UI_HIDDEN)
+			evictAll();
+		else if(level >= TRIM_MEMORY_RUNNING_LOW)
+			trimToSize(m_maxBytes / 2);
+	}
+
+	// Public property exposing the memory (in bytes) used by the cache
+	public synchronized int getSize()
+	{
+		return m_size;
+	}
+
+	// Removes the least recently used images, except keep, until the cache uses at most maxBytes
+	private void trimToSize(int maxBytes, Bitmap keep)
+	{
+		Iterator<Map.Entry<Integer, Bitmap>> it = m_sprites.entrySet().iterator();
+
+		while(m_size > maxBytes && it.hasNext())
+		{
+			Bitmap bitmap = it.next().getValue();
+
+			if(bitmap == keep)
+				continue;
+
+			m_size -= sizeOf(bitmap);
+			it.remove();
+		}
+	}
+
+	// Memory (in bytes) used by the pixels of the image
+	private static int sizeOf(Bitmap bitmap)
+	{
+		return bitmap.getRowBytes() * bitmap.getHeight();
+	}
+
+	// The cache can use 1/16 of the memory available to the process
+	private static final int MEMORY_FRACTION = 16;
+
+	// Levels from ComponentCallbacks2. They are not available in the API level we build against
+	public static final int TRIM_MEMORY_RUNNING_LOW = 10;
+	public static final int TRIM_MEMORY_UI_HIDDEN = 20;
+
+	// Represents the SpriteCache singleton instance
+	private static SpriteCache ms_instance;
+
+	private Resources m_resources;
+
+	// Represents the decoded images by their resource ids. Ordered from least to most recently used
+	private LinkedHashMap<Integer, Bitmap> m_sprites;
+
+	// Represents the memory (in bytes) used by the cached images
+	private int m_size = 0;
+
+	// Represents the maximum memory (in bytes) the cache can use
+	private int m_maxBytes;
+}
@@ -12,8 +12,11 @@ import android.view.Window;
 * Brief This is the activity which is responsible for setting the SurfaceView layout.
 * 	    This surface view renders the objects with the help of game engine class AnimationThread.
 * 
+* 	    It is used when the game is not embedded in the main activity. Every launch starts a new
+* 	    instance of this activity.
+* 
 */
-public class StartGameAct extends Activity 
+public class StartGameAct extends Activity implements Game.OnFlightFinishedListener
 {    
     @Override
     public void onCreate(Bundle savedInstanceState)
@@ -49,9 +52,45 @@ public class StartGameAct extends Activity
         int targetX = intent.getIntExtra("targetX", 0);
         int targetY = intent.getIntExtra("targetY", 0);
         
+        // If true the result is returned straight away without animating the flight
+        boolean instantResult = intent.getBooleanExtra("instantResult", false);
+        
+        Game game = new Game(this, angle, velocity, targetX, targetY, instantResult);
+        m_game = game;
+        
+        // Recorded with the launch, so the round can be generated again
+        game.setSeed(intent.getLongExtra("seed", 0));
+        
+        // Number of rockets fired by the launch
+        game.setSalvo(intent.getIntExtra("salvo", 1));
+        
+        // Pumpkins shown with the target
+        game.setField(intent.getIntExtra("field", 1), intent.getIntExtra("moving", 0));
+        
+        // The pumpkins burst by the earlier launches of the round stay burst
+        game.setBurstPumpkins(intent.getBooleanArrayExtra("burstPumpkins"));
+        
+        // Return the result as soon as the flight is over
+        game.setOnFlightFinishedListener(this);
+        
         // Set the SurfaceView and pass the values to it
-        setContentView(new Game(this, angle, velocity, targetX, targetY));		
+        setContentView(game);		
 	}
+    
+    /**
+     * Called on the UI thread when the flight is over
+     * 
+     * @param x         - x coordinate
+     * @param y         - y coordinate
+     * @param maxHeight - max height travelled by the rocket
+     * @param targetHit - True if the target was hit
+     * @param burst     - Number of other pumpkins of the field burst by the rockets
+     */
+    @Override
+    public void onFlightFinished(float x, float y, float maxHeight, boolean targetHit, int burst)
+    {
+    	returnResult(x, y, maxHeight, targetHit, burst);
+    }
 
     /**
      * This function returns the result to the caller activity.
@@ -62,9 +101,10 @@ public class StartGameAct extends Activity
      * @param y         - y coordinate
      * @param maxheight - max height travelled by the rocket
      * @param targetHit - target height
+     * @param burst     - pumpkins of the field burst by the rockets
      * 
      */
-	public void returnResult(float x, float y, float maxheight, boolean targetHit)
+	public void returnResult(float x, float y, float maxheight, boolean targetHit, int burst)
     {
     	Intent result = new Intent();
     	
@@ -72,10 +112,14 @@ public class StartGameAct extends Activity
     	result.putExtra("distanceY", y);
     	result.putExtra("maxHeight", maxheight);
     	result.putExtra("targetHit", targetHit);
+    	result.putExtra("burst", burst);
+    	result.putExtra("burstPumpkins", m_game.getBurstPumpkins());
     	
     	setResult(RESULT_OK, result);
     	
     	finish();
     }
     
+    // The game of the launch
+    private Game m_game = null;
 } 
\ No newline at end of file
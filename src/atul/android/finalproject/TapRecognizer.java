@@ -0,0 +1,215 @@
+package atul.android.finalproject;
+
+import android.content.Context;
+import android.view.MotionEvent;
+import android.view.ViewConfiguration;
+
+/**
+* Class TapRecognizer
+*
+* Brief This class finds taps and double taps in the touch events of a view. It replaces the
+* 		GestureDetector, which does a lot more than the game needs.
+*
+* 		- A tap is a finger which is lifted within the tap timeout and has not moved more than the
+* 		  touch slop. It is reported when the finger is lifted, without waiting to see whether a
+* 		  second tap follows
+* 		- A double tap is a second finger down within the double tap timeout of a tap and within
+* 		  the double tap slop of it. It is reported on the down, the earliest it can be known
+* 		- A drag (the player scrolling the seek bar) or a second finger is never a tap
+*
+* 		The moves batched into one MotionEvent are all checked, so a quick drag which ends where
+* 		it started is not mistaken for a tap. Every event is reported with the time of the input
+* 		event which completed it (in the SystemClock.uptimeMillis() time base), so the time from
+* 		the touch to the response can be measured.
+*
+*@note	onTouchEvent() returns false, so the view still gets the events. It does not allocate
+*/
+public class TapRecognizer
+{
+	/**
+	* Interface OnTapListener
+	*
+	* Brief Receives the taps found by the recognizer
+	*/
+	public interface OnTapListener
+	{
+		/**
+		* Called on a tap and on a double tap
+		*
+		* @param taps      - 1 for a tap, 2 for a double tap
+		* @param eventTime - Time of the input event which completed the tap, in uptime milliseconds
+		*/
+		void onTap(int taps, long eventTime);
+	}
+
+	/**
+	* Represents the constructor. The windows start at the platform values
+	*
+	* @param context  - Used to read the slops of the screen
+	* @param listener - Receives the taps
+	*/
+	public TapRecognizer(Context context, OnTapListener listener)
+	{
+		m_listener = listener;
+
+		ViewConfiguration configuration = ViewConfiguration.get(context);
+
+		int touchSlop = configuration.getScaledTouchSlop();
+		int doubleTapSlop = configuration.getScaledDoubleTapSlop();
+
+		m_touchSlopSquare = touchSlop * touchSlop;
+		m_doubleTapSlopSquare = doubleTapSlop * doubleTapSlop;
+
+		m_doubleTapTimeout = ViewConfiguration.getDoubleTapTimeout();
+	}
+
+	/**
+	* Sets the longest time a finger can be down for a tap
+	*
+	* @param millis - Time in milliseconds
+	*/
+	public void setTapTimeout(long millis)
+	{
+		m_tapTimeout = millis;
+	}
+
+	/**
+	* Sets the longest time from the end of a tap to the start of the second tap of a double tap
+	*
+	* @param millis - Time in milliseconds
+	*/
+	public void setDoubleTapTimeout(long millis)
+	{
+		m_doubleTapTimeout = millis;
+	}
+
+	/**
+	* Feeds a touch event to the recognizer
+	*
+	* @param event - Touch event of the view
+	*
+	* @return False, so the view handles the event as well
+	*/
+	public boolean onTouchEvent(MotionEvent event)
+	{
+		switch(event.getAction() & MotionEvent.ACTION_MASK)
+		{
+		case MotionEvent.ACTION_DOWN:
+			down(event.getX(), event.getY(), event.getEventTime());
+			break;
+
+		case MotionEvent.ACTION_MOVE:
+			// Moves which happened since the last event are batched into this one
+			for(int i = 0; i < event.getHistorySize(); i++)
+				move(event.getHistoricalX(i), event.getHistoricalY(i));
+
+			move(event.getX(), event.getY());
+			break;
+
+		case MotionEvent.ACTION_UP:
+			move(event.getX(), event.getY());
+			up(event.getEventTime());
+			break;
+
+		case MotionEvent.ACTION_POINTER_DOWN:
+		case MotionEvent.ACTION_CANCEL:
+			cancel();
+			break;
+
+		default:
+			break;
+		}
+
+		return false;
+	}
+
+	// Forgets the finger which is down and the last tap
+	public void cancel()
+	{
+		m_down = false;
+		m_inTap = false;
+		m_hasTap = false;
+	}
+
+	private void down(float x, float y, long eventTime)
+	{
+		m_down = true;
+		m_inTap = true;
+		m_downX = x;
+		m_downY = y;
+		m_downTime = eventTime;
+
+		if(m_hasTap && eventTime - m_tapUpTime <= m_doubleTapTimeout
+		   && distanceSquare(x, y, m_tapX, m_tapY) <= m_doubleTapSlopSquare)
+		{
+			// The second tap can not start a double tap of its own
+			m_hasTap = false;
+			m_inTap = false;
+
+			m_listener.onTap(2, eventTime);
+		}
+	}
+
+	private void move(float x, float y)
+	{
+		if(m_inTap && distanceSquare(x, y, m_downX, m_downY) > m_touchSlopSquare)
+			m_inTap = false;
+	}
+
+	private void up(long eventTime)
+	{
+		if(! m_down)
+			return;
+
+		m_down = false;
+
+		if(! m_inTap || eventTime - m_downTime > m_tapTimeout)
+		{
+			m_hasTap = false;
+			return;
+		}
+
+		m_inTap = false;
+
+		m_hasTap = true;
+		m_tapX = m_downX;
+		m_tapY = m_downY;
+		m_tapUpTime = eventTime;
+
+		m_listener.onTap(1, eventTime);
+	}
+
+	private static float distanceSquare(float x1, float y1, float x2, float y2)
+	{
+		float dx = x1 - x2;
+		float dy = y1 - y2;
+
+		return dx * dx + dy * dy;
+	}
+
+	// Longest time a finger is down for a tap, in milliseconds
+	public static final long DEFAULT_TAP_TIMEOUT = 300;
+
+	private final OnTapListener m_listener;
+
+	private final float m_touchSlopSquare;
+	private final float m_doubleTapSlopSquare;
+
+	private long m_tapTimeout = DEFAULT_TAP_TIMEOUT;
+	private long m_doubleTapTimeout;
+
+	// The finger which is down
+	private boolean m_down = false;
+	private float m_downX;
+	private float m_downY;
+	private long m_downTime;
+
+	// True while the finger which is down can still be a tap
+	private boolean m_inTap = false;
+
+	// The last tap, which can become the first tap of a double tap
+	private boolean m_hasTap = false;
+	private float m_tapX;
+	private float m_tapY;
+	private long m_tapUpTime;
+}
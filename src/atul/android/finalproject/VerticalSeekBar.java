@@ -1,142 +1,259 @@
-package atul.android.finalproject;
-
-import android.content.Context;
-import android.graphics.Canvas;
-import android.util.AttributeSet;
-import android.view.MotionEvent;
-import android.widget.SeekBar;
-
-/**
-* Class VerticalSeekBar
-* 
-* Brief This is a custom SeekBar class which inherits from the SeekBar class. It implements
-* 		 a vertical SeekBar with the width and height equal to the device width and height
-* 
-*/
-public class VerticalSeekBar extends SeekBar 
-{
-
-    /**
-    * This is the public default constructor
-    * 
-    * @param context - Represents the context in which the SeekBar is called
-    */
-	public VerticalSeekBar(Context context) 
-    {
-        super(context);        
-    }
-
-	/**
-	* This is called to initialize the view from the layout file
-	* 
-	* @param context  - Represents the context in which the SeekBar is called
-	* @param attrs    - A collection of properties specified in an xml resource file. 
-	* @param defStyle - Default style to apply to this view. If 0 then no style will be applied
-	*/
-    public VerticalSeekBar(Context context, AttributeSet attrs, int defStyle) 
-    {
-        super(context, attrs, defStyle);
-    }
-
-    /**
-	* This is called to initialize the view from the layout file
-	* 
-	* @param context  - Represents the context in which the SeekBar is called
-	* @param attrs    - A collection of properties specified in an xml resource file. 
-	*/
-    public VerticalSeekBar(Context context, AttributeSet attrs) 
-    {
-        super(context, attrs);
-    }
-
-    
-    /**
-	* To implement the custom SeekBar, we have to override this method.
-	* This is called during layout when the size of this view has changed
-	* 
-	* @param w    - Represents the current width of this view
-	* @param h    - Represents the current height of this view
-	* @param oldw - Represents the old width of this view
-	* @param oldh - Represents the old height of this view 
-	*/
-    @Override
-    protected void onSizeChanged(int w, int h, int oldw, int oldh) 
-    {
-    	super.onSizeChanged(w, h, oldw, oldh);
-    }
-
-    /**
-	* To implement the custom SeekBar, we have to override this method 
-	* 
-	* This method should calculate a measurement width and height which will be required to render 
-	* the component. It should try to stay within the specifications passed in, although it can choose
-	* to exceed them (in this case, the parent can choose what to do, including clipping, scrolling, 
-	* throwing an exception, or asking the onMeasure() to try again, perhaps with different 
-	* measurement specifications).
-	* Once the width and height are calculated, the setMeasuredDimension(int width, int height) method 
-	* must be called with the calculated measurements. Failure to do this will result in an exception 
-	* being thrown.
-	* 
-	* @param widthMeasureSpec  - Represents the horizontal space requirements as imposed by the parent
-	* @param heightMeasureSpec - Represents the vertical space requirements as imposed by the parent
-	*/
-    @Override
-    protected synchronized void onMeasure(int widthMeasureSpec, int heightMeasureSpec) 
-    {
-        super.onMeasure(heightMeasureSpec, widthMeasureSpec);
-        
-        // If this method is not called then it will result in a run time exception 
-        setMeasuredDimension(getMeasuredHeight(), getMeasuredWidth());
-    }    
-
-    /**
-    * To implement the custom SeekBar, we have to override this method
-    * 
-    * This method delivers a canvas object upon which we can implement anything we want: 2D graphics, 
-    * other standard or custom components, styled text, or anything else you can think of.
-    * 
-    * @param c  - Represents the canvas object 
-    */
-    protected void onDraw(Canvas c) 
-    {
-    	// Rotate the canvas to make it vertical
-        c.rotate(-90);
-        
-        // Translate the canvas
-        c.translate(-getHeight(), 0);
-
-        super.onDraw(c);
-    }
-
-    /**
-    * This method is implemented to handle touch screen motion events
-    * 
-    * @param event - Object used to report movement (mouse, pen, finger, trackball) events
-    */    
-    @Override
-    public boolean onTouchEvent(MotionEvent event) 
-    {
-    	// Check if the view is enabled or not. isEnabled returns True if this view is enabled, 
-    	// false otherwise 
-        if (!isEnabled()) 
-        {
-            return false;
-        }
-
-        
-        switch (event.getAction()) {
-            case MotionEvent.ACTION_DOWN:
-            case MotionEvent.ACTION_MOVE:
-            
-            // A pressed gesture has finished
-            case MotionEvent.ACTION_UP:
-                setProgress(getMax() - (int) (getMax() * event.getY() / getHeight()));
-                onSizeChanged(getWidth(), getHeight(), 0, 0);
-                break;
-
-            case MotionEvent.ACTION_CANCEL:
-                break;
-        }
-        return true;
-    }
-}
\ No newline at end of file
+package atul.android.finalproject;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.os.SystemClock;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.widget.SeekBar;
+
+/**
+* Class VerticalSeekBar
+* 
+* Brief This is a custom SeekBar class which inherits from the SeekBar class. It implements
+* 		 a vertical SeekBar with the width and height equal to the device width and height
+* 
+* 		 The progress follows the finger at most once per frame. Touch events which arrive faster
+* 		 than that only change the pending value, and the last one is applied when the frame is due,
+* 		 so the listener and the redraw are not run for values which are never seen. The finger
+* 		 going up is always applied at once.
+* 
+* 		 An OnDetentListener can be told when the value crosses into a new step (for example every
+* 		 5 units), so a tick is played only when the value really changes.
+* 
+*/
+public class VerticalSeekBar extends SeekBar 
+{
+	/**
+	* Interface OnDetentListener
+	* 
+	* Brief Receives the steps of the value
+	*/
+	public interface OnDetentListener
+	{
+		/**
+		* Called when the value moves into another step
+		* 
+		* @param seekBar - The seek bar
+		* @param detent  - Value rounded down to the step
+		*/
+		void onDetent(VerticalSeekBar seekBar, int detent);
+	}
+
+    /**
+    * This is the public default constructor
+    * 
+    * @param context - Represents the context in which the SeekBar is called
+    */
+	public VerticalSeekBar(Context context) 
+    {
+        super(context);        
+    }
+
+	/**
+	* This is called to initialize the view from the layout file
+	* 
+	* @param context  - Represents the context in which the SeekBar is called
+	* @param attrs    - A collection of properties specified in an xml resource file. 
+	* @param defStyle - Default style to apply to this view. If 0 then no style will be applied
+	*/
+    public VerticalSeekBar(Context context, AttributeSet attrs, int defStyle) 
+    {
+        super(context, attrs, defStyle);
+    }
+
+    /**
+	* This is called to initialize the view from the layout file
+	* 
+	* @param context  - Represents the context in which the SeekBar is called
+	* @param attrs    - A collection of properties specified in an xml resource file. 
+	*/
+    public VerticalSeekBar(Context context, AttributeSet attrs) 
+    {
+        super(context, attrs);
+    }
+
+    /**
+    * Sets the listener of the steps of the value
+    * 
+    * @param listener - Receives the steps. null to remove it
+    * @param step     - Size of a step in units of the progress
+    */
+    public void setOnDetentListener(OnDetentListener listener, int step)
+    {
+    	m_detentListener = listener;
+    	m_detentStep = Math.max(1, step);
+    	m_detent = getProgress() / m_detentStep;
+    }
+    
+    /**
+	* To implement the custom SeekBar, we have to override this method.
+	* This is called during layout when the size of this view has changed
+	* 
+	* @param w    - Represents the current width of this view
+	* @param h    - Represents the current height of this view
+	* @param oldw - Represents the old width of this view
+	* @param oldh - Represents the old height of this view 
+	*/
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) 
+    {
+    	super.onSizeChanged(w, h, oldw, oldh);
+    }
+
+    /**
+	* To implement the custom SeekBar, we have to override this method 
+	* 
+	* This method should calculate a measurement width and height which will be required to render 
+	* the component. It should try to stay within the specifications passed in, although it can choose
+	* to exceed them (in this case, the parent can choose what to do, including clipping, scrolling, 
+	* throwing an exception, or asking the onMeasure() to try again, perhaps with different 
+	* measurement specifications).
+	* Once the width and height are calculated, the setMeasuredDimension(int width, int height) method 
+	* must be called with the calculated measurements. Failure to do this will result in an exception 
+	* being thrown.
+	* 
+	* @param widthMeasureSpec  - Represents the horizontal space requirements as imposed by the parent
+	* @param heightMeasureSpec - Represents the vertical space requirements as imposed by the parent
+	*/
+    @Override
+    protected synchronized void onMeasure(int widthMeasureSpec, int heightMeasureSpec) 
+    {
+        super.onMeasure(heightMeasureSpec, widthMeasureSpec);
+        
+        // If this method is not called then it will result in a run time exception 
+        setMeasuredDimension(getMeasuredHeight(), getMeasuredWidth());
+    }    
+
+    /**
+    * To implement the custom SeekBar, we have to override this method
+    * 
+    * This method delivers a canvas object upon which we can implement anything we want: 2D graphics, 
+    * other standard or custom components, styled text, or anything else you can think of.
+    * 
+    * @param c  - Represents the canvas object 
+    */
+    protected void onDraw(Canvas c) 
+    {
+    	// Rotate the canvas to make it vertical
+        c.rotate(-90);
+        
+        // Translate the canvas
+        c.translate(-getHeight(), 0);
+
+        super.onDraw(c);
+    }
+
+    /**
+    * This method is implemented to handle touch screen motion events
+    * 
+    * @param event - Object used to report movement (mouse, pen, finger, trackball) events
+    */    
+    @Override
+    public boolean onTouchEvent(MotionEvent event) 
+    {
+    	// Check if the view is enabled or not. isEnabled returns True if this view is enabled, 
+    	// false otherwise 
+        if (!isEnabled()) 
+        {
+            return false;
+        }
+
+        
+        switch (event.getAction()) {
+            case MotionEvent.ACTION_DOWN:
+            case MotionEvent.ACTION_MOVE:
+            	m_pending = progressAt(event.getY());
+            	
+            	long wait = m_applied + FRAME_MILLIS - SystemClock.uptimeMillis();
+            	
+            	// Apply it now if a frame has passed, otherwise once when the frame is due
+            	if(wait <= 0)
+            		applyProgress();
+            	else if(! m_scheduled)
+            	{
+            		m_scheduled = true;
+            		postDelayed(m_applyProgress, wait);
+            	}
+            	break;
+            
+            // A pressed gesture has finished
+            case MotionEvent.ACTION_UP:
+            	m_pending = progressAt(event.getY());
+            	applyProgress();
+                break;
+
+            case MotionEvent.ACTION_CANCEL:
+                break;
+        }
+        return true;
+    }
+    
+    /**
+    * Returns the progress of a y coordinate of the touch. The top of the view is the maximum
+    * 
+    * @param y - y coordinate in the view
+    */
+    private int progressAt(float y)
+    {
+    	return getMax() - (int) (getMax() * y / getHeight());
+    }
+    
+    // Sets the pending progress and tells the detent listener if the step has changed
+    private void applyProgress()
+    {
+    	if(m_scheduled)
+    	{
+    		removeCallbacks(m_applyProgress);
+    		m_scheduled = false;
+    	}
+    	
+    	m_applied = SystemClock.uptimeMillis();
+    	
+    	if(m_pending == getProgress())
+    		return;
+    	
+    	setProgress(m_pending);
+    	
+    	// Moves the thumb to the new progress
+    	onSizeChanged(getWidth(), getHeight(), 0, 0);
+    	
+    	int detent = getProgress() / m_detentStep;
+    	
+    	if(detent != m_detent)
+    	{
+    		m_detent = detent;
+    		
+    		if(m_detentListener != null)
+    			m_detentListener.onDetent(this, detent * m_detentStep);
+    	}
+    }
+    
+    // Time between two changes of the progress in milliseconds, about one frame at 60 fps
+    private static final long FRAME_MILLIS = 16;
+    
+    private final Runnable m_applyProgress = new Runnable()
+    {
+    	@Override
+    	public void run()
+    	{
+    		m_scheduled = false;
+    		applyProgress();
+    	}
+    };
+    
+    // Progress of the last touch event, applied when the frame is due
+    private int m_pending = 0;
+    
+    // Time the progress was last applied
+    private long m_applied = 0;
+    
+    // True while m_applyProgress is posted
+    private boolean m_scheduled = false;
+    
+    private OnDetentListener m_detentListener = null;
+    private int m_detentStep = 1;
+    
+    // Step of the current progress
+    private int m_detent = 0;
+}